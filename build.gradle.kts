@@ -3,6 +3,7 @@ plugins {
     id("org.springframework.boot") version "3.2.3"
     id("io.spring.dependency-management") version "1.1.2"
     id("java")
+    id("me.champeau.jmh") version "0.7.3"
 }
 
 group = "com.example"
@@ -16,12 +17,14 @@ repositories {
 dependencies {
     implementation("org.springframework.boot:spring-boot-starter-web")
     implementation("org.springframework.boot:spring-boot-starter-data-mongodb")
+    implementation("org.springframework.boot:spring-boot-starter-data-mongodb-reactive")
     implementation("org.springframework.boot:spring-boot-starter-validation")
     implementation("com.fasterxml.jackson.datatype:jackson-datatype-jsr310")
     implementation ("org.projectlombok:lombok")
     annotationProcessor ("org.projectlombok:lombok")
     //Circuit Breaker
     implementation ("io.github.resilience4j:resilience4j-spring-boot3:2.2.0")
+    implementation ("org.springframework.boot:spring-boot-starter-aop")
     //caching
     implementation("com.github.ben-manes.caffeine:caffeine:3.1.6")
     implementation("org.springframework.boot:spring-boot-starter-data-redis")
@@ -29,18 +32,87 @@ dependencies {
     implementation ("org.springdoc:springdoc-openapi-starter-webmvc-ui:2.3.0")
 
     implementation ("org.springframework.boot:spring-boot-starter-actuator")
+    runtimeOnly ("io.micrometer:micrometer-registry-prometheus")
 
     testImplementation("org.springframework.boot:spring-boot-starter-test")
     testImplementation("org.testcontainers:junit-jupiter:1.20.3")
     testImplementation("org.testcontainers:mongodb:1.20.3")
     testImplementation ("com.fasterxml.jackson.core:jackson-databind")
     testImplementation("io.rest-assured:rest-assured:5.5.0")
+    testImplementation("org.hdrhistogram:HdrHistogram:2.1.12")
 }
 
 tasks.withType<Test> {
     useJUnitPlatform()
 }
 
+tasks.test {
+    useJUnitPlatform {
+        excludeTags("benchmark", "loadtest")
+    }
+}
+
+// Latency benchmarks tagged @Tag("benchmark"); they start their own MongoDB via Testcontainers
+tasks.register<Test>("benchmark") {
+    description = "Runs the benchmark-tagged tests."
+    group = "verification"
+    testClassesDirs = sourceSets.test.get().output.classesDirs
+    classpath = sourceSets.test.get().runtimeClasspath
+    useJUnitPlatform {
+        includeTags("benchmark")
+    }
+    testLogging {
+        showStandardStreams = true
+    }
+}
+
+// JMH microbenchmarks of the request hot path in src/jmh; run with ./gradlew jmh,
+// or a subset with ./gradlew jmh -PjmhIncludes=MapperBenchmark
+jmh {
+    jmhVersion.set("1.37")
+    fork.set(1)
+    warmupIterations.set(3)
+    warmup.set("1s")
+    iterations.set(5)
+    timeOnIteration.set("1s")
+    // allocation rate per operation (gc.alloc.rate.norm) next to the score
+    profilers.add("gc")
+    resultFormat.set("JSON")
+    (findProperty("jmhIncludes") as String?)?.let { includes.add(it) }
+}
+
+// End-to-end load test tagged @Tag("loadtest"); -Pzoo.loadtest.* properties are passed on to it,
+// e.g. ./gradlew loadTest -Pzoo.loadtest.rate=1000 -Pzoo.loadtest.duration=PT2M
+tasks.register<Test>("loadTest") {
+    description = "Runs the fixed-arrival-rate load test and writes build/reports/loadtest/loadtest.json."
+    group = "verification"
+    testClassesDirs = sourceSets.test.get().output.classesDirs
+    classpath = sourceSets.test.get().runtimeClasspath
+    useJUnitPlatform {
+        includeTags("loadtest")
+    }
+    systemProperty("zoo.loadtest.output", layout.buildDirectory.file("reports/loadtest/loadtest.json").get().asFile.path)
+    project.properties
+        .filterKeys { it.startsWith("zoo.loadtest.") }
+        .forEach { (name, value) -> systemProperty(name, value.toString()) }
+    outputs.upToDateWhen { false }
+    testLogging {
+        showStandardStreams = true
+    }
+}
+
+// Synthetic dataset for performance testing, written straight into Mongo; -Pzoo.dataset.* properties
+// are passed on, e.g. ./gradlew generateDataset -Pzoo.dataset.animals=10000000 -Pzoo.dataset.rooms=100000
+tasks.register<JavaExec>("generateDataset") {
+    description = "Writes a seeded synthetic zoo into the Mongo at zoo.dataset.mongo-uri."
+    group = "application"
+    classpath = sourceSets.test.get().runtimeClasspath
+    mainClass.set("com.er.zoo.dataset.DatasetGenerator")
+    project.properties
+        .filterKeys { it.startsWith("zoo.dataset.") }
+        .forEach { (name, value) -> systemProperty(name, value.toString()) }
+}
+
 tasks.register("jpackageJar") {
     dependsOn(tasks.named("bootJar"))
 }
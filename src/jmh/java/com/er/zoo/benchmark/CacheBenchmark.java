@@ -0,0 +1,62 @@
+package com.er.zoo.benchmark;
+
+import com.er.zoo.cache.CacheLoaders;
+import com.er.zoo.cache.LastKnownGood;
+import com.er.zoo.config.CacheConfig;
+import com.er.zoo.config.CacheProperties;
+import com.er.zoo.dto.AnimalResponse;
+import com.er.zoo.mapper.Mapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads of the {@code animals} cache through the {@link CaffeineCacheManager} built by
+ * {@link CacheConfig}, as {@code @Cacheable} performs them: a hit, and a miss that loads and
+ * stores the value. Runs with the synchronous and the async cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CacheBenchmark {
+
+    private static final String KEY = "65f1c0d2a4b3e10000000001";
+
+    @Param({"false", "true"})
+    public boolean async;
+
+    private Cache cache;
+    private AnimalResponse value;
+
+    @Setup
+    public void setUp() {
+        // default policies, no refresh-after-write, so the loaders are never called
+        CaffeineCacheManager manager = (CaffeineCacheManager) new CacheConfig().cacheManager(new CacheProperties(null),
+                new CacheLoaders(null, null), new LastKnownGood(Duration.ofHours(1), 10_000), async, false);
+        cache = manager.getCache("animals");
+        value = Mapper.toResponse(Fixtures.animal(1));
+        cache.put(KEY, value);
+    }
+
+    @Benchmark
+    public AnimalResponse hit() {
+        return cache.get(KEY, () -> value);
+    }
+
+    @Benchmark
+    public AnimalResponse miss() {
+        // explicit eviction also drops the key from the last-known-good tier, as a write would
+        cache.evict(KEY);
+        return cache.get(KEY, () -> value);
+    }
+}
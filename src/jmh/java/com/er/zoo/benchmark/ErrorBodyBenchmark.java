@@ -0,0 +1,55 @@
+package com.er.zoo.benchmark;
+
+import com.er.zoo.exception.AnimalNotFoundException;
+import com.er.zoo.exception.GlobalExceptionHandler;
+import com.er.zoo.logging.LoggerService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Error responses built by {@link GlobalExceptionHandler} for a 404, a 400 and a 500. The
+ * exceptions are created once, so only the handler's logging call and body are measured; log
+ * output is switched off in {@code src/jmh/resources/logback.xml}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ErrorBodyBenchmark {
+
+    private GlobalExceptionHandler handler;
+    private AnimalNotFoundException notFound;
+    private IllegalArgumentException badRequest;
+    private IllegalStateException unexpected;
+
+    @Setup
+    public void setUp() {
+        handler = new GlobalExceptionHandler(new LoggerService());
+        notFound = new AnimalNotFoundException("Animal not found");
+        badRequest = new IllegalArgumentException("page must be >= 0 and size between 1 and 100");
+        unexpected = new IllegalStateException("unexpected");
+    }
+
+    @Benchmark
+    public ResponseEntity<Map<String, Object>> notFound() {
+        return handler.handleAnimalNotFound(notFound);
+    }
+
+    @Benchmark
+    public ResponseEntity<Map<String, Object>> badRequest() {
+        return handler.handleBadRequest(badRequest);
+    }
+
+    @Benchmark
+    public ResponseEntity<Map<String, Object>> internalError() {
+        return handler.handleGeneric(unexpected);
+    }
+}
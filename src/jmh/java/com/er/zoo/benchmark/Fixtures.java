@@ -0,0 +1,34 @@
+package com.er.zoo.benchmark;
+
+import com.er.zoo.model.Animal;
+import com.er.zoo.model.Room;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Set;
+
+/**
+ * Documents shaped like the ones the API serves, with every mapped field set.
+ */
+final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    static Animal animal(int i) {
+        Animal animal = new Animal("Animal " + i, LocalDate.of(2020, 1, 1).plusDays(i));
+        animal.setId("65f1c0d2a4b3e1" + String.format("%010d", i));
+        animal.setRoomId("65f1c0d2a4b3e10000000001");
+        animal.setFavoriteRoomIds(Set.of("65f1c0d2a4b3e10000000002", "65f1c0d2a4b3e10000000003"));
+        animal.setCreated(Instant.parse("2024-03-13T10:15:30Z"));
+        animal.setUpdated(Instant.parse("2024-03-14T08:00:00Z"));
+        animal.setVersion(7L);
+        return animal;
+    }
+
+    static Room room(int i) {
+        return new Room("65f1c0d2a4b3e2" + String.format("%010d", i), "Room " + i,
+                Instant.parse("2024-03-13T10:15:30Z"), Instant.parse("2024-03-14T08:00:00Z"),
+                Set.of("65f1c0d2a4b3e10000000004"), 3L);
+    }
+}
@@ -0,0 +1,60 @@
+package com.er.zoo.benchmark;
+
+import com.er.zoo.logging.LoggerService;
+import com.er.zoo.service.ZooService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ZooService#validateIfMatch} as run before every conditional write: a matching
+ * {@code If-Match}, a missing one and a stale one, which answers 412.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class IfMatchBenchmark {
+
+    private ZooService service;
+
+    /**
+     * The check only uses the logger, so no repositories or caches are needed.
+     */
+    private static final class VersionCheck extends ZooService {
+        VersionCheck() {
+            super(null, new LoggerService());
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        service = new VersionCheck();
+    }
+
+    @Benchmark
+    public void matching() {
+        service.validateIfMatch(7L, "\"7\"");
+    }
+
+    @Benchmark
+    public void absent() {
+        service.validateIfMatch(7L, null);
+    }
+
+    @Benchmark
+    public Object mismatch() {
+        try {
+            service.validateIfMatch(8L, "\"7\"");
+            throw new IllegalStateException("expected 412");
+        } catch (ResponseStatusException e) {
+            return e;
+        }
+    }
+}
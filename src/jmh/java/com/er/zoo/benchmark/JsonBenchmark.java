@@ -0,0 +1,61 @@
+package com.er.zoo.benchmark;
+
+import com.er.zoo.dto.AnimalResponse;
+import com.er.zoo.mapper.Mapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Response body serialization with a mapper configured as the application's: an
+ * {@link AnimalResponse} and a page of them, sized as a room page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JsonBenchmark {
+
+    @Param({"20", "100"})
+    public int pageSize;
+
+    private ObjectMapper objectMapper;
+    private AnimalResponse animal;
+    private Page<AnimalResponse> page;
+
+    @Setup
+    public void setUp() {
+        // java.time support and ISO dates, as spring.jackson.serialization.WRITE_DATES_AS_TIMESTAMPS=false
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        animal = Mapper.toResponse(Fixtures.animal(1));
+        page = new PageImpl<>(IntStream.range(0, pageSize).mapToObj(i -> Mapper.toResponse(Fixtures.animal(i))).toList(),
+                PageRequest.of(0, pageSize, Sort.by("title")), 10_000);
+    }
+
+    @Benchmark
+    public byte[] animalResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(animal);
+    }
+
+    @Benchmark
+    public byte[] animalPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+}
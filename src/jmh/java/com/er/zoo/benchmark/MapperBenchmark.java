@@ -0,0 +1,44 @@
+package com.er.zoo.benchmark;
+
+import com.er.zoo.dto.AnimalResponse;
+import com.er.zoo.dto.RoomResponse;
+import com.er.zoo.mapper.Mapper;
+import com.er.zoo.model.Animal;
+import com.er.zoo.model.Room;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to response mapping done for every entity a read returns.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MapperBenchmark {
+
+    private Animal animal;
+    private Room room;
+
+    @Setup
+    public void setUp() {
+        animal = Fixtures.animal(1);
+        room = Fixtures.room(1);
+    }
+
+    @Benchmark
+    public AnimalResponse animalToResponse() {
+        return Mapper.toResponse(animal);
+    }
+
+    @Benchmark
+    public RoomResponse roomToResponse() {
+        return Mapper.toResponse(room);
+    }
+}
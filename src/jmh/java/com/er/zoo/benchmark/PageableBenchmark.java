@@ -0,0 +1,36 @@
+package com.er.zoo.benchmark;
+
+import com.er.zoo.dto.RoomRequest;
+import com.er.zoo.enums.SortField;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link RoomRequest#toPageable()} for a room page request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PageableBenchmark {
+
+    private RoomRequest request;
+
+    @Setup
+    public void setUp() {
+        request = new RoomRequest("65f1c0d2a4b3e10000000001", SortField.LOCATED, Sort.Direction.DESC, 3, 20, null);
+    }
+
+    @Benchmark
+    public Pageable toPageable() {
+        return request.toPageable();
+    }
+}
@@ -0,0 +1,72 @@
+package com.er.zoo.cache;
+
+import com.er.zoo.dto.RoomRequest;
+import com.er.zoo.enums.SortField;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Room-scoped invalidation for the {@code animalsInRoom} cache.
+ * <p>
+ * Pages are cached under {@code roomId:sort:order:page:size} (see {@link #key(RoomRequest)}),
+ * so all pages of a room share the {@code roomId:} prefix. When an animal enters, leaves or
+ * changes inside a room only that room's pages are evicted; pages of other rooms stay cached.
+ * </p>
+ */
+@Component
+public class AnimalsInRoomCache {
+    public static final String NAME = "animalsInRoom";
+
+    private final CacheManager cacheManager;
+
+    public AnimalsInRoomCache(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    public static String key(RoomRequest roomRequest) {
+        return roomRequest.roomId() + ":" + roomRequest.sort() + ":" + roomRequest.order()
+                + ":" + roomRequest.page() + ":" + roomRequest.size();
+    }
+
+    /**
+     * Inverse of {@link #key(RoomRequest)}, used to reload a page in the background.
+     * The fields are taken from the end, so room ids containing {@code :} survive the round trip.
+     */
+    public static RoomRequest request(String key) {
+        String[] parts = key.split(":", -1);
+        int n = parts.length;
+        if (n < 5)
+            throw new IllegalArgumentException("Not an animalsInRoom key: " + key);
+        String roomId = String.join(":", Arrays.copyOfRange(parts, 0, n - 4));
+        return new RoomRequest(roomId, SortField.valueOf(parts[n - 4]), Sort.Direction.valueOf(parts[n - 3]),
+                Integer.valueOf(parts[n - 2]), Integer.parseInt(parts[n - 1]), null);
+    }
+
+    /**
+     * Evicts every cached page of the given rooms. {@code null} room ids are ignored.
+     */
+    public void evict(String... roomIds) {
+        Set<String> prefixes = Arrays.stream(roomIds)
+                .filter(Objects::nonNull)
+                .map(id -> id + ":")
+                .collect(Collectors.toSet());
+        Cache cache = cacheManager.getCache(NAME);
+        if (prefixes.isEmpty() || cache == null) return;
+
+        if (cache instanceof TwoLevelCache twoLevel) {
+            twoLevel.evictByPrefix(prefixes);
+        } else if (cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeine) {
+            caffeine.asMap().keySet().removeIf(key ->
+                    key instanceof String k && prefixes.stream().anyMatch(k::startsWith));
+        } else {
+            cache.clear();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.er.zoo.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Reads, puts and evicts many entries of one cache at once, for multi-gets and batch writes.
+ * <p>
+ * Caffeine caches are read with one {@code getAll} and written with one {@code putAll} /
+ * {@code invalidateAll} instead of one call per key; {@link TwoLevelCache}s also batch their local tier. Other caches fall back to
+ * one call per entry.
+ * </p>
+ */
+@Component
+public class BulkCache {
+
+    private final CacheManager cacheManager;
+
+    public BulkCache(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Looks up many keys at once. Caffeine caches use {@code getAll}: the hits are returned
+     * and all misses are passed to a single {@code loader} call, whose results are cached.
+     * Keys the loader does not return are left out of the result.
+     */
+    @SuppressWarnings("unchecked")
+    public <V> Map<String, V> getAll(String name, Collection<String> keys, Function<Set<String>, Map<String, V>> loader) {
+        Cache cache = cacheManager.getCache(name);
+        if (keys.isEmpty()) return Map.of();
+        if (cache == null) return loader.apply(new LinkedHashSet<>(keys));
+
+        Function<Set<?>, Map<?, ?>> load = missing -> loader.apply(
+                missing.stream().map(String.class::cast).collect(Collectors.toCollection(LinkedHashSet::new)));
+        Map<?, ?> found;
+        if (cache instanceof TwoLevelCache twoLevel) {
+            found = twoLevel.getAll(keys, load::apply);
+        } else if (caffeine(cache) instanceof com.github.benmanes.caffeine.cache.Cache<Object, Object> caffeine) {
+            found = caffeine.getAll(keys, load::apply);
+        } else {
+            Map<String, V> hits = new HashMap<>();
+            Set<String> misses = new LinkedHashSet<>();
+            for (String key : keys) {
+                Cache.ValueWrapper hit = cache.get(key);
+                if (hit != null && hit.get() != null) hits.put(key, (V) hit.get());
+                else misses.add(key);
+            }
+            if (!misses.isEmpty()) {
+                Map<String, V> loaded = loader.apply(misses);
+                loaded.forEach(cache::put);
+                hits.putAll(loaded);
+            }
+            return hits;
+        }
+        return (Map<String, V>) found;
+    }
+
+    public void putAll(String name, Map<String, ?> entries) {
+        Cache cache = cacheManager.getCache(name);
+        if (entries.isEmpty() || cache == null) return;
+
+        if (cache instanceof TwoLevelCache twoLevel) {
+            twoLevel.putAll(entries);
+        } else if (caffeine(cache) instanceof com.github.benmanes.caffeine.cache.Cache<Object, Object> caffeine) {
+            caffeine.putAll(entries);
+        } else {
+            entries.forEach(cache::put);
+        }
+    }
+
+    public void evictAll(String name, Collection<String> keys) {
+        Cache cache = cacheManager.getCache(name);
+        if (keys.isEmpty() || cache == null) return;
+
+        if (cache instanceof TwoLevelCache twoLevel) {
+            twoLevel.evictAll(keys);
+        } else if (caffeine(cache) instanceof com.github.benmanes.caffeine.cache.Cache<Object, Object> caffeine) {
+            caffeine.invalidateAll(keys);
+        } else {
+            keys.forEach(cache::evict);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static com.github.benmanes.caffeine.cache.Cache<Object, Object> caffeine(Cache cache) {
+        return cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeine
+                ? (com.github.benmanes.caffeine.cache.Cache<Object, Object>) caffeine : null;
+    }
+}
@@ -0,0 +1,31 @@
+package com.er.zoo.cache;
+
+/**
+ * Invalidation message exchanged between replicas over Redis pub/sub.
+ * <p>
+ * Encoded as {@code origin|cache|type|key}; the key goes last so it may contain the separator.
+ * </p>
+ *
+ * @param origin id of the replica that published the message, used to skip its own messages
+ * @param cache  name of the cache to invalidate
+ * @param type   what to invalidate
+ * @param key    the key ({@link Type#EVICT}), the key prefix ({@link Type#EVICT_PREFIX}) or empty ({@link Type#CLEAR})
+ */
+public record CacheInvalidation(String origin, String cache, Type type, String key) {
+
+    public enum Type { EVICT, EVICT_PREFIX, CLEAR }
+
+    private static final String SEPARATOR = "|";
+
+    public String encode() {
+        return origin + SEPARATOR + cache + SEPARATOR + type + SEPARATOR + (key == null ? "" : key);
+    }
+
+    public static CacheInvalidation decode(String message) {
+        String[] parts = message.split("\\" + SEPARATOR, 4);
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("Malformed cache invalidation: " + message);
+        }
+        return new CacheInvalidation(parts[0], parts[1], Type.valueOf(parts[2]), parts[3]);
+    }
+}
@@ -0,0 +1,9 @@
+package com.er.zoo.cache;
+
+/**
+ * Broadcasts local-cache invalidations to the other replicas.
+ */
+public interface CacheInvalidationPublisher {
+
+    void publish(CacheInvalidation invalidation);
+}
@@ -0,0 +1,40 @@
+package com.er.zoo.cache;
+
+import com.er.zoo.dto.RoomRequest;
+import com.er.zoo.mapper.Mapper;
+import com.er.zoo.repository.AnimalRepository;
+import com.er.zoo.repository.RoomRepository;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import org.springframework.stereotype.Component;
+
+/**
+ * Loaders used to refresh cache entries in the background ({@code refresh-after-write}).
+ * <p>
+ * Each loader reads an entry the same way the {@code @Cacheable} service method that filled it
+ * did. A loader returning {@code null} (the animal or room was deleted meanwhile) drops the entry;
+ * a loader that throws leaves the old value in place until it expires.
+ * </p>
+ */
+@Component
+public class CacheLoaders {
+
+    private final AnimalRepository animalRepository;
+    private final RoomRepository roomRepository;
+
+    public CacheLoaders(AnimalRepository animalRepository, RoomRepository roomRepository) {
+        this.animalRepository = animalRepository;
+        this.roomRepository = roomRepository;
+    }
+
+    public CacheLoader<Object, Object> forCache(String name) {
+        return switch (name) {
+            case "animals" -> key -> animalRepository.findById((String) key).map(Mapper::toResponse).orElse(null);
+            case "rooms" -> key -> roomRepository.findById((String) key).map(Mapper::toResponse).orElse(null);
+            case AnimalsInRoomCache.NAME -> key -> {
+                RoomRequest request = AnimalsInRoomCache.request((String) key);
+                return animalRepository.findByRoomId(request.roomId(), request.toPageable()).map(Mapper::toResponse);
+            };
+            default -> throw new IllegalArgumentException("No loader for cache: " + name);
+        };
+    }
+}
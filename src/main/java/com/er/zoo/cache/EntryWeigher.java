@@ -0,0 +1,54 @@
+package com.er.zoo.cache;
+
+import com.er.zoo.dto.AnimalResponse;
+import com.er.zoo.dto.RoomResponse;
+import com.github.benmanes.caffeine.cache.Weigher;
+import org.springframework.data.domain.Page;
+
+import java.util.Collection;
+
+/**
+ * Estimates the heap bytes of a cache entry, for caches bounded by {@code maximum-weight}.
+ * <p>
+ * The estimate counts object headers, references and string characters; it is meant to keep
+ * large room pages from crowding out point lookups, not to be exact.
+ * </p>
+ */
+public class EntryWeigher implements Weigher<Object, Object> {
+
+    private static final int OBJECT = 16;
+    private static final int REFERENCE = 8;
+    private static final int INSTANT = 24;
+    private static final int LOCAL_DATE = 24;
+    // HashSet node plus its share of the table
+    private static final int SET_ENTRY = 48;
+
+    @Override
+    public int weigh(Object key, Object value) {
+        long bytes = string(key) + estimate(value);
+        return (int) Math.min(Integer.MAX_VALUE, bytes);
+    }
+
+    static long estimate(Object value) {
+        return switch (value) {
+            case AnimalResponse animal -> OBJECT + 8 * REFERENCE + string(animal.id()) + string(animal.title())
+                    + LOCAL_DATE + 2 * INSTANT + string(animal.roomId()) + string(animal.version())
+                    + strings(animal.favoriteRoomIds());
+            case RoomResponse room -> OBJECT + 5 * REFERENCE + string(room.id()) + string(room.title())
+                    + 2 * INSTANT + string(room.version());
+            case Page<?> page -> OBJECT * 4 + page.getContent().stream().mapToLong(EntryWeigher::estimate).sum()
+                    + (long) page.getNumberOfElements() * REFERENCE;
+            case null -> 0;
+            default -> OBJECT;
+        };
+    }
+
+    private static long string(Object value) {
+        return value == null ? 0 : OBJECT + 24 + value.toString().length();
+    }
+
+    private static long strings(Collection<String> values) {
+        if (values == null) return 0;
+        return OBJECT + values.stream().mapToLong(value -> SET_ENTRY + string(value)).sum();
+    }
+}
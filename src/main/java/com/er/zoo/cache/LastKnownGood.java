@@ -0,0 +1,76 @@
+package com.er.zoo.cache;
+
+import com.er.zoo.exception.StaleResponseException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.mongodb.MongoException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.support.NullValue;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Longer-lived tier holding the last successfully loaded value of each cache key, served while
+ * Mongo is unavailable.
+ * <p>
+ * It is filled from the regular caches rather than from every write: when an entry expires or is
+ * evicted for size, its value moves here. An explicit eviction (the entity was changed or deleted)
+ * drops the key here as well, so a value known to be outdated is never served. Entries live for
+ * {@code zoo.cache.last-known-good.ttl}.
+ * </p>
+ */
+@Component
+public class LastKnownGood {
+
+    private record Key(String cacheName, Object key) {}
+
+    private final Cache<Key, Object> values;
+
+    public LastKnownGood(@Value("${zoo.cache.last-known-good.ttl:PT24H}") Duration ttl,
+                         @Value("${zoo.cache.last-known-good.maximum-size:50000}") long maximumSize) {
+        this.values = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    /**
+     * Adds the listeners that feed this tier from the cache {@code cacheName} built by {@code builder}.
+     */
+    public Caffeine<Object, Object> track(String cacheName, Caffeine<Object, Object> builder) {
+        // the eviction listener runs inside the eviction, before a reload of the key can fail
+        return builder
+                .evictionListener((key, value, cause) -> {
+                    if (key != null && value != null && !(value instanceof NullValue))
+                        values.put(new Key(cacheName, key), value);
+                })
+                .removalListener((key, value, cause) -> {
+                    if (cause == RemovalCause.EXPLICIT && key != null)
+                        values.invalidate(new Key(cacheName, key));
+                });
+    }
+
+    /**
+     * Fallback of a cached read that failed with {@code failure}.
+     * @return a {@link StaleResponseException} carrying the last known good value when the failure
+     * means Mongo is unavailable and such a value exists, otherwise the failure itself
+     */
+    public RuntimeException stale(String cacheName, Object key, Throwable failure) {
+        if (unavailable(failure)) {
+            Object value = values.getIfPresent(new Key(cacheName, key));
+            if (value != null)
+                return new StaleResponseException(value, failure);
+        }
+        return failure instanceof RuntimeException runtime ? runtime : new IllegalStateException(failure);
+    }
+
+    private static boolean unavailable(Throwable failure) {
+        return failure instanceof CallNotPermittedException
+                || failure instanceof DataAccessException
+                || failure instanceof MongoException;
+    }
+}
@@ -0,0 +1,218 @@
+package com.er.zoo.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * A {@link Cache} with a per-replica Caffeine near-cache (L1) in front of a shared Redis tier (L2).
+ * <p>
+ * Reads try L1, then L2, then the value loader, filling the tiers on the way back. Writes and
+ * evictions go to L2 and L1 and are broadcast through {@link CacheInvalidationPublisher}, so
+ * the other replicas drop their L1 copy and re-read the shared value on their next access.
+ * </p>
+ * <p>
+ * Built over an {@link AsyncCache}, a miss in {@link #get(Object, Callable)} is loaded on the cache's
+ * executor and the caller waits on the future, not inside Caffeine's per-key lock.
+ * </p>
+ */
+public class TwoLevelCache extends AbstractValueAdaptingCache {
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<Object, Object> local;
+    private final AsyncCache<Object, Object> async;
+    private final Cache remote;
+    private final Consumer<String> remotePrefixEvictor;
+    private final CacheInvalidationPublisher publisher;
+    private final String origin;
+
+    public TwoLevelCache(String name,
+                         com.github.benmanes.caffeine.cache.Cache<Object, Object> local,
+                         Cache remote,
+                         Consumer<String> remotePrefixEvictor,
+                         CacheInvalidationPublisher publisher,
+                         String origin) {
+        this(name, local, null, remote, remotePrefixEvictor, publisher, origin);
+    }
+
+    public TwoLevelCache(String name,
+                         AsyncCache<Object, Object> local,
+                         Cache remote,
+                         Consumer<String> remotePrefixEvictor,
+                         CacheInvalidationPublisher publisher,
+                         String origin) {
+        this(name, local.synchronous(), local, remote, remotePrefixEvictor, publisher, origin);
+    }
+
+    private TwoLevelCache(String name,
+                          com.github.benmanes.caffeine.cache.Cache<Object, Object> local,
+                          AsyncCache<Object, Object> async,
+                          Cache remote,
+                          Consumer<String> remotePrefixEvictor,
+                          CacheInvalidationPublisher publisher,
+                          String origin) {
+        super(false);
+        this.name = name;
+        this.local = local;
+        this.async = async;
+        this.remote = remote;
+        this.remotePrefixEvictor = remotePrefixEvictor;
+        this.publisher = publisher;
+        this.origin = origin;
+    }
+
+    @Override
+    public String getName() { return name; }
+
+    @Override
+    public com.github.benmanes.caffeine.cache.Cache<Object, Object> getNativeCache() { return local; }
+
+    @Override
+    protected Object lookup(Object key) {
+        Object value = local.getIfPresent(key);
+        if (value != null) return value;
+
+        ValueWrapper shared = remote.get(key);
+        if (shared == null || shared.get() == null) return null;
+        local.put(key, shared.get());
+        return shared.get();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        // Caffeine computes at most once per key on this replica; concurrent callers wait for it
+        if (async == null)
+            return (T) local.get(key, k -> load(k, valueLoader));
+        try {
+            return (T) async.get(key, (k, executor) -> CompletableFuture.supplyAsync(() -> load(k, valueLoader), executor))
+                    .join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T load(Object key, Callable<T> valueLoader) {
+        ValueWrapper shared = remote.get(key);
+        if (shared != null && shared.get() != null) return (T) shared.get();
+        try {
+            T loaded = valueLoader.call();
+            if (loaded != null) remote.put(key, loaded);
+            return loaded;
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+    }
+
+    /**
+     * Bulk read through the tiers: one {@code getAll} on L1, its misses from L2, and what is still
+     * missing from one {@code loader} call. Loaded values are written to L2; keys the loader does not
+     * return are left out of the result and are not cached.
+     */
+    public Map<Object, Object> getAll(Collection<?> keys, Function<Set<Object>, Map<?, ?>> loader) {
+        return local.getAll(keys, missing -> {
+            Map<Object, Object> found = new HashMap<>();
+            Set<Object> unresolved = new LinkedHashSet<>();
+            for (Object key : missing) {
+                ValueWrapper shared = remote.get(key);
+                if (shared != null && shared.get() != null) found.put(key, shared.get());
+                else unresolved.add(key);
+            }
+            if (!unresolved.isEmpty()) {
+                loader.apply(unresolved).forEach((key, value) -> {
+                    if (value == null) return;
+                    remote.put(key, value);
+                    found.put(key, value);
+                });
+            }
+            return found;
+        });
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (value == null) {
+            evict(key);
+            return;
+        }
+        remote.put(key, value);
+        local.put(key, value);
+        publish(CacheInvalidation.Type.EVICT, key.toString());
+    }
+
+    @Override
+    public void evict(Object key) {
+        remote.evict(key);
+        local.invalidate(key);
+        publish(CacheInvalidation.Type.EVICT, key.toString());
+    }
+
+    /**
+     * {@link #put(Object, Object)} for many non-null values: one {@code putAll} on the local tier.
+     */
+    public void putAll(Map<?, ?> entries) {
+        entries.forEach(remote::put);
+        local.putAll(entries);
+        entries.keySet().forEach(key -> publish(CacheInvalidation.Type.EVICT, key.toString()));
+    }
+
+    /**
+     * {@link #evict(Object)} for many keys: one {@code invalidateAll} on the local tier.
+     */
+    public void evictAll(Collection<?> keys) {
+        keys.forEach(remote::evict);
+        local.invalidateAll(keys);
+        keys.forEach(key -> publish(CacheInvalidation.Type.EVICT, key.toString()));
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        local.invalidateAll();
+        publish(CacheInvalidation.Type.CLEAR, "");
+    }
+
+    /**
+     * Evicts every entry whose (string) key starts with one of the given prefixes, on all tiers
+     * and all replicas.
+     */
+    public void evictByPrefix(Collection<String> prefixes) {
+        prefixes.forEach(prefix -> {
+            remotePrefixEvictor.accept(prefix);
+            evictLocalByPrefix(prefix);
+            publish(CacheInvalidation.Type.EVICT_PREFIX, prefix);
+        });
+    }
+
+    /**
+     * Applies an invalidation received from another replica to the local tier only.
+     */
+    public void invalidateLocal(CacheInvalidation invalidation) {
+        switch (invalidation.type()) {
+            case EVICT -> local.invalidate(invalidation.key());
+            case EVICT_PREFIX -> evictLocalByPrefix(invalidation.key());
+            case CLEAR -> local.invalidateAll();
+        }
+    }
+
+    private void evictLocalByPrefix(String prefix) {
+        local.asMap().keySet().removeIf(key -> key instanceof String k && k.startsWith(prefix));
+    }
+
+    private void publish(CacheInvalidation.Type type, String key) {
+        publisher.publish(new CacheInvalidation(origin, name, type, key));
+    }
+}
@@ -0,0 +1,42 @@
+package com.er.zoo.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.AbstractCacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * {@link org.springframework.cache.CacheManager} for {@link TwoLevelCache}s.
+ * <p>
+ * Also listens on the invalidation channel and applies messages published by other replicas
+ * to the local tier of the matching cache.
+ * </p>
+ */
+public class TwoLevelCacheManager extends AbstractCacheManager implements MessageListener {
+
+    private final List<TwoLevelCache> caches;
+    private final String origin;
+
+    public TwoLevelCacheManager(List<TwoLevelCache> caches, String origin) {
+        this.caches = caches;
+        this.origin = origin;
+    }
+
+    @Override
+    protected Collection<? extends Cache> loadCaches() {
+        return caches;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        var invalidation = CacheInvalidation.decode(new String(message.getBody(), StandardCharsets.UTF_8));
+        if (origin.equals(invalidation.origin())) return;
+        if (getCache(invalidation.cache()) instanceof TwoLevelCache cache) {
+            cache.invalidateLocal(invalidation);
+        }
+    }
+}
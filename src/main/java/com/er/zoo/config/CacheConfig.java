@@ -1,40 +1,91 @@
 package com.er.zoo.config;
+import com.er.zoo.cache.CacheLoaders;
+import com.er.zoo.cache.EntryWeigher;
+import com.er.zoo.cache.LastKnownGood;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
 
-import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executor;
 
 /**
  * Configuration class for caching in the Zoo API using Caffeine.
  * <p>
  * Features:
  *  <ul>
- *       <li>Time-based eviction: caches expire after a fixed duration.</li>
- *       <li>Maximum size: prevents excessive memory usage by limiting cache entries.</li>
+ *       <li>Per-cache policies from {@code zoo.cache.specs} (see {@link CacheProperties}): time-based
+ *       eviction and either a maximum entry count or a maximum weight in estimated bytes
+ *       ({@link EntryWeigher}).</li>
+ *       <li>Refresh-ahead: a cache with {@code refresh-after-write} reloads an entry read after that
+ *       delay in the background through {@link CacheLoaders}; readers keep getting the old value
+ *       meanwhile and only block on a key that is missing or past {@code expire-after-write}.</li>
  *       <li>Separate caches for Animals, Rooms, and AnimalsInRoom lists.</li>
+ *       <li>Single-flight loads: the service methods use {@code @Cacheable(sync = true)}, which
+ *       loads a missing key through Caffeine's per-key {@code get(key, loader)}, so concurrent
+ *       misses for one key wait for a single repository call.</li>
+ *       <li>Async caches: with {@code zoo.cache.async=true} the caches are built as Caffeine
+ *       {@code AsyncCache}s, which the {@code reactive} profile reads through {@code Cache.retrieve}.
+ *       The flag follows {@code spring.threads.virtual.enabled} unless set, and with virtual threads
+ *       loads and refreshes run on virtual threads. A miss then waits on a future instead of loading
+ *       inside Caffeine's per-key {@code compute}, which holds a monitor and would pin the request's
+ *       carrier thread for the whole repository call.</li>
+ *       <li>Stale-while-error: values leaving a cache by expiry or size move to {@link LastKnownGood}.
+ *       The caching aspect runs outside the circuit breaker aspect, so a breaker
+ *       fallback serving such a value is never written back into the cache.</li>
  *  </ul>
  *  </p>
+ *  <p>
+ *  This local-only manager is used unless {@code zoo.cache.redis.enabled=true}, in which case
+ *  {@link RedisCacheConfig} layers the same Caffeine caches over a shared Redis tier.
+ *  </p>
  */
 @Configuration
-@EnableCaching
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE)
+@EnableConfigurationProperties(CacheProperties.class)
 public class CacheConfig {
 
-    @Bean
-    public Caffeine<Object, Object> caffeineConfig() {
-        return Caffeine.newBuilder()
-                .expireAfterWrite(Duration.ofMinutes(5))
-                .maximumSize(10_000);
-    }
+    public static final String[] CACHE_NAMES = {"animals", "rooms", "animalsInRoom"};
 
     @Bean
-    public CacheManager cacheManager(Caffeine<Object, Object> caffeine) {
-        CaffeineCacheManager manager = new CaffeineCacheManager("animals", "rooms", "animalsInRoom");
-        manager.setCaffeine(caffeine);
+    @ConditionalOnProperty(name = "zoo.cache.redis.enabled", havingValue = "false", matchIfMissing = true)
+    public CacheManager cacheManager(CacheProperties properties, CacheLoaders loaders, LastKnownGood lastKnownGood,
+                                     @Value("${zoo.cache.async:${spring.threads.virtual.enabled:false}}") boolean async,
+                                     @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        CaffeineCacheManager manager = new CaffeineCacheManager();
+        // only the caches registered below exist
+        manager.setCacheNames(List.of());
+        EntryWeigher weigher = new EntryWeigher();
+        for (String name : CACHE_NAMES) {
+            CacheProperties.Spec spec = properties.spec(name);
+            Caffeine<Object, Object> builder = lastKnownGood.track(name, spec.builder(weigher));
+            if (async) {
+                if (virtualThreads)
+                    builder.executor(virtualThreadLoads());
+                manager.registerCustomCache(name, spec.refreshes()
+                        ? builder.refreshAfterWrite(spec.refreshAfterWrite()).buildAsync(loaders.forCache(name))
+                        : builder.buildAsync());
+                continue;
+            }
+            manager.registerCustomCache(name, spec.refreshes()
+                    ? builder.refreshAfterWrite(spec.refreshAfterWrite()).build(loaders.forCache(name))
+                    : builder.build());
+        }
         return manager;
     }
-}
 
+    /**
+     * Executor for cache loads and refreshes in virtual-thread mode: one virtual thread per load.
+     */
+    static Executor virtualThreadLoads() {
+        return new VirtualThreadTaskExecutor("cache-load-");
+    }
+}
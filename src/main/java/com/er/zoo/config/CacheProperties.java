@@ -0,0 +1,67 @@
+package com.er.zoo.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Weigher;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Per-cache Caffeine policies, bound from {@code zoo.cache.specs.<cache name>}.
+ * <p>
+ * Caches without a spec, and unset fields of a spec, keep the previous shared policy:
+ * {@code maximum-size: 10000} and {@code expire-after-write: PT5M}.
+ * </p>
+ *
+ * @param specs policy of each cache, by cache name
+ */
+@ConfigurationProperties("zoo.cache")
+public record CacheProperties(Map<String, Spec> specs) {
+
+    public CacheProperties {
+        specs = specs == null ? Map.of() : Map.copyOf(specs);
+    }
+
+    public Spec spec(String cacheName) {
+        return specs.getOrDefault(cacheName, Spec.DEFAULT);
+    }
+
+    /**
+     * @param maximumSize       maximum number of entries; ignored when {@code maximumWeight} is set
+     * @param maximumWeight     bound on the estimated size of all entries, see {@code EntryWeigher}
+     * @param expireAfterWrite  entries are dropped this long after they were written
+     * @param refreshAfterWrite entries read this long after they were written are reloaded in the
+     *                          background while the old value keeps being served; must be shorter
+     *                          than {@code expireAfterWrite}
+     */
+    public record Spec(Long maximumSize, DataSize maximumWeight, Duration expireAfterWrite, Duration refreshAfterWrite) {
+
+        static final Spec DEFAULT = new Spec(null, null, null, null);
+
+        private static final long DEFAULT_MAXIMUM_SIZE = 10_000;
+        private static final Duration DEFAULT_EXPIRY = Duration.ofMinutes(5);
+
+        public Duration expiry() {
+            return expireAfterWrite == null ? DEFAULT_EXPIRY : expireAfterWrite;
+        }
+
+        public boolean refreshes() {
+            return refreshAfterWrite != null;
+        }
+
+        /**
+         * Builder with the size, weight and expiry of this spec, recording hit, miss, eviction and load
+         * statistics for the cache metrics; the refresh is added by the caller, which has to supply a loader.
+         */
+        public Caffeine<Object, Object> builder(Weigher<Object, Object> weigher) {
+            if (refreshes() && refreshAfterWrite.compareTo(expiry()) >= 0)
+                throw new IllegalStateException("refresh-after-write must be shorter than expire-after-write");
+            Caffeine<Object, Object> builder = Caffeine.newBuilder().expireAfterWrite(expiry()).recordStats();
+            if (maximumWeight != null)
+                return builder.maximumWeight(maximumWeight.toBytes()).weigher(weigher);
+            return builder.maximumSize(maximumSize == null ? DEFAULT_MAXIMUM_SIZE : maximumSize);
+        }
+    }
+}
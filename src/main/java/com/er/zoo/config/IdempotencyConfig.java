@@ -0,0 +1,80 @@
+package com.er.zoo.config;
+
+import com.er.zoo.idempotency.IdempotencyFilter;
+import com.er.zoo.idempotency.IdempotencyStore;
+import com.er.zoo.idempotency.InMemoryIdempotencyStore;
+import com.er.zoo.idempotency.MongoIdempotencyStore;
+import com.er.zoo.idempotency.RedisIdempotencyStore;
+import com.er.zoo.idempotency.TimedIdempotencyStore;
+import com.er.zoo.logging.LoggerService;
+import com.er.zoo.repository.IdempotencyRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import java.time.Duration;
+
+/**
+ * Selects the {@link IdempotencyStore} backend from {@code zoo.idempotency.store}.
+ * <ul>
+ *     <li>{@code mongo} (default) — insert-only records in the {@code idempotency} collection.</li>
+ *     <li>{@code redis} — {@code SET NX EX}, shared by all replicas.</li>
+ *     <li>{@code memory} — local Caffeine cache, single replica and tests only.</li>
+ * </ul>
+ * Every backend is wrapped in a {@link TimedIdempotencyStore}, which records its latency.
+ * Registered keys are held for {@code zoo.idempotency.in-flight-lease} until the response is recorded,
+ * then for {@code zoo.idempotency.ttl}.
+ * The {@link IdempotencyFilter} replays recorded responses for repeated create POSTs.
+ */
+@Configuration
+public class IdempotencyConfig {
+
+    private static final String STORE = "zoo.idempotency.store";
+    private static final String LEASE = "${zoo.idempotency.in-flight-lease:PT1M}";
+    private static final String TTL = "${zoo.idempotency.ttl:PT24H}";
+
+    @Bean
+    @ConditionalOnProperty(name = STORE, havingValue = "mongo", matchIfMissing = true)
+    public IdempotencyStore mongoIdempotencyStore(IdempotencyRepository repository, MongoTemplate mongoTemplate,
+                                                  @Value(LEASE) Duration inFlightLease, @Value(TTL) Duration ttl,
+                                                  MeterRegistry meterRegistry) {
+        return new TimedIdempotencyStore(new MongoIdempotencyStore(repository, mongoTemplate, inFlightLease, ttl),
+                meterRegistry, "mongo");
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = STORE, havingValue = "redis")
+    public IdempotencyStore redisIdempotencyStore(StringRedisTemplate redisTemplate, ObjectMapper objectMapper,
+                                                  @Value(LEASE) Duration inFlightLease, @Value(TTL) Duration ttl,
+                                                  MeterRegistry meterRegistry) {
+        return new TimedIdempotencyStore(new RedisIdempotencyStore(redisTemplate, objectMapper, inFlightLease, ttl),
+                meterRegistry, "redis");
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = STORE, havingValue = "memory")
+    public IdempotencyStore inMemoryIdempotencyStore(@Value(LEASE) Duration inFlightLease, @Value(TTL) Duration ttl,
+                                                     MeterRegistry meterRegistry) {
+        return new TimedIdempotencyStore(new InMemoryIdempotencyStore(inFlightLease, ttl), meterRegistry, "memory");
+    }
+
+    @Bean
+    public FilterRegistrationBean<IdempotencyFilter> idempotencyFilter(
+            IdempotencyStore store,
+            @Qualifier("handlerExceptionResolver") HandlerExceptionResolver exceptionResolver,
+            LoggerService loggerService,
+            @Value("${zoo.idempotency.wait-timeout:PT10S}") Duration waitTimeout) {
+        var registration = new FilterRegistrationBean<>(
+                new IdempotencyFilter(store, exceptionResolver, loggerService, waitTimeout));
+        registration.addUrlPatterns(IdempotencyFilter.PATHS.toArray(String[]::new));
+        return registration;
+    }
+}
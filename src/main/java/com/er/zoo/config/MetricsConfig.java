@@ -0,0 +1,67 @@
+package com.er.zoo.config;
+
+import com.er.zoo.cache.TwoLevelCache;
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionPoolListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Metrics exported on {@code /actuator/prometheus}.
+ * <p>
+ * Most meters come from Spring Boot once a registry is present: {@code http.server.requests}
+ * per route, {@code mongodb.driver.commands} per command and collection,
+ * {@code mongodb.driver.pool.*} gauges for the connection pools, and {@code cache.*} for the
+ * Caffeine caches, which record statistics (see {@link CacheProperties.Spec#builder}).
+ * Histograms are switched on in {@code application.yml}. This class adds what Boot does not cover:
+ * </p>
+ * <ul>
+ *     <li>{@code mongodb.driver.pool.checkout}: time a command waited for a pooled connection,
+ *     tagged with the server and whether a connection was obtained.</li>
+ *     <li>cache metrics for the near-cache of each {@link TwoLevelCache} in Redis mode.</li>
+ * </ul>
+ * Idempotency store latency is recorded by {@code TimedIdempotencyStore}.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoPoolCheckoutMetrics(MeterRegistry registry) {
+        return settings -> settings.applyToConnectionPoolSettings(pool -> pool.addConnectionPoolListener(
+                new ConnectionPoolListener() {
+                    @Override
+                    public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+                        checkoutTimer(registry, event.getConnectionId().getServerId().getAddress().toString(), "success")
+                                .record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+                    }
+
+                    @Override
+                    public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event) {
+                        checkoutTimer(registry, event.getServerId().getAddress().toString(), "failed")
+                                .record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+                    }
+                }));
+    }
+
+    private static Timer checkoutTimer(MeterRegistry registry, String server, String outcome) {
+        return Timer.builder("mongodb.driver.pool.checkout")
+                .description("Time spent waiting for a pooled connection")
+                .tag("server.address", server)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    @Bean
+    public CacheMeterBinderProvider<TwoLevelCache> twoLevelCacheMeterBinderProvider() {
+        return (cache, tags) -> new CaffeineCacheMetrics<>(cache.getNativeCache(), cache.getName(), tags);
+    }
+}
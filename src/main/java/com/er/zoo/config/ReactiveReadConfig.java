@@ -0,0 +1,38 @@
+package com.er.zoo.config;
+
+import com.er.zoo.controller.ReactiveReadHandler;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.servlet.function.RequestPredicate;
+import org.springframework.web.servlet.function.RouterFunction;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import static org.springframework.web.servlet.function.RequestPredicates.param;
+import static org.springframework.web.servlet.function.RequestPredicates.path;
+import static org.springframework.web.servlet.function.RouterFunctions.route;
+
+/**
+ * Read routes of the {@code reactive} profile.
+ * <p>
+ * Functional routes are matched before the annotated controllers, so these take over the read
+ * endpoints they declare while writes, exports, multi-gets and keyset pages stay on the controllers.
+ * Enable with {@code spring.profiles.active=reactive}; the profile also switches on the reactive Mongo
+ * client and repositories and builds the Caffeine caches as {@code AsyncCache}s.
+ * </p>
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveReadConfig {
+
+    @Bean
+    public RouterFunction<ServerResponse> reactiveReadRoutes(ReactiveReadHandler handler) {
+        RequestPredicate export = path("/api/v1/*/export");
+        return route()
+                .GET("/api/v1/rooms/favorites", handler::favoriteRooms)
+                .GET("/api/v1/rooms/{roomId}/animals", param("after", after -> true).negate(), handler::getAnimalsInRoom)
+                .GET("/api/v1/rooms/{id}", export.negate(), handler::getRoom)
+                .GET("/api/v1/animals/{id}", export.negate(), handler::getAnimal)
+                .build();
+    }
+}
@@ -0,0 +1,97 @@
+package com.er.zoo.config;
+
+import com.er.zoo.cache.CacheInvalidationPublisher;
+import com.er.zoo.cache.EntryWeigher;
+import com.er.zoo.cache.LastKnownGood;
+import com.er.zoo.cache.TwoLevelCache;
+import com.er.zoo.cache.TwoLevelCacheManager;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.BatchStrategies;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Two-tier cache configuration, enabled with {@code zoo.cache.redis.enabled=true}.
+ * <p>
+ * Each replica keeps the Caffeine caches from {@link CacheConfig} as a near-cache (L1) in front
+ * of a Redis cache (L2) shared by all replicas. Writes and evictions are published on
+ * {@code zoo.cache.redis.channel}; every other replica drops its L1 copy when it receives them,
+ * so a write on one pod is visible on all pods without waiting for the L1 entry to expire.
+ * </p>
+ * <p>
+ * The L1 caches take size, weight and expiry from {@code zoo.cache.specs} but never refresh ahead:
+ * a background reload would go to Mongo behind the shared tier's back, so a stale L1 entry simply
+ * expires and is read again through Redis.
+ * </p>
+ */
+@Configuration
+@ConditionalOnProperty(name = "zoo.cache.redis.enabled", havingValue = "true")
+public class RedisCacheConfig {
+
+    private final String origin = UUID.randomUUID().toString();
+
+    @Bean
+    public TwoLevelCacheManager cacheManager(CacheProperties properties,
+                                             LastKnownGood lastKnownGood,
+                                             RedisConnectionFactory connectionFactory,
+                                             StringRedisTemplate redisTemplate,
+                                             @Value("${zoo.cache.redis.channel:zoo:cache:invalidation}") String channel,
+                                             @Value("${zoo.cache.redis.ttl:PT5M}") Duration ttl,
+                                             @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        RedisCacheWriter writer = RedisCacheWriter.nonLockingRedisCacheWriter(connectionFactory, BatchStrategies.scan(1000));
+        RedisCacheConfiguration redisConfig = RedisCacheConfiguration.defaultCacheConfig()
+                .entryTtl(ttl)
+                .disableCachingNullValues();
+        RedisCacheManager redis = RedisCacheManager.builder(writer)
+                .cacheDefaults(redisConfig)
+                .initialCacheNames(Set.of(CacheConfig.CACHE_NAMES))
+                .build();
+        redis.afterPropertiesSet();
+
+        CacheInvalidationPublisher publisher = invalidation -> redisTemplate.convertAndSend(channel, invalidation.encode());
+        EntryWeigher weigher = new EntryWeigher();
+        var caches = Arrays.stream(CacheConfig.CACHE_NAMES)
+                .map(name -> {
+                    Caffeine<Object, Object> local = lastKnownGood.track(name, properties.spec(name).builder(weigher));
+                    Cache remote = Objects.requireNonNull(redis.getCache(name));
+                    Consumer<String> remotePrefixEvictor = prefix -> writer.clean(name,
+                            (redisConfig.getKeyPrefixFor(name) + prefix + "*").getBytes(StandardCharsets.UTF_8));
+                    // in virtual-thread mode the L1 is an AsyncCache, so that the Redis and Mongo round trips
+                    // of a miss run on a virtual thread instead of inside Caffeine's per-key lock
+                    return virtualThreads
+                            ? new TwoLevelCache(name, local.executor(CacheConfig.virtualThreadLoads()).buildAsync(),
+                                    remote, remotePrefixEvictor, publisher, origin)
+                            : new TwoLevelCache(name, local.build(), remote, remotePrefixEvictor, publisher, origin);
+                })
+                .toList();
+        return new TwoLevelCacheManager(caches, origin);
+    }
+
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListener(RedisConnectionFactory connectionFactory,
+                                                                   TwoLevelCacheManager cacheManager,
+                                                                   @Value("${zoo.cache.redis.channel:zoo:cache:invalidation}") String channel) {
+        var container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(cacheManager, new ChannelTopic(channel));
+        return container;
+    }
+}
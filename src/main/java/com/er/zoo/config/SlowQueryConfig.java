@@ -0,0 +1,55 @@
+package com.er.zoo.config;
+
+import com.er.zoo.logging.LoggerService;
+import com.er.zoo.slowquery.SlowQueryEndpoint;
+import com.er.zoo.slowquery.SlowQueryListener;
+import com.er.zoo.slowquery.SlowQueryLog;
+import com.er.zoo.slowquery.SlowQueryProperties;
+import com.mongodb.client.MongoClient;
+import org.bson.BsonDocument;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+
+/**
+ * Slow-query log for Mongo commands, off unless {@code zoo.slow-query.enabled=true}: the listener
+ * copies every explainable command it sees, a cost only worth paying while diagnosing.
+ * <p>
+ * The {@link SlowQueryListener} is added to the Mongo client settings; it runs its explains
+ * through the same client, which is looked up lazily because it is built from those settings.
+ * The log is served by {@link SlowQueryEndpoint}.
+ * </p>
+ */
+@Configuration
+@ConditionalOnProperty(name = "zoo.slow-query.enabled", havingValue = "true")
+@EnableConfigurationProperties(SlowQueryProperties.class)
+public class SlowQueryConfig {
+
+    @Bean
+    public SlowQueryLog slowQueryLog(SlowQueryProperties properties) {
+        return new SlowQueryLog(properties.capacity());
+    }
+
+    @Bean
+    public SlowQueryListener slowQueryListener(SlowQueryProperties properties, SlowQueryLog slowQueryLog,
+                                               ObjectProvider<MongoClient> mongoClient, LoggerService loggerService) {
+        return new SlowQueryListener(properties, slowQueryLog,
+                (database, command) -> mongoClient.getObject().getDatabase(database).runCommand(command, BsonDocument.class),
+                loggerService, Clock.systemUTC());
+    }
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer slowQueryListenerCustomizer(SlowQueryListener slowQueryListener) {
+        return settings -> settings.addCommandListener(slowQueryListener);
+    }
+
+    @Bean
+    public SlowQueryEndpoint slowQueryEndpoint(SlowQueryLog slowQueryLog) {
+        return new SlowQueryEndpoint(slowQueryLog);
+    }
+}
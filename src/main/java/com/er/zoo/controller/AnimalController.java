@@ -1,15 +1,28 @@
 package com.er.zoo.controller;
 
 import com.er.zoo.dto.AnimalCreateRequest;
+import com.er.zoo.dto.AnimalFilter;
 import com.er.zoo.dto.AnimalUpdateRequest;
 import com.er.zoo.dto.AnimalResponse;
+import com.er.zoo.dto.BulkOperationResult;
 import com.er.zoo.dto.FavouriteRoomsRequest;
+import com.er.zoo.dto.MultiGetResponse;
+import com.er.zoo.idempotency.IdempotencyFilter;
 import com.er.zoo.service.AnimalService;
+import com.er.zoo.service.ExportService;
+import com.er.zoo.service.ImportService;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import java.net.URI;
+import java.time.Instant;
+import java.util.List;
 /**
  * REST controller for managing Animals in the Zoo.
  * <p>
@@ -33,22 +46,72 @@ import java.net.URI;
 )
 public class AnimalController {
     private final AnimalService animalService;
+    private final ExportService exportService;
+    private final ImportService importService;
 
 
-    public AnimalController(AnimalService animalService) { this.animalService = animalService; }
+    public AnimalController(AnimalService animalService, ExportService exportService, ImportService importService) {
+        this.animalService = animalService; this.exportService = exportService; this.importService = importService;
+    }
 
     @PostMapping(consumes = "application/json", produces = "application/json")
     public ResponseEntity<AnimalResponse> create(@Valid @RequestBody AnimalCreateRequest request,
-                                                 @RequestHeader("Idempotency-Key") String idempotencyKey) {
-        var saved = animalService.create(request,idempotencyKey);
+                                                 @RequestHeader("Idempotency-Key") String idempotencyKey,
+                                                 @RequestAttribute(name = IdempotencyFilter.CLAIMED_KEY_ATTRIBUTE, required = false)
+                                                 String claimedKey) {
+        var saved = animalService.create(request, idempotencyKey, idempotencyKey.equals(claimedKey));
         return ResponseEntity
                 .created(URI.create("api/v1/animals/" + saved.id()))
                 .eTag(saved.version())
                 .body(saved);
     }
 
+    /**
+     * Streams all animals as NDJSON straight from a Mongo cursor.
+     * @param roomId only animals in this room
+     * @param updatedSince only animals updated at or after this ISO-8601 instant
+     */
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(required = false) String roomId,
+                                                        @RequestParam(required = false) Instant updatedSince) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> exportService.exportAnimals(roomId, updatedSince, out));
+    }
+
+    /**
+     * Imports animals from an NDJSON body, one {@link AnimalCreateRequest} per line, and streams back
+     * one {@link com.er.zoo.dto.ImportLineResult} per line. Sending the same upload again with the same
+     * {@code Idempotency-Key} creates nothing twice and resumes an interrupted import.
+     */
+    @PostMapping(value = "/import", consumes = "application/x-ndjson", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> importAnimals(@RequestHeader("Idempotency-Key") String idempotencyKey,
+                                                               HttpServletRequest request) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> importService.importAnimals(idempotencyKey, request.getInputStream(), out));
+    }
+
+    /**
+     * Multi-get: {@code GET /api/v1/animals?ids=a1,a2,...} returns the animals in request order
+     * and the ids that do not exist under {@code missing}.
+     */
+    @GetMapping(params = "ids", produces = "application/json")
+    public MultiGetResponse<AnimalResponse> getAll(@RequestParam List<String> ids) {
+        return animalService.getAnimals(ids);
+    }
+
+    /**
+     * Answers {@code If-None-Match} from a version-only lookup: an unchanged animal gets 304
+     * without being loaded, mapped or serialized. If the version cannot be read, the animal is
+     * answered in full, which may be the last known good value while Mongo is unavailable.
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<AnimalResponse> get(@PathVariable String id) {
+    public ResponseEntity<AnimalResponse> get(@PathVariable String id, WebRequest webRequest) {
+        if (webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                && animalService.currentVersion(id).map(version -> webRequest.checkNotModified(Long.toString(version))).orElse(false)) {
+            return null;
+        }
         AnimalResponse animalResponse = animalService.getAnimal(id);
         return ResponseEntity.ok()
                 .eTag(animalResponse.version())
@@ -72,6 +135,14 @@ public class AnimalController {
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * Deletes every animal matching the filter with one bulk delete. At least one criterion is required.
+     */
+    @DeleteMapping
+    public BulkOperationResult deleteAll(@ModelAttribute AnimalFilter filter) {
+        return new BulkOperationResult(animalService.deleteAll(filter));
+    }
+
     @PostMapping("/{animalId}/move/{roomId}")
     public ResponseEntity<AnimalResponse> move(@PathVariable String animalId,
                                                @PathVariable String roomId,
@@ -0,0 +1,54 @@
+package com.er.zoo.controller;
+
+import com.er.zoo.dto.AnimalBatchOperation;
+import com.er.zoo.dto.BatchRequest;
+import com.er.zoo.dto.BatchResult;
+import com.er.zoo.dto.RoomBatchOperation;
+import com.er.zoo.service.AnimalService;
+import com.er.zoo.service.RoomService;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * REST controller for batch writes of Animals and Rooms.
+ * <p>
+ * {@code POST /api/v1/animals:batch} and {@code POST /api/v1/rooms:batch} take up to
+ * {@link BatchRequest#MAX_OPERATIONS} create, update and delete operations, each with its own
+ * optional {@code ifMatch} version, and write them with one unordered bulk write. The response
+ * is 200 with one {@link BatchResult} per operation, in request order; operations fail independently.
+ * </p>
+ * <p>
+ * The {@code :batch} paths extend the collection segment, so they live here rather than under
+ * the {@code /animals} and {@code /rooms} mappings.
+ * </p>
+ */
+@RestController
+@RequestMapping("/api/v1")
+@Tag(
+        name = "Batch API",
+        description = "Bulk create, update and delete of animals and rooms."
+)
+public class BatchController {
+    private final AnimalService animalService;
+    private final RoomService roomService;
+
+    public BatchController(AnimalService animalService, RoomService roomService) {
+        this.animalService = animalService; this.roomService = roomService;
+    }
+
+    @PostMapping(value = "/animals:batch", consumes = "application/json", produces = "application/json")
+    public List<BatchResult> animals(@Valid @RequestBody BatchRequest<AnimalBatchOperation> request) {
+        return animalService.batch(request.operations());
+    }
+
+    @PostMapping(value = "/rooms:batch", consumes = "application/json", produces = "application/json")
+    public List<BatchResult> rooms(@Valid @RequestBody BatchRequest<RoomBatchOperation> request) {
+        return roomService.batch(request.operations());
+    }
+}
@@ -0,0 +1,260 @@
+package com.er.zoo.controller;
+
+import com.er.zoo.cache.AnimalsInRoomCache;
+import com.er.zoo.cache.LastKnownGood;
+import com.er.zoo.dto.AnimalResponse;
+import com.er.zoo.dto.FavoriteRoomCount;
+import com.er.zoo.dto.RoomRequest;
+import com.er.zoo.dto.RoomResponse;
+import com.er.zoo.enums.SortField;
+import com.er.zoo.exception.AnimalNotFoundException;
+import com.er.zoo.exception.GlobalExceptionHandler;
+import com.er.zoo.exception.RoomNotFoundException;
+import com.er.zoo.exception.StaleResponseException;
+import com.er.zoo.mapper.Mapper;
+import com.er.zoo.model.common.BaseDocument;
+import com.er.zoo.repository.ReactiveAnimalRepository;
+import com.er.zoo.repository.ReactiveRoomRepository;
+import com.er.zoo.repository.RoomRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+import org.springframework.web.servlet.function.ServerRequest;
+import org.springframework.web.servlet.function.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.ZonedDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Non-blocking handlers for the read endpoints of the {@code reactive} profile, routed by
+ * {@link com.er.zoo.config.ReactiveReadConfig} in front of the annotated controllers.
+ * <p>
+ * They answer the same URLs with the same bodies, status codes and {@code ETag}s as
+ * {@link AnimalController} and {@link RoomController}, but no request thread waits on Mongo: the
+ * reactive repositories return {@code Mono}/{@code Flux} and the response completes asynchronously.
+ * Single entities and room pages are read through the same caches as the blocking services, as
+ * Caffeine {@code AsyncCache}s, so writes made through the controllers evict what is served here.
+ * Room pages and favorite rooms are streamed as NDJSON, one item per line, when the request accepts
+ * {@code application/x-ndjson}.
+ * </p>
+ * <p>
+ * Errors are turned into responses by the {@link GlobalExceptionHandler} methods, which do not
+ * apply to functional endpoints on their own.
+ * </p>
+ */
+@Component
+@Profile("reactive")
+public class ReactiveReadHandler {
+
+    private final ReactiveAnimalRepository animalRepository;
+    private final ReactiveRoomRepository roomRepository;
+    private final Cache animals;
+    private final Cache rooms;
+    private final Cache animalsInRoom;
+    private final LastKnownGood lastKnownGood;
+    private final GlobalExceptionHandler exceptionHandler;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+
+    public ReactiveReadHandler(ReactiveAnimalRepository animalRepository, ReactiveRoomRepository roomRepository,
+                               CacheManager cacheManager, LastKnownGood lastKnownGood,
+                               GlobalExceptionHandler exceptionHandler, Validator validator, ObjectMapper objectMapper) {
+        this.animalRepository = animalRepository;
+        this.roomRepository = roomRepository;
+        this.animals = asyncCache(cacheManager, "animals");
+        this.rooms = asyncCache(cacheManager, "rooms");
+        this.animalsInRoom = asyncCache(cacheManager, AnimalsInRoomCache.NAME);
+        this.lastKnownGood = lastKnownGood;
+        this.exceptionHandler = exceptionHandler;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+    }
+
+    private static Cache asyncCache(CacheManager cacheManager, String name) {
+        Cache cache = cacheManager.getCache(name);
+        Assert.state(cache instanceof CaffeineCache,
+                "The reactive profile reads through the local Caffeine caches; set zoo.cache.redis.enabled=false");
+        // fails unless the caches are built as AsyncCaches (zoo.cache.async=true)
+        ((CaffeineCache) cache).getAsyncCache();
+        return cache;
+    }
+
+    /**
+     * {@code GET /api/v1/animals/{id}}
+     */
+    public ServerResponse getAnimal(ServerRequest request) {
+        String id = request.pathVariable("id");
+        return conditional(request,
+                () -> animalRepository.findVersionById(id),
+                () -> cached(animals, id, () -> animalRepository.findById(id).map(Mapper::toResponse)),
+                AnimalResponse::version,
+                () -> new AnimalNotFoundException("Animal not found"));
+    }
+
+    /**
+     * {@code GET /api/v1/rooms/{id}}
+     */
+    public ServerResponse getRoom(ServerRequest request) {
+        String id = request.pathVariable("id");
+        return conditional(request,
+                () -> roomRepository.findVersionById(id),
+                () -> cached(rooms, id, () -> roomRepository.findById(id).map(Mapper::toResponse)),
+                RoomResponse::version,
+                () -> new RoomNotFoundException("Room not found"));
+    }
+
+    /**
+     * {@code GET /api/v1/rooms/{roomId}/animals}: the page as JSON from the {@code animalsInRoom}
+     * cache, or the page content streamed from Mongo as NDJSON.
+     */
+    public ServerResponse getAnimalsInRoom(ServerRequest request) {
+        return async(Mono.defer(() -> {
+            RoomRequest roomRequest = roomRequest(request);
+            Set<ConstraintViolation<RoomRequest>> violations = validator.validate(roomRequest);
+            if (!violations.isEmpty())
+                return invalid(violations);
+            Pageable pageable = roomRequest.toPageable();
+            Flux<AnimalResponse> content = animalRepository.findByRoomId(roomRequest.roomId(), pageable)
+                    .map(Mapper::toResponse);
+            if (acceptsNdjson(request))
+                return ndjson(content);
+            String key = AnimalsInRoomCache.key(roomRequest);
+            Mono<Page<AnimalResponse>> page = cached(animalsInRoom, key, () -> content.collectList()
+                    .zipWith(animalRepository.countByRoomId(roomRequest.roomId()),
+                            (animals, total) -> new PageImpl<>(animals, pageable, total)));
+            return page.map(body -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).body(body));
+        }));
+    }
+
+    /**
+     * {@code GET /api/v1/rooms/favorites}: not cached, as in {@link RoomController#favoriteRooms}.
+     */
+    public ServerResponse favoriteRooms(ServerRequest request) {
+        return async(Mono.defer(() -> {
+            int page = request.param("page").map(Integer::parseInt).orElse(0);
+            int size = request.param("size").map(Integer::parseInt).orElse(20);
+            if (page < 0 || size < 1 || size > 100)
+                throw new IllegalArgumentException("page must be >= 0 and size between 1 and 100");
+            Flux<FavoriteRoomCount> counts = roomRepository
+                    .findFavoriteRooms(PageRequest.of(page, size, RoomRepository.FAVORITE_ORDER))
+                    .map(room -> new FavoriteRoomCount(room.getTitle(), room.getFavoriteCount()));
+            if (acceptsNdjson(request))
+                return ndjson(counts);
+            return counts.collectList()
+                    .map(body -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).body(body));
+        }));
+    }
+
+    /**
+     * Answers {@code If-None-Match} from a version-only lookup as the controllers do: an unchanged
+     * entity gets 304 without being loaded; otherwise the loaded entity is returned with its {@code ETag}.
+     * A lookup that fails because Mongo is unavailable answers in full, from the cache or the last known good value.
+     */
+    private <T> ServerResponse conditional(ServerRequest request, Supplier<Mono<? extends BaseDocument>> currentVersion,
+                                           Supplier<Mono<T>> load, Function<T, String> version,
+                                           Supplier<RuntimeException> notFound) {
+        Mono<ServerResponse> found = Mono.defer(load)
+                .switchIfEmpty(Mono.error(notFound))
+                .map(body -> ServerResponse.ok().eTag(version.apply(body)).contentType(MediaType.APPLICATION_JSON).body(body));
+        if (request.headers().firstHeader(HttpHeaders.IF_NONE_MATCH) == null)
+            return async(found);
+        Mono<Optional<Long>> current = Mono.defer(currentVersion)
+                .map(document -> Optional.of(document.getVersion()))
+                .switchIfEmpty(Mono.error(notFound))
+                .onErrorResume(DataAccessException.class, failure -> Mono.just(Optional.empty()));
+        return async(current.flatMap(known -> known
+                .flatMap(v -> request.checkNotModified(Long.toString(v)))
+                .map(Mono::just)
+                .orElse(found)));
+    }
+
+    /**
+     * Reads through an async cache: concurrent misses for one key share one load. When the load
+     * fails because Mongo is unavailable, the last known good value is served instead.
+     */
+    private <T> Mono<T> cached(Cache cache, Object key, Supplier<Mono<T>> load) {
+        return Mono.fromFuture(() -> cache.retrieve(key, () -> load.get().toFuture()))
+                .onErrorMap(failure -> lastKnownGood.stale(cache.getName(), key, failure));
+    }
+
+    private ServerResponse async(Mono<ServerResponse> response) {
+        return ServerResponse.async(response.onErrorResume(this::error));
+    }
+
+    private Mono<ServerResponse> ndjson(Flux<?> items) {
+        Flux<String> lines = items.map(item -> {
+            try {
+                return objectMapper.writeValueAsString(item) + "\n";
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        return Mono.just(ServerResponse.ok().contentType(MediaType.APPLICATION_NDJSON).body(lines));
+    }
+
+    private static boolean acceptsNdjson(ServerRequest request) {
+        return request.headers().accept().stream().anyMatch(MediaType.APPLICATION_NDJSON::equalsTypeAndSubtype);
+    }
+
+    /**
+     * Binds the query parameters as {@code @ModelAttribute RoomRequest} does; a value that does not
+     * convert is rejected with 400.
+     */
+    private static RoomRequest roomRequest(ServerRequest request) {
+        return new RoomRequest(request.pathVariable("roomId"),
+                request.param("sort").map(value -> SortField.valueOf(value.trim())).orElse(null),
+                request.param("order").map(value -> Sort.Direction.valueOf(value.trim())).orElse(null),
+                request.param("page").map(Integer::valueOf).orElse(null),
+                request.param("size").map(Integer::parseInt).orElse(0),
+                null);
+    }
+
+    /**
+     * 400 with the field errors, in the body {@link GlobalExceptionHandler#handleValidation} produces.
+     */
+    private static Mono<ServerResponse> invalid(Set<ConstraintViolation<RoomRequest>> violations) {
+        Map<String, String> errors = violations.stream().collect(Collectors.toMap(
+                violation -> violation.getPropertyPath().toString(), ConstraintViolation::getMessage, (a, b) -> a + ", " + b));
+        return Mono.just(ServerResponse.badRequest().contentType(MediaType.APPLICATION_JSON)
+                .body(Map.of("timestamp", ZonedDateTime.now(), "errors", errors)));
+    }
+
+    private Mono<ServerResponse> error(Throwable failure) {
+        ResponseEntity<?> entity = switch (failure) {
+            case AnimalNotFoundException e -> exceptionHandler.handleAnimalNotFound(e);
+            case RoomNotFoundException e -> exceptionHandler.handleRoomNotFound(e);
+            case StaleResponseException e -> exceptionHandler.handleStale(e);
+            case IllegalArgumentException e -> exceptionHandler.handleBadRequest(e);
+            case Exception e -> exceptionHandler.handleGeneric(e);
+            default -> null;
+        };
+        if (entity == null)
+            return Mono.error(failure);
+        ServerResponse.BodyBuilder response = ServerResponse.status(entity.getStatusCode())
+                .headers(headers -> headers.addAll(entity.getHeaders()));
+        return Mono.just(entity.hasBody() ? response.body(entity.getBody()) : response.build());
+    }
+}
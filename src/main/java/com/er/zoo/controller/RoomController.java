@@ -1,16 +1,25 @@
 package com.er.zoo.controller;
 
 import com.er.zoo.dto.*;
+import com.er.zoo.idempotency.IdempotencyFilter;
 import com.er.zoo.model.Room;
 import com.er.zoo.service.RoomService;
 import com.er.zoo.service.AnimalService;
+import com.er.zoo.service.ExportService;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.net.URI;
+import java.time.Instant;
 import java.util.List;
 /**
  * REST controller for managing Rooms in the Zoo.
@@ -36,23 +45,60 @@ import java.util.List;
 public class RoomController {
     private final RoomService roomService;
     private final AnimalService animalService;
+    private final ExportService exportService;
 
 
-    public RoomController(RoomService roomService, AnimalService animalService) {
-        this.roomService = roomService; this.animalService = animalService;
+    public RoomController(RoomService roomService, AnimalService animalService, ExportService exportService) {
+        this.roomService = roomService; this.animalService = animalService; this.exportService = exportService;
     }
 
     @PostMapping(consumes = "application/json", produces = "application/json")
     public ResponseEntity<Room> create(@Valid @RequestBody RoomCreateRequest request,
-                                       @RequestHeader("Idempotency-Key") String idempotencyKey) {
-        var saved = roomService.create(request,idempotencyKey);
+                                       @RequestHeader("Idempotency-Key") String idempotencyKey,
+                                       @RequestAttribute(name = IdempotencyFilter.CLAIMED_KEY_ATTRIBUTE, required = false)
+                                       String claimedKey) {
+        var saved = roomService.create(request, idempotencyKey, idempotencyKey.equals(claimedKey));
         return ResponseEntity.created(URI.create("/rooms/" + saved.getId()))
                 .eTag(saved.getVersion().toString())
                 .body(saved);
     }
 
+    /**
+     * Streams all rooms as NDJSON straight from a Mongo cursor.
+     * @param updatedSince only rooms updated at or after this ISO-8601 instant
+     */
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(required = false) Instant updatedSince) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> exportService.exportRooms(updatedSince, out));
+    }
+
+    /**
+     * Multi-get: {@code GET /api/v1/rooms?ids=r1,r2,...} returns the rooms in request order
+     * and the ids that do not exist under {@code missing}.
+     */
+    @GetMapping(params = "ids", produces = "application/json")
+    public MultiGetResponse<RoomResponse> getAll(@RequestParam List<String> ids) {
+        return roomService.getRooms(ids);
+    }
+
+    /**
+     * Answers {@code If-None-Match} from a version-only lookup: an unchanged room gets 304
+     * without being loaded, mapped or serialized. If the version cannot be read, the room is
+     * answered in full, which may be the last known good value while Mongo is unavailable.
+     */
     @GetMapping(value = "/{id}", produces = "application/json")
-    public RoomResponse get(@PathVariable String id) { return roomService.getRoom(id); }
+    public ResponseEntity<RoomResponse> get(@PathVariable String id, WebRequest webRequest) {
+        if (webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                && roomService.currentVersion(id).map(version -> webRequest.checkNotModified(Long.toString(version))).orElse(false)) {
+            return null;
+        }
+        RoomResponse roomResponse = roomService.getRoom(id);
+        return ResponseEntity.ok()
+                .eTag(roomResponse.version())
+                .body(roomResponse);
+    }
 
     @PutMapping(value = "/{id}", consumes = "application/json", produces = "application/json")
     public RoomResponse update(@PathVariable String id,
@@ -83,6 +129,22 @@ public class RoomController {
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * Moves every animal of the room to {@code targetRoomId} with one bulk update.
+     */
+    @PostMapping("/{roomId}/animals/move/{targetRoomId}")
+    public BulkOperationResult moveAllAnimals(@PathVariable String roomId, @PathVariable String targetRoomId) {
+        return new BulkOperationResult(animalService.moveAll(roomId, targetRoomId));
+    }
+
+    /**
+     * Evacuates the room: every animal in it is unassigned with one bulk update.
+     */
+    @DeleteMapping("/{roomId}/animals")
+    public BulkOperationResult removeAllAnimals(@PathVariable String roomId) {
+        return new BulkOperationResult(animalService.unassignAll(roomId));
+    }
+
     @GetMapping("/{roomId}/animals")
     public Page<AnimalResponse> getAnimalsInRoom(
             @Valid @ModelAttribute RoomRequest roomRequest
@@ -90,8 +152,20 @@ public class RoomController {
         return animalService.getAnimalsInRoom(roomRequest);
     }
 
+    /**
+     * Keyset pagination for large rooms. Send an empty {@code after} for the first slice,
+     * then the {@code next} token of the previous response; {@code page} is ignored.
+     */
+    @GetMapping(value = "/{roomId}/animals", params = "after")
+    public CursorPage<AnimalResponse> getAnimalsInRoomAfter(
+            @Valid @ModelAttribute RoomRequest roomRequest
+    ) {
+        return animalService.getAnimalsInRoomAfter(roomRequest);
+    }
+
     @GetMapping("/favorites")
-    public List<FavoriteRoomCount> favoriteRooms() {
-        return roomService.favoriteRoomCounts();
+    public List<FavoriteRoomCount> favoriteRooms(@RequestParam(defaultValue = "0") @Min(0) int page,
+                                                 @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size) {
+        return roomService.favoriteRoomCounts(page, size);
     }
 }
@@ -0,0 +1,12 @@
+package com.er.zoo.dto;
+
+import com.er.zoo.enums.BatchOperationType;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDate;
+
+public record AnimalBatchOperation(@NotNull BatchOperationType op,
+                                   String id,
+                                   String ifMatch,
+                                   String title,
+                                   LocalDate located) implements BatchOperation {}
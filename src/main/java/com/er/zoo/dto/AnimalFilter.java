@@ -0,0 +1,20 @@
+package com.er.zoo.dto;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+/**
+ * Selects animals for a bulk delete; criteria that are set are combined with AND.
+ *
+ * @param roomId        animals in this room
+ * @param title         animals with exactly this title
+ * @param locatedBefore animals located before this date
+ */
+public record AnimalFilter(String roomId, String title,
+                           @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate locatedBefore) {
+
+    public boolean isEmpty() {
+        return roomId == null && title == null && locatedBefore == null;
+    }
+}
@@ -1,5 +1,6 @@
 package com.er.zoo.dto;
 
+import java.io.Serializable;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.util.Set;
@@ -12,4 +13,4 @@ public record AnimalResponse(String id,
                              String roomId,
                              Set<String> favoriteRoomIds,
                              String version
-                             ) {}
+                             ) implements Serializable {}
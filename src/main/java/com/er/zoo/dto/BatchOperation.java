@@ -0,0 +1,16 @@
+package com.er.zoo.dto;
+
+import com.er.zoo.enums.BatchOperationType;
+
+/**
+ * One operation of a batch request; {@code id} and {@code ifMatch} are ignored for {@code CREATE}.
+ */
+public interface BatchOperation {
+
+    BatchOperationType op();
+
+    String id();
+
+    /** Expected version, as sent in an {@code If-Match} header; {@code null} to write regardless of the version. */
+    String ifMatch();
+}
@@ -0,0 +1,17 @@
+package com.er.zoo.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Body of the {@code :batch} endpoints: up to {@link #MAX_OPERATIONS} operations, written with one bulk write.
+ */
+public record BatchRequest<T extends BatchOperation>(
+        @NotEmpty @Size(max = BatchRequest.MAX_OPERATIONS) List<@Valid @NotNull T> operations) {
+
+    public static final int MAX_OPERATIONS = 1000;
+}
@@ -0,0 +1,20 @@
+package com.er.zoo.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Outcome of one operation of a batch request, in request order.
+ *
+ * @param index   position of the operation in the request
+ * @param status  HTTP status the operation would have had on its own endpoint (201, 200, 204, 400, 404, 409, 412)
+ * @param id      id of the created, updated or deleted entity
+ * @param version new version (the {@code ETag}) after a create or update
+ * @param error   why the operation failed
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BatchResult(int index, int status, String id, String version, String error) {
+
+    public boolean succeeded() {
+        return status / 100 == 2;
+    }
+}
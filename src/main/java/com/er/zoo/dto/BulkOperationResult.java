@@ -0,0 +1,8 @@
+package com.er.zoo.dto;
+
+/**
+ * Outcome of a server-side bulk operation.
+ *
+ * @param affected number of animals moved, unassigned or deleted
+ */
+public record BulkOperationResult(long affected) {}
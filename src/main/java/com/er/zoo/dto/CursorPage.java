@@ -0,0 +1,12 @@
+package com.er.zoo.dto;
+
+import java.util.List;
+
+/**
+ * A slice of results fetched by keyset pagination.
+ * <p>
+ * {@code next} is the opaque token to pass as {@code after} to fetch the following slice,
+ * or {@code null} when there are no more results. No total count is computed.
+ * </p>
+ */
+public record CursorPage<T>(List<T> content, String next) {}
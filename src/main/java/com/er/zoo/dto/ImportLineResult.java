@@ -0,0 +1,28 @@
+package com.er.zoo.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.Map;
+
+/**
+ * Outcome of one line of an NDJSON import, streamed back in line order.
+ *
+ * @param line   1-based line number in the upload
+ * @param status what happened to the line
+ * @param id     id of the created (or previously imported) animal
+ * @param errors validation or write errors by field, for {@code INVALID} and {@code FAILED}
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ImportLineResult(long line, Status status, String id, Map<String, String> errors) {
+
+    public enum Status {
+        /** Inserted by this request. */
+        CREATED,
+        /** Already inserted by an earlier request with the same idempotency key. */
+        EXISTS,
+        /** Rejected by JSON parsing or {@link AnimalCreateRequest} validation. */
+        INVALID,
+        /** Valid, but the insert failed. */
+        FAILED
+    }
+}
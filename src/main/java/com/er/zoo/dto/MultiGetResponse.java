@@ -0,0 +1,26 @@
+package com.er.zoo.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of a multi-get: the found entities in request order and the ids that do not exist.
+ */
+public record MultiGetResponse<T>(List<T> items, List<String> missing) {
+
+    /**
+     * @param ids   requested ids, without duplicates, in request order
+     * @param found the entities found, by id
+     */
+    public static <T> MultiGetResponse<T> of(List<String> ids, Map<String, T> found) {
+        List<T> items = new ArrayList<>(found.size());
+        List<String> missing = new ArrayList<>();
+        for (String id : ids) {
+            T item = found.get(id);
+            if (item != null) items.add(item);
+            else missing.add(id);
+        }
+        return new MultiGetResponse<>(items, missing);
+    }
+}
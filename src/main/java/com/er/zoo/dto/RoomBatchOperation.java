@@ -0,0 +1,9 @@
+package com.er.zoo.dto;
+
+import com.er.zoo.enums.BatchOperationType;
+import jakarta.validation.constraints.NotNull;
+
+public record RoomBatchOperation(@NotNull BatchOperationType op,
+                                 String id,
+                                 String ifMatch,
+                                 String title) implements BatchOperation {}
@@ -1,7 +0,0 @@
-package com.er.zoo.dto;
-
-import lombok.Data;
-
-
-public record RoomCountProjection(String title, long favCount) {
-}
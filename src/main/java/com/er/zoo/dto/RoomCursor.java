@@ -0,0 +1,68 @@
+package com.er.zoo.dto;
+
+import com.er.zoo.enums.SortField;
+import com.er.zoo.model.Animal;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position of the last animal returned by a keyset page of {@code GET /rooms/{roomId}/animals}.
+ * <p>
+ * The cursor holds the sort field and direction it was produced for, the value of that
+ * field and the document {@code _id} used as a tie-breaker. It is exchanged with clients
+ * as an opaque base64url token.
+ * </p>
+ */
+public record RoomCursor(SortField sort, Sort.Direction order, String id, String value) {
+
+    private static final String SEPARATOR = "|";
+
+    public static RoomCursor of(SortField sort, Sort.Direction order, Animal last) {
+        Object value = switch (sort) {
+            case TITLE -> last.getTitle();
+            case LOCATED -> last.getLocated();
+            case CREATED -> last.getCreated();
+        };
+        return new RoomCursor(sort, order, last.getId(), value == null ? null : value.toString());
+    }
+
+    public static RoomCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            // value goes last so it may contain the separator; a missing value means null
+            String[] parts = raw.split("\\" + SEPARATOR, 4);
+            if (parts.length < 3) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            var cursor = new RoomCursor(SortField.valueOf(parts[0]), Sort.Direction.valueOf(parts[1]),
+                    parts[2], parts.length == 4 ? parts[3] : null);
+            cursor.typedValue();
+            return cursor;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    public String encode() {
+        String raw = sort.name() + SEPARATOR + order.name() + SEPARATOR + id
+                + (value == null ? "" : SEPARATOR + value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the sort value converted back to the type stored in MongoDB
+     */
+    public Object typedValue() {
+        if (value == null) return null;
+        return switch (sort) {
+            case TITLE -> value;
+            case LOCATED -> LocalDate.parse(value);
+            case CREATED -> Instant.parse(value);
+        };
+    }
+}
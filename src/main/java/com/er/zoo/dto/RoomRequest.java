@@ -12,18 +12,33 @@ public record RoomRequest(
         SortField sort,
         Sort.Direction order,
         @Min(0)
-        int page,
+        Integer page,
         @Max(20)
-        int size) {
+        int size,
+        String after) {
 
     public RoomRequest{
         if(sort == null) sort = SortField.TITLE;
         if(order == null) order = Sort.Direction.ASC;
+        if(page == null) page = 0;
 
         if(size<0) size = 0;
+        if(after != null && after.isBlank()) after = null;
     }
 
     public Pageable toPageable(){
         return PageRequest.of(page,size,Sort.by(order,sort.name().toLowerCase()));
     }
+
+    /**
+     * Decodes the {@code after} token of a keyset request.
+     * @return the cursor to continue from, or {@code null} for the first slice
+     */
+    public RoomCursor toCursor(){
+        if(after == null) return null;
+        RoomCursor cursor = RoomCursor.decode(after);
+        if(cursor.sort() != sort || cursor.order() != order)
+            throw new IllegalArgumentException("Cursor does not match requested sort and order");
+        return cursor;
+    }
 }
@@ -1,5 +1,6 @@
 package com.er.zoo.dto;
 
+import java.io.Serializable;
 import java.time.Instant;
 
 public record RoomResponse(String id,
@@ -7,4 +8,4 @@ public record RoomResponse(String id,
                            Instant created,
                            Instant updated,
                            String version
-                             ) {}
+                             ) implements Serializable {}
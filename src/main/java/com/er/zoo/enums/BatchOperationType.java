@@ -0,0 +1,7 @@
+package com.er.zoo.enums;
+
+public enum BatchOperationType {
+    CREATE,
+    UPDATE,
+    DELETE
+}
@@ -1,7 +1,10 @@
 package com.er.zoo.exception;
 
 import com.er.zoo.logging.LoggerService;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import org.springframework.context.MessageSourceResolvable;
 import org.springframework.context.support.DefaultMessageSourceResolvable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -10,6 +13,7 @@ import org.springframework.web.bind.MissingRequestHeaderException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.time.ZonedDateTime;
@@ -35,6 +39,7 @@ import java.util.stream.Collectors;
 public class GlobalExceptionHandler extends BaseExceptionHandler {
     private final LoggerService logger;
     public static final String ENTITY_NAME = "ZooAPI";
+    public static final String STALE_WARNING = "110 - \"Response is Stale\"";
 
     public GlobalExceptionHandler(LoggerService logger) {
         this.logger = logger;
@@ -48,6 +53,14 @@ public class GlobalExceptionHandler extends BaseExceptionHandler {
 
     }
 
+    @ExceptionHandler(RoomNotFoundException.class)
+    public ResponseEntity<Map<String,Object>> handleRoomNotFound(RoomNotFoundException ex){
+        logger.error(ENTITY_NAME,"NOT_FOUND","Room not found: " + ex.getMessage(),ex);
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(getExceptionDetails(ex));
+
+    }
+
     @ExceptionHandler(MissingRequestHeaderException.class)
     public ResponseEntity<Map<String, Object>> handleMissingHeader(MissingRequestHeaderException ex) {
         logger.error(ENTITY_NAME,"BAD_REQUEST","Missing request header: " + ex.getHeaderName(),ex);
@@ -87,12 +100,47 @@ public class GlobalExceptionHandler extends BaseExceptionHandler {
         return ResponseEntity.badRequest().body(body);
     }
 
+    /**
+     * A constraint on a request parameter, such as {@code @Min} on a page number, was violated.
+     */
+    @ExceptionHandler(HandlerMethodValidationException.class)
+    public ResponseEntity<Map<String,Object>> handleParameterValidation(HandlerMethodValidationException ex) {
+        var errors = ex.getAllValidationResults().stream()
+                .collect(Collectors.toMap(result -> result.getMethodParameter().getParameterName(),
+                        result -> result.getResolvableErrors().stream()
+                                .map(MessageSourceResolvable::getDefaultMessage)
+                                .collect(Collectors.joining(", ")),
+                        (a, b)->a+", "+b));
+        var body = new HashMap<String,Object>();
+        body.put("timestamp", ZonedDateTime.now());
+        body.put("errors", errors);
+        logger.warn(ENTITY_NAME, "BAD_REQUEST", ex.getMessage());
+        return ResponseEntity.badRequest().body(body);
+    }
+
     @ExceptionHandler(ResponseStatusException.class)
     public ResponseEntity<Map<String,Object>> handleDuplicateRequest(ResponseStatusException ex) {
         logger.warn(ENTITY_NAME, "DUPLICATE", ex.getMessage());
         return ResponseEntity.status(ex.getStatusCode()).body(getExceptionDetails(ex));
     }
 
+    /**
+     * A cached read failed while Mongo is unavailable and its last known good value is served instead.
+     */
+    @ExceptionHandler(StaleResponseException.class)
+    public ResponseEntity<Object> handleStale(StaleResponseException ex) {
+        logger.warn(ENTITY_NAME, "STALE", ex.getMessage());
+        return ResponseEntity.ok()
+                .header(HttpHeaders.WARNING, STALE_WARNING)
+                .body(ex.getBody());
+    }
+
+    @ExceptionHandler(CallNotPermittedException.class)
+    public ResponseEntity<Map<String,Object>> handleCircuitOpen(CallNotPermittedException ex) {
+        logger.warn(ENTITY_NAME, "UNAVAILABLE", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(getExceptionDetails(ex));
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String,Object>> handleGeneric(Exception ex) {
 
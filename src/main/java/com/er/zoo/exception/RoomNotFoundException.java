@@ -0,0 +1,7 @@
+package com.er.zoo.exception;
+
+public class RoomNotFoundException extends RuntimeException {
+    public RoomNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,18 @@
+package com.er.zoo.exception;
+
+/**
+ * Carries a last known good value out of a cached read whose load failed, so the value is served
+ * with a staleness warning without being stored in the cache again.
+ */
+public class StaleResponseException extends RuntimeException {
+    private final transient Object body;
+
+    public StaleResponseException(Object body, Throwable cause) {
+        super("Serving last known good value: " + cause.getMessage(), cause, false, false);
+        this.body = body;
+    }
+
+    public Object getBody() {
+        return body;
+    }
+}
@@ -0,0 +1,194 @@
+package com.er.zoo.idempotency;
+
+import com.er.zoo.exception.DuplicateRequestException;
+import com.er.zoo.logging.LoggerService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Makes the create requests ({@code POST /api/v1/animals} and {@code POST /api/v1/rooms}) carrying an
+ * {@code Idempotency-Key} safe to retry.
+ * <p>
+ * The first request registers the key and runs normally. When it succeeds, its status,
+ * {@code ETag}, {@code Location}, {@code Content-Type} and body are recorded with the key.
+ * A repeated request gets that response back byte for byte, marked with {@code Idempotent-Replayed: true},
+ * and never reaches the controller. A repeat that arrives while the first request is still running
+ * waits for it for up to {@code zoo.idempotency.wait-timeout} and only then fails with 409.
+ * Failed requests release the key so the client can retry with it.
+ * A successful request whose response cannot be recorded keeps the key until the in-flight lease expires.
+ * </p>
+ * <p>
+ * Reusing a key on a different endpoint is rejected with 409, as before.
+ * </p>
+ */
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    /** Request attribute holding the key this request registered, passed on by the create endpoints. */
+    public static final String CLAIMED_KEY_ATTRIBUTE = "com.er.zoo.idempotency.IdempotencyFilter.CLAIMED_KEY";
+    /** Paths whose POSTs are replayed; other endpoints handle the key themselves, if at all. */
+    public static final Set<String> PATHS = Set.of("/api/v1/animals", "/api/v1/rooms");
+
+    private static final String ENTITY_NAME = "Idempotency";
+    private static final List<String> REPLAYED_HEADERS =
+            List.of(HttpHeaders.ETAG, HttpHeaders.LOCATION, HttpHeaders.CONTENT_TYPE);
+    private static final long POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(25);
+
+    private final IdempotencyStore store;
+    private final HandlerExceptionResolver exceptionResolver;
+    private final LoggerService logger;
+    private final Duration waitTimeout;
+    // requests running on this replica; local duplicates wait on them instead of polling the store
+    private final ConcurrentMap<String, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyFilter(IdempotencyStore store, HandlerExceptionResolver exceptionResolver,
+                             LoggerService logger, Duration waitTimeout) {
+        this.store = store;
+        this.exceptionResolver = exceptionResolver;
+        this.logger = logger;
+        this.waitTimeout = waitTimeout;
+    }
+
+    /**
+     * Only the create endpoints are filtered. The NDJSON import in particular streams a response that
+     * cannot be buffered, and makes itself idempotent by deriving document ids from the key.
+     */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.POST.matches(request.getMethod()) || !StringUtils.hasText(request.getHeader(HEADER))
+                || !PATHS.contains(request.getRequestURI().substring(request.getContextPath().length()));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String key = request.getHeader(HEADER);
+        long deadline = System.nanoTime() + waitTimeout.toNanos();
+        while (true) {
+            if (store.tryRegister(key)) {
+                execute(key, request, response, chain);
+                return;
+            }
+            Optional<IdempotentResponse> recorded = store.find(key);
+            if (recorded.isPresent()) {
+                replay(key, recorded.get(), request, response);
+                return;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0 || !awaitInFlight(key, remaining)) {
+                reject(request, response, "Duplicate request: a request with this Idempotency-Key is still in progress.");
+                return;
+            }
+        }
+    }
+
+    private void execute(String key, HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        var done = new CompletableFuture<Void>();
+        inFlight.put(key, done);
+        var wrapper = new ContentCachingResponseWrapper(response);
+        boolean succeeded = false;
+        try {
+            request.setAttribute(CLAIMED_KEY_ATTRIBUTE, key);
+            chain.doFilter(request, wrapper);
+            succeeded = wrapper.getStatus() / 100 == 2;
+            if (succeeded)
+                record(key, request, wrapper);
+        } finally {
+            try {
+                if (!succeeded)
+                    store.release(key);
+            } finally {
+                inFlight.remove(key, done);
+                done.complete(null);
+                wrapper.copyBodyToResponse();
+            }
+        }
+    }
+
+    /**
+     * Records the response of a request that succeeded. The client gets that response either way, so if
+     * recording fails the key stays claimed until its in-flight lease expires rather than being released
+     * for a retry that would repeat the write.
+     */
+    private void record(String key, HttpServletRequest request, ContentCachingResponseWrapper wrapper) {
+        try {
+            store.complete(key, capture(request.getRequestURI(), wrapper));
+        } catch (RuntimeException e) {
+            logger.warn(ENTITY_NAME, "RECORD", "Could not record the response for idempotency key " + key
+                    + ", keeping it claimed for the in-flight lease: " + e.getMessage());
+        }
+    }
+
+    private IdempotentResponse capture(String path, ContentCachingResponseWrapper wrapper) {
+        Map<String, String> headers = new LinkedHashMap<>();
+        for (String name : REPLAYED_HEADERS) {
+            String value = HttpHeaders.CONTENT_TYPE.equals(name) ? wrapper.getContentType() : wrapper.getHeader(name);
+            if (value != null)
+                headers.put(name, value);
+        }
+        return new IdempotentResponse(path, wrapper.getStatus(), headers, wrapper.getContentAsByteArray());
+    }
+
+    private void replay(String key, IdempotentResponse recorded, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        if (!recorded.path().equals(request.getRequestURI())) {
+            reject(request, response, "Duplicate request: Idempotency key already used.");
+            return;
+        }
+        logger.info(ENTITY_NAME, "REPLAY", "Replaying response for idempotency key: " + key);
+        response.setStatus(recorded.status());
+        recorded.headers().forEach(response::setHeader);
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(recorded.body().length);
+        response.getOutputStream().write(recorded.body());
+    }
+
+    /**
+     * Waits for the request holding the key: on its completion when it runs on this replica,
+     * otherwise for one poll interval.
+     * @return false if the thread was interrupted
+     */
+    private boolean awaitInFlight(String key, long remainingNanos) {
+        CompletableFuture<Void> running = inFlight.get(key);
+        try {
+            if (running != null)
+                running.get(remainingNanos, TimeUnit.NANOSECONDS);
+            else
+                TimeUnit.NANOSECONDS.sleep(Math.min(remainingNanos, POLL_NANOS));
+            return true;
+        } catch (TimeoutException | ExecutionException e) {
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, String message) {
+        exceptionResolver.resolveException(request, response, null, new DuplicateRequestException(message));
+    }
+}
@@ -0,0 +1,37 @@
+package com.er.zoo.idempotency;
+
+import java.util.Optional;
+
+/**
+ * Storage backend for idempotency keys and the responses recorded for them.
+ * <p>
+ * Implementations must register a key atomically: of several concurrent calls with the same key
+ * exactly one returns {@code true}. A registered key is held for {@code zoo.idempotency.in-flight-lease},
+ * so the key of a request that crashed can be registered again after the lease; a completed key is kept
+ * for {@code zoo.idempotency.ttl}.
+ * The backend is chosen with {@code zoo.idempotency.store} ({@code mongo}, {@code redis} or {@code memory}).
+ * </p>
+ */
+public interface IdempotencyStore {
+
+    /**
+     * Registers the key in a single atomic operation.
+     * @return true if the key was new, false if it had already been registered
+     */
+    boolean tryRegister(String key);
+
+    /**
+     * Records the response of the request that registered the key.
+     */
+    void complete(String key, IdempotentResponse response);
+
+    /**
+     * @return the recorded response, empty while the key is unknown or its request is still running
+     */
+    Optional<IdempotentResponse> find(String key);
+
+    /**
+     * Forgets a key whose request failed, so that a retry can register it again.
+     */
+    void release(String key);
+}
@@ -0,0 +1,16 @@
+package com.er.zoo.idempotency;
+
+import java.io.Serializable;
+import java.util.Map;
+
+/**
+ * The first successful response for an idempotency key, replayed for repeated requests.
+ *
+ * @param path    request URI the key was first used on
+ * @param status  HTTP status
+ * @param headers replayed headers ({@code ETag}, {@code Location}, {@code Content-Type})
+ * @param body    response body as written
+ */
+public record IdempotentResponse(String path, int status, Map<String, String> headers, byte[] body)
+        implements Serializable {
+}
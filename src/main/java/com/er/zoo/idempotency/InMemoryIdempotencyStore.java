@@ -0,0 +1,59 @@
+package com.er.zoo.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Keeps keys in a local Caffeine cache, in flight for the lease and recorded for the TTL. Only suitable
+ * for a single replica and for tests, since keys are neither shared nor persisted.
+ */
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    // empty while the registering request is still running
+    private final Cache<String, Optional<IdempotentResponse>> keys;
+
+    public InMemoryIdempotencyStore(Duration inFlightLease, Duration ttl) {
+        this.keys = Caffeine.newBuilder().expireAfter(new Expiry<String, Optional<IdempotentResponse>>() {
+            @Override
+            public long expireAfterCreate(String key, Optional<IdempotentResponse> value, long currentTime) {
+                return (value.isPresent() ? ttl : inFlightLease).toNanos();
+            }
+
+            @Override
+            public long expireAfterUpdate(String key, Optional<IdempotentResponse> value, long currentTime,
+                                          long currentDuration) {
+                return expireAfterCreate(key, value, currentTime);
+            }
+
+            @Override
+            public long expireAfterRead(String key, Optional<IdempotentResponse> value, long currentTime,
+                                        long currentDuration) {
+                return currentDuration;
+            }
+        }).build();
+    }
+
+    @Override
+    public boolean tryRegister(String key) {
+        return keys.asMap().putIfAbsent(key, Optional.empty()) == null;
+    }
+
+    @Override
+    public void complete(String key, IdempotentResponse response) {
+        keys.put(key, Optional.of(response));
+    }
+
+    @Override
+    public Optional<IdempotentResponse> find(String key) {
+        return Optional.ofNullable(keys.getIfPresent(key)).flatMap(r -> r);
+    }
+
+    @Override
+    public void release(String key) {
+        keys.invalidate(key);
+    }
+}
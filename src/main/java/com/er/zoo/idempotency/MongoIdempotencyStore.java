@@ -0,0 +1,79 @@
+package com.er.zoo.idempotency;
+
+import com.er.zoo.model.IdempotencyRecord;
+import com.er.zoo.repository.IdempotencyRepository;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Stores keys as {@link IdempotencyRecord} documents. A single insert registers the key; the
+ * unique {@code _id} index turns a concurrent or repeated insert into a {@link DuplicateKeyException}.
+ * The response is added to the same document with a {@code $set}.
+ * <p>
+ * Expiry relies on the TTL index of {@link IdempotencyRecord#getExpiresAt()}: the in-flight lease at
+ * registration, the TTL once the response is recorded. Mongo removes expired documents only about once
+ * a minute, so a key whose lease has run out is taken over with a conditional update instead of waiting.
+ * </p>
+ */
+public class MongoIdempotencyStore implements IdempotencyStore {
+
+    private final IdempotencyRepository repository;
+    private final MongoTemplate mongoTemplate;
+    private final Duration inFlightLease;
+    private final Duration ttl;
+
+    public MongoIdempotencyStore(IdempotencyRepository repository, MongoTemplate mongoTemplate,
+                                 Duration inFlightLease, Duration ttl) {
+        this.repository = repository;
+        this.mongoTemplate = mongoTemplate;
+        this.inFlightLease = inFlightLease;
+        this.ttl = ttl;
+    }
+
+    @Override
+    public boolean tryRegister(String key) {
+        Instant now = Instant.now();
+        try {
+            repository.insert(new IdempotencyRecord(key, now.plus(inFlightLease)));
+            return true;
+        } catch (DuplicateKeyException ex) {
+            // a request that never completed: take over its key once the lease has run out
+            return mongoTemplate.updateFirst(
+                    query(where("_id").is(key).and("status").is(null).and("expiresAt").lt(now)),
+                    new Update().set("createdAt", now).set("expiresAt", now.plus(inFlightLease)),
+                    IdempotencyRecord.class).getModifiedCount() == 1;
+        }
+    }
+
+    @Override
+    public void complete(String key, IdempotentResponse response) {
+        mongoTemplate.updateFirst(query(where("_id").is(key)),
+                new Update()
+                        .set("path", response.path())
+                        .set("status", response.status())
+                        .set("headers", response.headers())
+                        .set("body", response.body())
+                        .set("expiresAt", Instant.now().plus(ttl)),
+                IdempotencyRecord.class);
+    }
+
+    @Override
+    public Optional<IdempotentResponse> find(String key) {
+        return repository.findById(key)
+                .filter(r -> r.getStatus() != null)
+                .map(r -> new IdempotentResponse(r.getPath(), r.getStatus(), r.getHeaders(), r.getBody()));
+    }
+
+    @Override
+    public void release(String key) {
+        repository.deleteById(key);
+    }
+}
@@ -0,0 +1,63 @@
+package com.er.zoo.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Registers keys with {@code SET key value NX EX lease}, one round trip per key, so the key of a
+ * request that never completes frees itself after the in-flight lease. The response replaces the
+ * placeholder value as JSON with the full TTL.
+ */
+public class RedisIdempotencyStore implements IdempotencyStore {
+
+    static final String KEY_PREFIX = "zoo:idempotency:";
+    private static final String IN_FLIGHT = "1";
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration inFlightLease;
+    private final Duration ttl;
+
+    public RedisIdempotencyStore(StringRedisTemplate redisTemplate, ObjectMapper objectMapper,
+                                 Duration inFlightLease, Duration ttl) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.inFlightLease = inFlightLease;
+        this.ttl = ttl;
+    }
+
+    @Override
+    public boolean tryRegister(String key) {
+        return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(KEY_PREFIX + key, IN_FLIGHT, inFlightLease));
+    }
+
+    @Override
+    public void complete(String key, IdempotentResponse response) {
+        try {
+            redisTemplate.opsForValue().set(KEY_PREFIX + key, objectMapper.writeValueAsString(response), ttl);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize idempotent response", e);
+        }
+    }
+
+    @Override
+    public Optional<IdempotentResponse> find(String key) {
+        String value = redisTemplate.opsForValue().get(KEY_PREFIX + key);
+        if (value == null || IN_FLIGHT.equals(value))
+            return Optional.empty();
+        try {
+            return Optional.of(objectMapper.readValue(value, IdempotentResponse.class));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot read idempotent response for key " + key, e);
+        }
+    }
+
+    @Override
+    public void release(String key) {
+        redisTemplate.delete(KEY_PREFIX + key);
+    }
+}
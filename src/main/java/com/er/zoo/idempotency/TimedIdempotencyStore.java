@@ -0,0 +1,58 @@
+package com.er.zoo.idempotency;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Optional;
+
+/**
+ * Records the latency of every call to the wrapped store as {@code zoo.idempotency.store},
+ * tagged with the backend ({@code mongo}, {@code redis}, {@code memory}) and the operation.
+ */
+public class TimedIdempotencyStore implements IdempotencyStore {
+
+    public static final String METRIC = "zoo.idempotency.store";
+
+    private final IdempotencyStore delegate;
+    private final Timer register;
+    private final Timer complete;
+    private final Timer find;
+    private final Timer release;
+
+    public TimedIdempotencyStore(IdempotencyStore delegate, MeterRegistry registry, String backend) {
+        this.delegate = delegate;
+        this.register = timer(registry, backend, "register");
+        this.complete = timer(registry, backend, "complete");
+        this.find = timer(registry, backend, "find");
+        this.release = timer(registry, backend, "release");
+    }
+
+    private static Timer timer(MeterRegistry registry, String backend, String operation) {
+        return Timer.builder(METRIC)
+                .description("Latency of idempotency store calls")
+                .tag("store", backend)
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    @Override
+    public boolean tryRegister(String key) {
+        return Boolean.TRUE.equals(register.record(() -> delegate.tryRegister(key)));
+    }
+
+    @Override
+    public void complete(String key, IdempotentResponse response) {
+        complete.record(() -> delegate.complete(key, response));
+    }
+
+    @Override
+    public Optional<IdempotentResponse> find(String key) {
+        return find.record(() -> delegate.find(key));
+    }
+
+    @Override
+    public void release(String key) {
+        release.record(() -> delegate.release(key));
+    }
+}
@@ -0,0 +1,51 @@
+package com.er.zoo.migration;
+
+import com.er.zoo.logging.LoggerService;
+import com.er.zoo.model.Room;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * One-off backfill of {@link Room#getFavoriteCount()} for rooms written before the counter existed.
+ * <p>
+ * Runs a single server-side {@code updateMany} that sets {@code favoriteCount} to the size of
+ * {@code favoritedByAnimalIds}, only on rooms that have no {@code favoriteCount} yet. Once every
+ * room has been backfilled it matches nothing, so it is safe to leave enabled; disable it with
+ * {@code zoo.migrations.favorite-count-backfill.enabled=false}.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(name = "zoo.migrations.favorite-count-backfill.enabled", havingValue = "true", matchIfMissing = true)
+public class FavoriteCountBackfill implements ApplicationRunner {
+
+    private final MongoTemplate mongoTemplate;
+    private final LoggerService logger;
+
+    public FavoriteCountBackfill(MongoTemplate mongoTemplate, LoggerService logger) {
+        this.mongoTemplate = mongoTemplate;
+        this.logger = logger;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        var query = new Query(Criteria.where("favoriteCount").exists(false));
+        var update = AggregationUpdate.update()
+                .set("favoriteCount")
+                .toValue(ArrayOperators.Size.lengthOfArray(
+                        ConditionalOperators.ifNull("favoritedByAnimalIds").then(List.of())));
+        long modified = mongoTemplate.updateMulti(query, update, Room.class).getModifiedCount();
+        if (modified > 0) {
+            logger.info("Room", "MIGRATION", "Backfilled favoriteCount on " + modified + " rooms");
+        }
+    }
+}
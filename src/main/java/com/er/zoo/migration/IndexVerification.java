@@ -0,0 +1,86 @@
+package com.er.zoo.migration;
+
+import com.er.zoo.logging.LoggerService;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Checks on startup that every index declared on a {@code @Document} entity exists in its collection.
+ * <p>
+ * Indexes are compared by their keys. Missing ones are created here rather than through
+ * {@code spring.data.mongodb.auto-index-creation}, which stays off; with
+ * {@code zoo.migrations.index-verification.create-missing=false} the application refuses to start
+ * instead, listing them. Disable the check with {@code zoo.migrations.index-verification.enabled=false}.
+ * </p>
+ */
+@Component
+@Order(0)
+@ConditionalOnProperty(name = "zoo.migrations.index-verification.enabled", havingValue = "true", matchIfMissing = true)
+public class IndexVerification implements ApplicationRunner {
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoMappingContext mappingContext;
+    private final LoggerService logger;
+    private final boolean createMissing;
+
+    public IndexVerification(MongoTemplate mongoTemplate, MongoMappingContext mappingContext, LoggerService logger,
+                             @Value("${zoo.migrations.index-verification.create-missing:true}") boolean createMissing) {
+        this.mongoTemplate = mongoTemplate;
+        this.mappingContext = mappingContext;
+        this.logger = logger;
+        this.createMissing = createMissing;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        IndexResolver resolver = new MongoPersistentEntityIndexResolver(mappingContext);
+        List<String> missing = new ArrayList<>();
+        for (MongoPersistentEntity<?> entity : mappingContext.getPersistentEntities()) {
+            if (!entity.isAnnotationPresent(org.springframework.data.mongodb.core.mapping.Document.class))
+                continue;
+            IndexOperations indexOps = mongoTemplate.indexOps(entity.getCollection());
+            // key order matters, so keys are compared as JSON
+            Set<String> existing = indexOps.getIndexInfo().stream()
+                    .map(info -> keys(info).toJson())
+                    .collect(Collectors.toSet());
+            resolver.resolveIndexFor(entity.getTypeInformation()).forEach(index -> {
+                if (existing.contains(index.getIndexKeys().toJson()))
+                    return;
+                if (!createMissing) {
+                    missing.add(entity.getCollection() + " " + index.getIndexKeys().toJson());
+                    return;
+                }
+                String name = indexOps.ensureIndex(index);
+                logger.info(entity.getCollection(), "MIGRATION", "Created missing index " + name);
+            });
+        }
+        if (!missing.isEmpty())
+            throw new IllegalStateException("Missing Mongo indexes: " + String.join(", ", missing));
+    }
+
+    private static Document keys(IndexInfo info) {
+        Document keys = new Document();
+        for (IndexField field : info.getIndexFields())
+            keys.put(field.getKey(), field.getDirection() == Sort.Direction.DESC ? -1 : 1);
+        return keys;
+    }
+}
@@ -5,6 +5,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDate;
@@ -13,15 +15,28 @@ import java.util.Set;
 
 /**
  * Animal document stored in MongoDB.
+ * <p>
+ * Every query the repositories issue is served by an index: one {@code roomId}-prefixed index per
+ * {@link com.er.zoo.enums.SortField}, ending in {@code _id} so that the keyset tie-breaker needs no
+ * in-memory sort, {@code (roomId, _id)} for the export, and {@code title} and {@code located} for
+ * bulk deletes filtered on those alone. They are checked on startup by
+ * {@link com.er.zoo.migration.IndexVerification}.
+ * </p>
  */
 @EqualsAndHashCode(callSuper = false)
 @Data
 @Document(collection = "animals")
+@CompoundIndex(name = "roomId_title_id", def = "{'roomId': 1, 'title': 1, '_id': 1}")
+@CompoundIndex(name = "roomId_located_id", def = "{'roomId': 1, 'located': 1, '_id': 1}")
+@CompoundIndex(name = "roomId_created_id", def = "{'roomId': 1, 'created': 1, '_id': 1}")
+@CompoundIndex(name = "roomId_id", def = "{'roomId': 1, '_id': 1}")
 @AllArgsConstructor
 @NoArgsConstructor
 public class Animal extends BaseDocument {
 
+    @Indexed
     private String title;
+    @Indexed
     private LocalDate located;
     private String roomId;
     private Set<String> favoriteRoomIds = new HashSet<>();
@@ -6,6 +6,7 @@ import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.Instant;
+import java.util.Map;
 /**
  * Represents a record of an idempotency key for the Zoo API.
  * <p>
@@ -30,6 +31,10 @@ import java.time.Instant;
  * <ul>
  *     <li>{@link #key} — The client-provided idempotency key (should include API prefix if reused across APIs).</li>
  *     <li>{@link #createdAt} — Timestamp when the record was created.</li>
+ *     <li>{@link #expiresAt} — When the record is removed: the end of the in-flight lease until the
+ *     response is recorded, then the end of the idempotency TTL.</li>
+ *     <li>{@link #path}, {@link #status}, {@link #headers}, {@link #body} — The first successful response,
+ *     replayed for repeated requests. Unset while that request is still running.</li>
  * </ul>
  * </p>
  */
@@ -40,11 +45,22 @@ public class IdempotencyRecord {
     @Id
     private String key;
 
-    @Indexed(expireAfterSeconds = 86400)
     private Instant createdAt = Instant.now();
 
-    public IdempotencyRecord(String key) {
+    @Indexed(expireAfterSeconds = 0)
+    private Instant expiresAt;
+
+    private String path;
+
+    private Integer status;
+
+    private Map<String, String> headers;
+
+    private byte[] body;
+
+    public IdempotencyRecord(String key, Instant expiresAt) {
         this.key = key;
+        this.expiresAt = expiresAt;
     }
 
 
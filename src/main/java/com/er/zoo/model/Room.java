@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.Instant;
@@ -19,10 +20,13 @@ import java.util.Set;
 @AllArgsConstructor
 @NoArgsConstructor
 @Document(collection = "rooms")
+@CompoundIndex(name = "favoriteCount_id", def = "{'favoriteCount': -1, '_id': 1}")
 public class Room extends BaseDocument {
 
     private String title;
     private Set<String> favoritedByAnimalIds = new HashSet<>();
+    /** Size of {@link #favoritedByAnimalIds}, maintained with {@code $inc} on every membership change. */
+    private long favoriteCount;
     public Room(String title) { this.title = title; }
 
 
@@ -30,5 +34,6 @@ public class Room extends BaseDocument {
         super(id,created,updated,version);
         this.title = title;
         this.favoritedByAnimalIds = favoritedByAnimalIds;
+        this.favoriteCount = favoritedByAnimalIds == null ? 0 : favoritedByAnimalIds.size();
     }
 }
@@ -5,6 +5,6 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
-public interface AnimalRepository extends MongoRepository<Animal, String> {
+public interface AnimalRepository extends MongoRepository<Animal, String>, AnimalRepositoryCustom {
     Page<Animal> findByRoomId(String roomId, Pageable pageable);
 }
@@ -0,0 +1,146 @@
+package com.er.zoo.repository;
+
+import com.er.zoo.dto.AnimalFilter;
+import com.er.zoo.dto.RoomCursor;
+import com.er.zoo.enums.SortField;
+import com.er.zoo.model.Animal;
+import com.mongodb.bulk.BulkWriteError;
+import org.springframework.data.domain.Sort;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Custom queries for {@link Animal} that cannot be expressed as derived repository methods.
+ */
+public interface AnimalRepositoryCustom {
+
+    /**
+     * Keyset pagination over the animals of a room, ordered by {@code sort} and then {@code _id}.
+     * Issues no skip and no count query.
+     *
+     * @param after position to continue from, {@code null} for the first slice
+     * @param limit maximum number of animals to return
+     */
+    List<Animal> findByRoomIdAfter(String roomId, SortField sort, Sort.Direction order, RoomCursor after, int limit);
+
+    /**
+     * Streams animals in {@code _id} order from a server-side cursor that fetches {@code batchSize}
+     * documents per round trip. The caller must close the stream.
+     *
+     * @param roomId       only animals in this room, {@code null} for all
+     * @param updatedSince only animals updated at or after this instant, {@code null} for all
+     */
+    Stream<Animal> streamAll(String roomId, Instant updatedSince, int batchSize);
+
+    /**
+     * Inserts the animals with one unordered bulk insert, so a failing document does not stop the others.
+     * The animals must carry their ids.
+     * @return the write errors, indexed like {@code animals}; empty if all were inserted
+     */
+    List<BulkWriteError> insertUnordered(List<Animal> animals);
+
+    /**
+     * Loads what a batch write needs to know about the animals: {@code _id}, {@code version},
+     * {@code updated}, {@code roomId} and {@code favoriteRoomIds}.
+     */
+    List<Animal> findWriteStateByIdIn(Collection<String> ids);
+
+    /**
+     * Runs the writes as one unordered bulk write; updates set {@code title} and {@code located} if not {@code null}.
+     * An update that would set no field is rejected, as it would only bump the version.
+     */
+    BatchWriteResult writeBatch(List<BatchWrite<Animal>> writes);
+
+    /**
+     * Streams {@code _id}, {@code roomId} and {@code favoriteRoomIds} of the animals matching the filter
+     * from a server-side cursor that fetches {@code batchSize} documents per round trip. The caller must
+     * close the stream.
+     */
+    Stream<Animal> streamWriteStateBy(AnimalFilter filter, int batchSize);
+
+    /**
+     * Streams the ids of the animals in the room, or without a room if {@code roomId} is {@code null},
+     * whose {@code updated} is exactly {@code updated}: the animals written by a bulk update that used
+     * this timestamp, unless written again since. The caller must close the stream.
+     */
+    Stream<String> streamIdsUpdatedAt(String roomId, Instant updated, int batchSize);
+
+    /**
+     * Moves every animal of {@code fromRoomId} to {@code toRoomId} with one {@code updateMany} on
+     * {@code {roomId: fromRoomId}}, incrementing each version and setting {@code updated}.
+     * @return number of animals moved
+     */
+    long moveAll(String fromRoomId, String toRoomId, Instant updated);
+
+    /**
+     * Unsets the room of every animal in it with one {@code updateMany} on {@code {roomId: roomId}},
+     * incrementing each version and setting {@code updated}.
+     * @return number of animals unassigned
+     */
+    long unassignAll(String roomId, Instant updated);
+
+    /**
+     * Deletes the given animals with one {@code deleteMany}, skipping those that no longer match the filter.
+     * Only if fewer were deleted than given are the ids read again to tell which ones.
+     * @return the ids of the animals deleted
+     */
+    Set<String> deleteAll(Collection<String> animalIds, AnimalFilter filter);
+
+    /**
+     * Adds rooms to the animal's favorites with {@code $addToSet} if its version is still {@code version}.
+     * @return the updated animal, or {@code null} if the animal is gone or was modified concurrently
+     */
+    Animal addFavoriteRooms(String animalId, long version, Collection<String> roomIds);
+
+    /**
+     * Removes rooms from the animal's favorites with {@code $pull} if its version is still {@code version}.
+     * @return the updated animal, or {@code null} if the animal is gone or was modified concurrently
+     */
+    Animal removeFavoriteRooms(String animalId, long version, Collection<String> roomIds);
+
+    /**
+     * Sets the non-null fields with one {@code findAndModify} on {@code {_id, version}}, incrementing the version.
+     * @param version expected version, {@code null} to update regardless of the version
+     * @return the updated animal, or {@code null} if the animal is gone or was modified concurrently
+     */
+    Animal updateFields(String animalId, Long version, String title, LocalDate located);
+
+    /**
+     * Moves the animal into the room with one {@code findAndModify} on {@code {_id, version}}.
+     * @param version expected version, {@code null} to update regardless of the version
+     * @return the moved animal and the room it left, or {@code null} if the animal is gone or was modified concurrently
+     */
+    RoomMove moveToRoom(String animalId, Long version, String roomId);
+
+    /**
+     * Unsets the room with one {@code findAndModify} on {@code {_id, version, roomId}}.
+     * @param version expected version, {@code null} to update regardless of the version
+     * @return the updated animal, or {@code null} if the animal is gone, was modified concurrently or is not in the room
+     */
+    Animal removeFromRoom(String animalId, Long version, String roomId);
+
+    /**
+     * Deletes the animal with one {@code findAndRemove} on {@code {_id, version}}.
+     * @param version expected version, {@code null} to delete regardless of the version
+     * @return the deleted animal, or {@code null} if the animal is gone or was modified concurrently
+     */
+    Animal deleteVersioned(String animalId, Long version);
+
+    /**
+     * Result of {@link #moveToRoom}: the animal as written and the room it was in before.
+     */
+    record RoomMove(Animal animal, String previousRoomId) {}
+
+    /**
+     * Reads only the version of the document, projecting {@code _id} and {@code version}
+     * without mapping the entity. Used to answer conditional GETs.
+     * @return the version, empty if the document does not exist
+     */
+    Optional<Long> findVersionById(String id);
+}
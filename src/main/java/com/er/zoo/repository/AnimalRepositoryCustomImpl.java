@@ -0,0 +1,245 @@
+package com.er.zoo.repository;
+
+import com.er.zoo.dto.AnimalFilter;
+import com.er.zoo.dto.RoomCursor;
+import com.er.zoo.enums.SortField;
+import com.er.zoo.model.Animal;
+import com.mongodb.bulk.BulkWriteError;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+class AnimalRepositoryCustomImpl implements AnimalRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    AnimalRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public List<Animal> findByRoomIdAfter(String roomId, SortField sort, Sort.Direction order, RoomCursor after, int limit) {
+        String field = sort.name().toLowerCase();
+        Criteria criteria = Criteria.where("roomId").is(roomId);
+        if (after != null) {
+            criteria = criteria.andOperator(after(field, order, after));
+        }
+        Query query = new Query(criteria)
+                .with(Sort.by(order, field).and(Sort.by(order, "id")))
+                .limit(limit);
+        return mongoTemplate.find(query, Animal.class);
+    }
+
+    @Override
+    public Stream<Animal> streamAll(String roomId, Instant updatedSince, int batchSize) {
+        Query query = new Query().with(Sort.by("id")).cursorBatchSize(batchSize);
+        if (roomId != null)
+            query.addCriteria(Criteria.where("roomId").is(roomId));
+        if (updatedSince != null)
+            query.addCriteria(Criteria.where("updated").gte(updatedSince));
+        return mongoTemplate.stream(query, Animal.class);
+    }
+
+    @Override
+    public List<BulkWriteError> insertUnordered(List<Animal> animals) {
+        if (animals.isEmpty()) return List.of();
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Animal.class).insert(animals).execute();
+            return List.of();
+        } catch (BulkOperationException ex) {
+            return ex.getErrors();
+        }
+    }
+
+    @Override
+    public List<Animal> findWriteStateByIdIn(Collection<String> ids) {
+        return BatchWrites.findWriteState(mongoTemplate, Animal.class, ids, "roomId", "favoriteRoomIds");
+    }
+
+    @Override
+    public BatchWriteResult writeBatch(List<BatchWrite<Animal>> writes) {
+        return BatchWrites.execute(mongoTemplate, Animal.class, writes, animal -> {
+            Update update = new Update();
+            if (animal.getTitle() != null)
+                update.set("title", animal.getTitle());
+            if (animal.getLocated() != null)
+                update.set("located", animal.getLocated());
+            return update;
+        });
+    }
+
+    @Override
+    public Stream<Animal> streamWriteStateBy(AnimalFilter filter, int batchSize) {
+        Query query = new Query(matching(filter)).cursorBatchSize(batchSize);
+        query.fields().include("roomId", "favoriteRoomIds");
+        return mongoTemplate.stream(query, Animal.class);
+    }
+
+    @Override
+    public Stream<String> streamIdsUpdatedAt(String roomId, Instant updated, int batchSize) {
+        Query query = new Query(Criteria.where("roomId").is(roomId).and("updated").is(updated))
+                .cursorBatchSize(batchSize);
+        query.fields().include("id");
+        return mongoTemplate.stream(query, Animal.class).map(Animal::getId);
+    }
+
+    @Override
+    public long moveAll(String fromRoomId, String toRoomId, Instant updated) {
+        return updateAll(fromRoomId, new Update().set("roomId", toRoomId), updated);
+    }
+
+    @Override
+    public long unassignAll(String roomId, Instant updated) {
+        return updateAll(roomId, new Update().unset("roomId"), updated);
+    }
+
+    @Override
+    public Set<String> deleteAll(Collection<String> animalIds, AnimalFilter filter) {
+        if (animalIds.isEmpty()) return Set.of();
+        Query query = new Query(new Criteria().andOperator(Criteria.where("id").in(animalIds), matching(filter)));
+        long deleted = mongoTemplate.remove(query, Animal.class).getDeletedCount();
+        Set<String> ids = new HashSet<>(animalIds);
+        if (deleted < ids.size()) {
+            // the rest no longer matched the filter, or were deleted by someone else
+            Query remaining = new Query(Criteria.where("id").in(animalIds));
+            remaining.fields().include("id");
+            mongoTemplate.find(remaining, Animal.class).forEach(animal -> ids.remove(animal.getId()));
+        }
+        return ids;
+    }
+
+    @Override
+    public Animal addFavoriteRooms(String animalId, long version, Collection<String> roomIds) {
+        return updateVersioned(animalId, version,
+                new Update().addToSet("favoriteRoomIds").each(roomIds.toArray()));
+    }
+
+    @Override
+    public Animal removeFavoriteRooms(String animalId, long version, Collection<String> roomIds) {
+        return updateVersioned(animalId, version,
+                new Update().pullAll("favoriteRoomIds", roomIds.toArray()));
+    }
+
+    @Override
+    public Animal updateFields(String animalId, Long version, String title, LocalDate located) {
+        Update update = new Update();
+        if (title != null)
+            update.set("title", title);
+        if (located != null)
+            update.set("located", located);
+        return updateVersioned(animalId, version, update);
+    }
+
+    @Override
+    public RoomMove moveToRoom(String animalId, Long version, String roomId) {
+        // Mongo stores milliseconds: the returned state has to match what a later read returns
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        // the previous state tells which room was left; the written state is derived from it
+        Animal previous = mongoTemplate.findAndModify(versioned(animalId, version),
+                new Update().set("roomId", roomId).inc("version", 1).set("updated", now),
+                FindAndModifyOptions.options().returnNew(false), Animal.class);
+        if (previous == null)
+            return null;
+        String previousRoomId = previous.getRoomId();
+        previous.setRoomId(roomId);
+        previous.setVersion(previous.getVersion() + 1);
+        previous.setUpdated(now);
+        return new RoomMove(previous, previousRoomId);
+    }
+
+    @Override
+    public Animal removeFromRoom(String animalId, Long version, String roomId) {
+        Query query = versioned(animalId, version);
+        query.addCriteria(Criteria.where("roomId").is(roomId));
+        return modify(query, new Update().unset("roomId"));
+    }
+
+    @Override
+    public Animal deleteVersioned(String animalId, Long version) {
+        return mongoTemplate.findAndRemove(versioned(animalId, version), Animal.class);
+    }
+
+    @Override
+    public Optional<Long> findVersionById(String id) {
+        // raw documents are not mapped, so the query uses the stored field names
+        Query query = new Query(Criteria.where("_id").is(id));
+        query.fields().include("version");
+        Document document = mongoTemplate.findOne(query, Document.class, mongoTemplate.getCollectionName(Animal.class));
+        return Optional.ofNullable(document)
+                .map(d -> d.get("version", Number.class))
+                .map(Number::longValue);
+    }
+
+    /**
+     * Applies the update only if the document still has {@code version} (any version if {@code null}),
+     * bumping the version and {@code updated} as a save through the repository would.
+     */
+    private Animal updateVersioned(String animalId, Long version, Update update) {
+        return modify(versioned(animalId, version), update);
+    }
+
+    private Animal modify(Query query, Update update) {
+        update.inc("version", 1).set("updated", Instant.now());
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), Animal.class);
+    }
+
+    private long updateAll(String roomId, Update update, Instant updated) {
+        update.inc("version", 1).set("updated", updated);
+        return mongoTemplate.updateMulti(new Query(Criteria.where("roomId").is(roomId)), update, Animal.class)
+                .getModifiedCount();
+    }
+
+    private static Criteria matching(AnimalFilter filter) {
+        Criteria criteria = new Criteria();
+        if (filter.roomId() != null)
+            criteria = criteria.and("roomId").is(filter.roomId());
+        if (filter.title() != null)
+            criteria = criteria.and("title").is(filter.title());
+        if (filter.locatedBefore() != null)
+            criteria = criteria.and("located").lt(filter.locatedBefore());
+        return criteria;
+    }
+
+    private static Query versioned(String animalId, Long version) {
+        Criteria criteria = Criteria.where("id").is(animalId);
+        if (version != null)
+            criteria = criteria.and("version").is(version);
+        return new Query(criteria);
+    }
+
+    /**
+     * Builds the "strictly after the cursor" predicate. MongoDB orders missing/null values
+     * before any other value, so null sort values are handled explicitly.
+     */
+    private Criteria after(String field, Sort.Direction order, RoomCursor cursor) {
+        Object value = cursor.typedValue();
+        boolean asc = order.isAscending();
+        Criteria sameValueNextId = asc
+                ? Criteria.where("id").gt(cursor.id())
+                : Criteria.where("id").lt(cursor.id());
+        if (value == null) {
+            Criteria tie = new Criteria().andOperator(Criteria.where(field).is(null), sameValueNextId);
+            return asc ? new Criteria().orOperator(tie, Criteria.where(field).ne(null)) : tie;
+        }
+        Criteria tie = new Criteria().andOperator(Criteria.where(field).is(value), sameValueNextId);
+        return asc
+                ? new Criteria().orOperator(Criteria.where(field).gt(value), tie)
+                : new Criteria().orOperator(Criteria.where(field).lt(value), tie, Criteria.where(field).is(null));
+    }
+}
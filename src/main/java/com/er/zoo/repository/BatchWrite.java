@@ -0,0 +1,14 @@
+package com.er.zoo.repository;
+
+import com.er.zoo.enums.BatchOperationType;
+import com.er.zoo.model.common.BaseDocument;
+
+/**
+ * One write of a bulk batch.
+ *
+ * @param type     {@code CREATE} inserts {@code document}; {@code UPDATE} sets its non-null fields and
+ *                 {@code updated}; {@code DELETE} removes the document with its id
+ * @param document the document to insert, or its id and the fields to change
+ * @param version  version the update or delete is conditioned on, ignored for inserts
+ */
+public record BatchWrite<T extends BaseDocument>(BatchOperationType type, T document, long version) {}
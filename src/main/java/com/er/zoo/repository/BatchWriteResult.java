@@ -0,0 +1,14 @@
+package com.er.zoo.repository;
+
+import com.mongodb.bulk.BulkWriteError;
+
+import java.util.List;
+
+/**
+ * Result of an unordered bulk write.
+ *
+ * @param matched number of updates that matched their {@code {_id, version}}
+ * @param deleted number of deletes that matched their {@code {_id, version}}
+ * @param errors  write errors, indexed by position in the batch
+ */
+public record BatchWriteResult(int matched, int deleted, List<BulkWriteError> errors) {}
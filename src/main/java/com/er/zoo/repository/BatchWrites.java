@@ -0,0 +1,73 @@
+package com.er.zoo.repository;
+
+import com.er.zoo.model.common.BaseDocument;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.util.Assert;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Shared bulk write of the {@code :batch} endpoints.
+ */
+final class BatchWrites {
+
+    private BatchWrites() {}
+
+    /**
+     * Runs all writes as one unordered bulk write. Updates and deletes are conditioned on
+     * {@code {_id, version}}; updates also increment the version.
+     * @param fields the fields an update sets, besides {@code version} and {@code updated}; at least one
+     */
+    static <T extends BaseDocument> BatchWriteResult execute(MongoTemplate mongoTemplate, Class<T> type,
+                                                             List<BatchWrite<T>> writes, Function<T, Update> fields) {
+        if (writes.isEmpty()) return new BatchWriteResult(0, 0, List.of());
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, type);
+        for (BatchWrite<T> write : writes) {
+            T document = write.document();
+            switch (write.type()) {
+                case CREATE -> bulk.insert(document);
+                case UPDATE -> {
+                    Update update = fields.apply(document);
+                    // only bumping the version would be a write without a change
+                    Assert.isTrue(!update.getUpdateObject().isEmpty(), "An update has to set at least one field");
+                    bulk.updateOne(versioned(document.getId(), write.version()),
+                            update.inc("version", 1).set("updated", document.getUpdated()));
+                }
+                case DELETE -> bulk.remove(versioned(document.getId(), write.version()));
+            }
+        }
+        try {
+            return result(bulk.execute(), List.of());
+        } catch (BulkOperationException ex) {
+            return result(ex.getResult(), ex.getErrors());
+        }
+    }
+
+    /**
+     * Loads only {@code _id}, {@code version}, {@code updated} and the given fields of the documents.
+     */
+    static <T> List<T> findWriteState(MongoTemplate mongoTemplate, Class<T> type, Collection<String> ids,
+                                      String... fields) {
+        if (ids.isEmpty()) return List.of();
+        Query query = new Query(Criteria.where("id").in(ids));
+        query.fields().include("version", "updated").include(fields);
+        return mongoTemplate.find(query, type);
+    }
+
+    private static Query versioned(String id, long version) {
+        return new Query(Criteria.where("id").is(id).and("version").is(version));
+    }
+
+    private static BatchWriteResult result(BulkWriteResult result, List<BulkWriteError> errors) {
+        return new BatchWriteResult(result.getMatchedCount(), result.getDeletedCount(), errors);
+    }
+}
@@ -0,0 +1,25 @@
+package com.er.zoo.repository;
+
+import com.er.zoo.model.Animal;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link AnimalRepository} for the read endpoints of the {@code reactive}
+ * profile. Writes keep going through {@link AnimalRepository}.
+ */
+public interface ReactiveAnimalRepository extends ReactiveMongoRepository<Animal, String> {
+
+    Flux<Animal> findByRoomId(String roomId, Pageable pageable);
+
+    Mono<Long> countByRoomId(String roomId);
+
+    /**
+     * Version-only lookup for {@code If-None-Match}: the animal with only {@code _id} and {@code version} loaded.
+     */
+    @Query(value = "{ '_id': ?0 }", fields = "{ 'version': 1 }")
+    Mono<Animal> findVersionById(String id);
+}
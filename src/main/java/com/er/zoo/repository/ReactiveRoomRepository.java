@@ -0,0 +1,27 @@
+package com.er.zoo.repository;
+
+import com.er.zoo.model.Room;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link RoomRepository} for the read endpoints of the {@code reactive}
+ * profile. Writes keep going through {@link RoomRepository}.
+ */
+public interface ReactiveRoomRepository extends ReactiveMongoRepository<Room, String> {
+
+    /**
+     * Rooms favorited by at least one animal, see {@link RoomRepository#findFavoriteRooms}.
+     */
+    @Query(value = "{ 'favoriteCount': { $gt: 0 } }", fields = "{ 'title': 1, 'favoriteCount': 1 }")
+    Flux<Room> findFavoriteRooms(Pageable pageable);
+
+    /**
+     * Version-only lookup for {@code If-None-Match}: the room with only {@code _id} and {@code version} loaded.
+     */
+    @Query(value = "{ '_id': ?0 }", fields = "{ 'version': 1 }")
+    Mono<Room> findVersionById(String id);
+}
@@ -1,25 +1,41 @@
 package com.er.zoo.repository;
 
-import com.er.zoo.dto.RoomCountProjection;
 import com.er.zoo.model.Room;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.repository.MongoRepository;
-import org.springframework.data.mongodb.repository.Aggregation;
+import org.springframework.data.mongodb.repository.Query;
 
+import java.util.Collection;
 import java.util.List;
+
 /**
  * Repository interface for {@link Room} entities.
  * <p>
  * Provides basic CRUD operations through {@link MongoRepository} as well as
- * custom queries for retrieving aggregated information about favorite rooms.
+ * custom queries for retrieving information about favorite rooms.
  * </p>
  */
-public interface RoomRepository extends MongoRepository<Room, String> {
-    @Aggregation(pipeline = {
-            "{ '$project': { title: 1, favCount: { $size: { $ifNull: [ '$favoritedByAnimalIds', [] ] } } } }",
-            "{ '$match': { favCount: { $gt: 0 } } }",
-            "{ '$project': { title: 1, favCount: 1, _id: 0 } }"
-    })
-    List<RoomCountProjection> findFavoriteRoomsWithCounts();
+public interface RoomRepository extends MongoRepository<Room, String>, RoomRepositoryCustom {
+
+    /**
+     * Order of {@link #findFavoriteRooms}: most favorited first, then by {@code _id}, so that rooms with
+     * the same count keep one order across pages. Matches the {@code favoriteCount_id} index.
+     */
+    Sort FAVORITE_ORDER = Sort.by(Sort.Direction.DESC, "favoriteCount").and(Sort.by("id"));
 
+    /**
+     * Rooms favorited by at least one animal, served from the {@code favoriteCount_id} index when
+     * paged in {@link #FAVORITE_ORDER}.
+     * Only {@code title} and {@code favoriteCount} are loaded; no total count is computed.
+     */
+    @Query(value = "{ 'favoriteCount': { $gt: 0 } }", fields = "{ 'title': 1, 'favoriteCount': 1 }")
+    Slice<Room> findFavoriteRooms(Pageable pageable);
 
+    /**
+     * Existence check for a set of rooms: returns the matching rooms with only {@code _id} loaded.
+     */
+    @Query(value = "{ '_id': { $in: ?0 } }", fields = "{ '_id': 1 }")
+    List<Room> findIdsByIdIn(Collection<String> ids);
 }
@@ -0,0 +1,78 @@
+package com.er.zoo.repository;
+
+import com.er.zoo.model.Room;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Atomic updates of the favorite reverse references held by {@link Room}.
+ */
+public interface RoomRepositoryCustom {
+
+    /**
+     * Streams rooms in {@code _id} order from a server-side cursor that fetches {@code batchSize}
+     * documents per round trip. {@code favoritedByAnimalIds} is not loaded. The caller must close the stream.
+     *
+     * @param updatedSince only rooms updated at or after this instant, {@code null} for all
+     */
+    Stream<Room> streamAll(Instant updatedSince, int batchSize);
+
+    /**
+     * Adds the animal to the favorites of every given room in one unordered bulk write.
+     * Each room's {@code favoriteCount} is incremented only if the animal was not already there.
+     * @return number of rooms that changed
+     */
+    int addFavorites(Collection<String> roomIds, String animalId);
+
+    /**
+     * Removes the animal from the favorites of every given room in one unordered bulk write.
+     * Each room's {@code favoriteCount} is decremented only if the animal was there.
+     * @return number of rooms that changed
+     */
+    int removeFavorites(Collection<String> roomIds, String animalId);
+
+    /**
+     * {@link #removeFavorites(Collection, String)} for several animals in one unordered bulk write.
+     * @param roomIdsByAnimalId favorite rooms of each animal
+     * @return number of rooms that changed
+     */
+    int removeFavorites(Map<String, ? extends Collection<String>> roomIdsByAnimalId);
+
+    /**
+     * Loads what a batch write needs to know about the rooms: {@code _id}, {@code version} and {@code updated}.
+     */
+    List<Room> findWriteStateByIdIn(Collection<String> ids);
+
+    /**
+     * Runs the writes as one unordered bulk write; updates set the {@code title} if not {@code null}.
+     * An update that would set no field is rejected, as it would only bump the version.
+     */
+    BatchWriteResult writeBatch(List<BatchWrite<Room>> writes);
+
+    /**
+     * Sets the title (if not {@code null}) with one {@code findAndModify} on {@code {_id, version}},
+     * incrementing the version. Favorite references and counters are left untouched.
+     * @param version expected version, {@code null} to update regardless of the version
+     * @return the updated room, or {@code null} if the room is gone or was modified concurrently
+     */
+    Room updateTitle(String roomId, Long version, String title);
+
+    /**
+     * Deletes the room with one {@code deleteOne} on {@code {_id, version}}.
+     * @param version expected version, {@code null} to delete regardless of the version
+     * @return false if the room is gone or was modified concurrently
+     */
+    boolean deleteVersioned(String roomId, Long version);
+
+    /**
+     * Reads only the version of the document, projecting {@code _id} and {@code version}
+     * without mapping the entity. Used to answer conditional GETs.
+     * @return the version, empty if the document does not exist
+     */
+    Optional<Long> findVersionById(String id);
+}
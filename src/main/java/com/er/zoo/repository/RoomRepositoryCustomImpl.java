@@ -0,0 +1,119 @@
+package com.er.zoo.repository;
+
+import com.er.zoo.model.Room;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+class RoomRepositoryCustomImpl implements RoomRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    RoomRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Stream<Room> streamAll(Instant updatedSince, int batchSize) {
+        Query query = new Query().with(Sort.by("id")).cursorBatchSize(batchSize);
+        query.fields().exclude("favoritedByAnimalIds");
+        if (updatedSince != null)
+            query.addCriteria(Criteria.where("updated").gte(updatedSince));
+        return mongoTemplate.stream(query, Room.class);
+    }
+
+    @Override
+    public int addFavorites(Collection<String> roomIds, String animalId) {
+        if (roomIds.isEmpty()) return 0;
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Room.class);
+        // the membership filter makes the $inc happen only when the set actually grows
+        roomIds.forEach(roomId -> bulk.updateOne(
+                new Query(Criteria.where("id").is(roomId).and("favoritedByAnimalIds").ne(animalId)),
+                new Update().addToSet("favoritedByAnimalIds", animalId).inc("favoriteCount", 1)));
+        return bulk.execute().getModifiedCount();
+    }
+
+    @Override
+    public int removeFavorites(Collection<String> roomIds, String animalId) {
+        if (roomIds.isEmpty()) return 0;
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Room.class);
+        roomIds.forEach(roomId -> bulk.updateOne(
+                new Query(Criteria.where("id").is(roomId).and("favoritedByAnimalIds").is(animalId)),
+                new Update().pull("favoritedByAnimalIds", animalId).inc("favoriteCount", -1)));
+        return bulk.execute().getModifiedCount();
+    }
+
+    @Override
+    public int removeFavorites(Map<String, ? extends Collection<String>> roomIdsByAnimalId) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Room.class);
+        int writes = 0;
+        for (var entry : roomIdsByAnimalId.entrySet()) {
+            String animalId = entry.getKey();
+            for (String roomId : entry.getValue()) {
+                bulk.updateOne(new Query(Criteria.where("id").is(roomId).and("favoritedByAnimalIds").is(animalId)),
+                        new Update().pull("favoritedByAnimalIds", animalId).inc("favoriteCount", -1));
+                writes++;
+            }
+        }
+        return writes == 0 ? 0 : bulk.execute().getModifiedCount();
+    }
+
+    @Override
+    public List<Room> findWriteStateByIdIn(Collection<String> ids) {
+        return BatchWrites.findWriteState(mongoTemplate, Room.class, ids);
+    }
+
+    @Override
+    public BatchWriteResult writeBatch(List<BatchWrite<Room>> writes) {
+        return BatchWrites.execute(mongoTemplate, Room.class, writes, room -> {
+            Update update = new Update();
+            if (room.getTitle() != null)
+                update.set("title", room.getTitle());
+            return update;
+        });
+    }
+
+    @Override
+    public Room updateTitle(String roomId, Long version, String title) {
+        Update update = new Update().inc("version", 1).set("updated", Instant.now());
+        if (title != null)
+            update.set("title", title);
+        return mongoTemplate.findAndModify(versioned(roomId, version), update,
+                FindAndModifyOptions.options().returnNew(true), Room.class);
+    }
+
+    @Override
+    public boolean deleteVersioned(String roomId, Long version) {
+        return mongoTemplate.remove(versioned(roomId, version), Room.class).getDeletedCount() > 0;
+    }
+
+    @Override
+    public Optional<Long> findVersionById(String id) {
+        // raw documents are not mapped, so the query uses the stored field names
+        Query query = new Query(Criteria.where("_id").is(id));
+        query.fields().include("version");
+        Document document = mongoTemplate.findOne(query, Document.class, mongoTemplate.getCollectionName(Room.class));
+        return Optional.ofNullable(document)
+                .map(d -> d.get("version", Number.class))
+                .map(Number::longValue);
+    }
+
+    private static Query versioned(String roomId, Long version) {
+        Criteria criteria = Criteria.where("id").is(roomId);
+        if (version != null)
+            criteria = criteria.and("version").is(version);
+        return new Query(criteria);
+    }
+}
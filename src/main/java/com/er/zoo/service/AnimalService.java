@@ -1,28 +1,47 @@
 package com.er.zoo.service;
 
+import com.er.zoo.cache.AnimalsInRoomCache;
+import com.er.zoo.cache.BulkCache;
+import com.er.zoo.cache.LastKnownGood;
+import com.er.zoo.dto.AnimalBatchOperation;
+import com.er.zoo.dto.AnimalFilter;
 import com.er.zoo.dto.AnimalCreateRequest;
 import com.er.zoo.dto.AnimalUpdateRequest;
 import com.er.zoo.dto.AnimalResponse;
+import com.er.zoo.dto.BatchResult;
+import com.er.zoo.dto.CursorPage;
+import com.er.zoo.dto.MultiGetResponse;
+import com.er.zoo.dto.RoomCursor;
 import com.er.zoo.dto.RoomRequest;
+import com.er.zoo.enums.BatchOperationType;
 import com.er.zoo.exception.AnimalNotFoundException;
 import com.er.zoo.logging.LoggerService;
 import com.er.zoo.mapper.Mapper;
 import com.er.zoo.model.Animal;
-import com.er.zoo.model.Room;
 import com.er.zoo.repository.AnimalRepository;
 import com.er.zoo.repository.RoomRepository;
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import jakarta.validation.Validator;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.Caching;
 import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
 /**
  * Service class for managing {@link Animal} entities in the Zoo API.
  * <p>
@@ -37,126 +56,373 @@ import java.util.Set;
 
 @Service
 public class AnimalService extends ZooService{
+    /**
+     * Ids per {@code deleteMany} and per cache eviction of the bulk operations on all animals of a room or filter.
+     */
+    static final int BULK_CHUNK_SIZE = 1000;
+
     private final AnimalRepository animalRepo;
     private final RoomRepository roomRepo;
+    private final AnimalsInRoomCache animalsInRoomCache;
+    private final BulkCache bulkCache;
+    private final LastKnownGood lastKnownGood;
+    private final Validator validator;
 
     public AnimalService(AnimalRepository animalRepo, RoomRepository roomRepo,
+                         AnimalsInRoomCache animalsInRoomCache,
+                         BulkCache bulkCache,
+                         LastKnownGood lastKnownGood,
+                         Validator validator,
                          IdempotencyService idempotencyService,
                          LoggerService loggerService) {
         super(idempotencyService, loggerService);
         this.animalRepo = animalRepo;
         this.roomRepo = roomRepo;
+        this.animalsInRoomCache = animalsInRoomCache;
+        this.bulkCache = bulkCache;
+        this.lastKnownGood = lastKnownGood;
+        this.validator = validator;
     }
 
-    public AnimalResponse create(AnimalCreateRequest request, String idempotencyKey) {
-        registerKey(idempotencyKey);
+    /**
+     * @param keyClaimed whether the key was already registered for this request, see {@link #registerKey}
+     */
+    public AnimalResponse create(AnimalCreateRequest request, String idempotencyKey, boolean keyClaimed) {
+        registerKey(idempotencyKey, keyClaimed);
         return Mapper.toResponse(animalRepo.save(Mapper.toEntity(request)));
     }
 
-    @Cacheable(value = "animals", key = "#id")
+    /**
+     * Creates, updates and deletes animals with one unordered bulk write, see {@link BatchWriter}.
+     * A create is validated as an {@link AnimalCreateRequest}; an update has to set a field.
+     * The {@code animals} cache is written once for the whole batch: created animals are put,
+     * updated and deleted ones evicted.
+     */
+    public List<BatchResult> batch(List<AnimalBatchOperation> operations) {
+        BatchWriter<Animal> batchWriter = new BatchWriter<>(animalRepo::findWriteStateByIdIn, animalRepo::writeBatch,
+                this::expectedVersion, "Animal not found");
+        var outcome = batchWriter.run(operations, operation -> {
+            if (operation.op() == BatchOperationType.CREATE)
+                return Mapper.toEntity(validated(validator,
+                        new AnimalCreateRequest(operation.title(), operation.located())));
+            if (operation.title() == null && operation.located() == null)
+                throw new IllegalArgumentException("title or located is required for UPDATE");
+            return Mapper.toEntity(new AnimalUpdateRequest(operation.title(), operation.located()));
+        });
+
+        bulkCache.putAll("animals", outcome.created().stream()
+                .collect(Collectors.toMap(Animal::getId, Mapper::toResponse)));
+        List<Animal> changed = new ArrayList<>(outcome.updated());
+        changed.addAll(outcome.deleted());
+        bulkCache.evictAll("animals", changed.stream().map(Animal::getId).toList());
+        animalsInRoomCache.evict(changed.stream().map(Animal::getRoomId).distinct().toArray(String[]::new));
+        // keep favorite reverse references and counters in step with the deleted animals
+        roomRepo.removeFavorites(outcome.deleted().stream()
+                .filter(animal -> animal.getFavoriteRoomIds() != null && !animal.getFavoriteRoomIds().isEmpty())
+                .collect(Collectors.toMap(Animal::getId, Animal::getFavoriteRoomIds)));
+        logger.info(entityName, "BATCH", String.format("Batch of %d: %d created, %d updated, %d deleted",
+                operations.size(), outcome.created().size(), outcome.updated().size(), outcome.deleted().size()));
+        return outcome.results();
+    }
+
+    /**
+     * Cache misses are loaded once per key: concurrent callers of an expired or missing animal
+     * wait for the one {@code findById} in flight instead of all going to Mongo. While Mongo is
+     * unavailable a miss is answered from {@link LastKnownGood}, see {@link #staleAnimal}.
+     */
+    @Cacheable(value = "animals", key = "#id", sync = true)
+    @CircuitBreaker(name = "animalService", fallbackMethod = "staleAnimal")
     public AnimalResponse getAnimal(String id) { return Mapper.toResponse(get(id)); }
 
+    /**
+     * Multi-get: cached animals come from one {@code getAll} on the {@code animals} cache, all misses
+     * from one {@code findAllById}, and the loaded animals are cached in the same step.
+     */
+    public MultiGetResponse<AnimalResponse> getAnimals(List<String> ids) {
+        List<String> distinct = multiGetIds(ids);
+        Map<String, AnimalResponse> found = bulkCache.getAll("animals", distinct, misses ->
+                animalRepo.findAllById(misses).stream()
+                        .collect(Collectors.toMap(Animal::getId, Mapper::toResponse)));
+        return MultiGetResponse.of(distinct, found);
+    }
+
+    /**
+     * Version of the animal read through an {@code _id} + {@code version} projection, for conditional GETs.
+     * Runs behind the same circuit breaker as {@link #getAnimal(String)}, see {@link #unknownVersion}.
+     * @return the version, empty if it could not be read
+     */
+    @CircuitBreaker(name = "animalService", fallbackMethod = "unknownVersion")
+    public Optional<Long> currentVersion(String id) {
+        return Optional.of(animalRepo.findVersionById(id).orElseThrow(() -> new AnimalNotFoundException("Animal not found")));
+    }
+
     public Animal get(String id) { return animalRepo.findById(id).orElseThrow(() -> new AnimalNotFoundException("Animal not found")); }
 
+    /**
+     * Updates with one conditional {@code findAndModify}: no read, only the changed fields are written.
+     */
     @CachePut(value = "animals", key = "#id")
     public AnimalResponse update(String id, AnimalUpdateRequest request, String ifMatch) {
-        var existing = get(id);
-        validateIfMatch(existing.getVersion(),ifMatch);
-        if(request.title()!= null)
-            existing.setTitle(request.title());
-        if(request.located()!= null)
-            existing.setLocated(request.located());
-        return Mapper.toResponse(animalRepo.save(existing));
-    }
-
-    @Caching(evict = {
-            @CacheEvict(value = "animals", key = "#id"),
-            @CacheEvict(value = "animalsInRoom", allEntries = true) //evict room lists when animals change
-    })
+        Long version = expectedVersion(ifMatch);
+        var saved = animalRepo.updateFields(id, version, request.title(), request.located());
+        if (saved == null)
+            throw notFoundOrModified(id, version);
+        animalsInRoomCache.evict(saved.getRoomId());
+        return Mapper.toResponse(saved);
+    }
+
+    @CacheEvict(value = "animals", key = "#id")
     public void delete(String id, String ifMatch) {
-        Animal existing = get(id);
-        validateIfMatch(existing.getVersion(),ifMatch);
-        animalRepo.deleteById(id); }
+        Long version = expectedVersion(ifMatch);
+        Animal deleted = animalRepo.deleteVersioned(id, version);
+        if (deleted == null)
+            throw notFoundOrModified(id, version);
+        // keep favorite reverse references and counters in step with the deleted animal
+        roomRepo.removeFavorites(Optional.ofNullable(deleted.getFavoriteRoomIds()).orElse(Set.of()), id);
+        animalsInRoomCache.evict(deleted.getRoomId());
+    }
 
     @CachePut(value = "animals", key = "#animalId")
-    @CacheEvict(value = "animalsInRoom", allEntries = true)
     public AnimalResponse assignToRoom(String animalId, String roomId, String ifMatch) {
-        var animal = get(animalId);
-        validateIfMatch(animal.getVersion(),ifMatch);
-        var room = roomRepo.findById(roomId).orElseThrow(() -> new IllegalArgumentException("Room not found"));
-        animal.setRoomId(room.getId());
-        return Mapper.toResponse(animalRepo.save(animal));
+        Long version = expectedVersion(ifMatch);
+        if (!roomRepo.existsById(roomId))
+            throw new IllegalArgumentException("Room not found");
+        var move = animalRepo.moveToRoom(animalId, version, roomId);
+        if (move == null)
+            throw notFoundOrModified(animalId, version);
+        // only the pages of the source and target room change
+        animalsInRoomCache.evict(move.previousRoomId(), roomId);
+        return Mapper.toResponse(move.animal());
     }
 
-    @CachePut(value = "animals", key = "#animalId")
-    @CacheEvict(value = "animalsInRoom", allEntries = true)
+    @CacheEvict(value = "animals", key = "#animalId")
     public void removeFromRoom(String animalId, String roomId, String ifMatch) {
-        var animal = get(animalId);
-        validateIfMatch(animal.getVersion(),ifMatch);
-        if (animal.getRoomId() == null || !animal.getRoomId().equals(roomId)) {
+        if (animalRepo.removeFromRoom(animalId, expectedVersion(ifMatch), roomId) == null) {
+            // find out why the conditional update matched nothing
+            var animal = get(animalId);
+            validateIfMatch(animal.getVersion(), ifMatch);
             throw new IllegalArgumentException("Animal not in specified room");
         }
-        animal.setRoomId(null);
-        animalRepo.save(animal);
+        animalsInRoomCache.evict(roomId);
     }
 
 
+    /**
+     * Adds favorite rooms with one {@code $addToSet} on the animal and one bulk write on the rooms.
+     * Rooms that are already favorites are not written at all.
+     * <p>
+     * No transaction spans the two writes. If the room write fails, the rooms are taken back off the
+     * animal before the failure is rethrown, so a retry finds them missing and writes both again; the
+     * room updates are conditional on membership and may safely be repeated.
+     * </p>
+     */
     @CachePut(value = "animals", key = "#animalId")
-    @Transactional
     public AnimalResponse assignFavorite(String animalId, List<String> roomIds, String ifMatch) {
-
         var animal = get(animalId);
         validateIfMatch(animal.getVersion(),ifMatch);
-        List<Room> existingRooms = getRooms(roomIds);
-        Set<String> favourites = new HashSet<>(Optional.ofNullable(animal.getFavoriteRoomIds()).orElse(Set.of()));
-        favourites.addAll(roomIds);
-
-        animal.setFavoriteRoomIds(favourites);
+        requireRooms(roomIds);
+        Set<String> added = new LinkedHashSet<>(roomIds);
+        added.removeAll(Optional.ofNullable(animal.getFavoriteRoomIds()).orElse(Set.of()));
+        if (added.isEmpty())
+            return Mapper.toResponse(animal);
 
-        var saved = animalRepo.save(animal);
-        // maintain reverse reference for fast aggregation
-        existingRooms.forEach(it -> {
-            it.getFavoritedByAnimalIds().add(animal.getId());
-            roomRepo.save(it);
-        });
+        var saved = versionChecked(animalRepo.addFavoriteRooms(animalId, animal.getVersion(), added));
+        try {
+            // maintain reverse reference and favoriteCount for fast favorite listing
+            roomRepo.addFavorites(added, animalId);
+        } catch (RuntimeException e) {
+            revertFavorites(animalId, () -> animalRepo.removeFavoriteRooms(animalId, saved.getVersion(), added), e);
+            throw e;
+        }
+        animalsInRoomCache.evict(saved.getRoomId());
         return Mapper.toResponse(saved);
     }
 
-
+    /**
+     * Removes favorite rooms with one {@code $pull} on the animal and one bulk write on the rooms.
+     * Rooms that are not favorites are not written at all.
+     * A failed room write is compensated as in {@link #assignFavorite}, by adding the rooms back.
+     */
     @CachePut(value = "animals", key = "#animalId")
-    @Transactional
     public AnimalResponse unassignFavorite(String animalId, List<String> roomIds, String ifMatch) {
         var animal = get(animalId);
         validateIfMatch(animal.getVersion(),ifMatch);
-        List<Room> existingRooms = getRooms(roomIds);
-        roomIds.forEach(animal.getFavoriteRoomIds()::remove);
-        var saved = animalRepo.save(animal);
-
-        existingRooms.forEach(it->{
-            it.getFavoritedByAnimalIds().remove(animalId);
-            roomRepo.save(it);
-        });
+        requireRooms(roomIds);
+        Set<String> removed = new LinkedHashSet<>(roomIds);
+        removed.retainAll(Optional.ofNullable(animal.getFavoriteRoomIds()).orElse(Set.of()));
+        if (removed.isEmpty())
+            return Mapper.toResponse(animal);
 
+        var saved = versionChecked(animalRepo.removeFavoriteRooms(animalId, animal.getVersion(), removed));
+        try {
+            roomRepo.removeFavorites(removed, animalId);
+        } catch (RuntimeException e) {
+            revertFavorites(animalId, () -> animalRepo.addFavoriteRooms(animalId, saved.getVersion(), removed), e);
+            throw e;
+        }
+        animalsInRoomCache.evict(saved.getRoomId());
         return Mapper.toResponse(saved);
     }
-    @Cacheable(value = "animalsInRoom", key = "#roomId + ':' + #sortField + ':' + #order + ':' + #page + ':' + #size")
-    @Transactional(readOnly = true)
+
+    /**
+     * Moves every animal of {@code fromRoomId} to {@code toRoomId} with one {@code updateMany} on the room.
+     * The moved animals are then read back by room and write timestamp in chunks of {@link #BULK_CHUNK_SIZE}
+     * ids, so exactly they are evicted from the {@code animals} cache; only the pages of the two rooms are evicted.
+     * @return number of animals moved
+     */
+    public long moveAll(String fromRoomId, String toRoomId) {
+        if (!roomRepo.existsById(toRoomId))
+            throw new IllegalArgumentException("Room not found");
+        if (fromRoomId.equals(toRoomId))
+            return 0;
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        long moved = animalRepo.moveAll(fromRoomId, toRoomId, now);
+        evictUpdated(toRoomId, now, moved);
+        animalsInRoomCache.evict(fromRoomId, toRoomId);
+        logger.info(entityName, "MOVE_ALL", String.format("Moved %d animals from %s to %s", moved, fromRoomId, toRoomId));
+        return moved;
+    }
+
+    /**
+     * Takes every animal out of the room with one {@code updateMany}, see {@link #moveAll(String, String)}.
+     * @return number of animals unassigned
+     */
+    public long unassignAll(String roomId) {
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        long unassigned = animalRepo.unassignAll(roomId, now);
+        evictUpdated(null, now, unassigned);
+        animalsInRoomCache.evict(roomId);
+        logger.info(entityName, "UNASSIGN_ALL", String.format("Unassigned %d animals from %s", unassigned, roomId));
+        return unassigned;
+    }
+
+    /**
+     * Deletes every animal matching the filter. The matching animals are streamed from a cursor and
+     * deleted with one {@code deleteMany} per chunk of {@link #BULK_CHUNK_SIZE} ids, so no request holds
+     * more than one chunk. For the animals each chunk actually deleted, the favorite references are
+     * removed with one bulk write and the pages of the rooms they were in are evicted.
+     * @return number of animals deleted
+     */
+    public long deleteAll(AnimalFilter filter) {
+        if (filter.isEmpty())
+            throw new IllegalArgumentException("At least one of roomId, title or locatedBefore is required");
+        long deleted = 0;
+        try (Stream<Animal> matching = animalRepo.streamWriteStateBy(filter, BULK_CHUNK_SIZE)) {
+            Iterator<Animal> animals = matching.iterator();
+            while (animals.hasNext()) {
+                List<Animal> chunk = nextChunk(animals);
+                Set<String> removed = animalRepo.deleteAll(idsOf(chunk), filter);
+                List<Animal> gone = chunk.stream().filter(animal -> removed.contains(animal.getId())).toList();
+                bulkCache.evictAll("animals", idsOf(gone));
+                animalsInRoomCache.evict(gone.stream().map(Animal::getRoomId).distinct().toArray(String[]::new));
+                // keep favorite reverse references and counters in step with the deleted animals
+                roomRepo.removeFavorites(gone.stream()
+                        .filter(animal -> animal.getFavoriteRoomIds() != null && !animal.getFavoriteRoomIds().isEmpty())
+                        .collect(Collectors.toMap(Animal::getId, Animal::getFavoriteRoomIds)));
+                deleted += gone.size();
+            }
+        }
+        logger.info(entityName, "DELETE_ALL", String.format("Deleted %d animals matching %s", deleted, filter));
+        return deleted;
+    }
+
+    @Cacheable(value = AnimalsInRoomCache.NAME, key = "T(com.er.zoo.cache.AnimalsInRoomCache).key(#roomRequest)", sync = true)
+    @CircuitBreaker(name = "animalService", fallbackMethod = "staleAnimalsInRoom")
     public Page<AnimalResponse> getAnimalsInRoom(RoomRequest roomRequest) {
         Page<Animal> animals = animalRepo.findByRoomId(roomRequest.roomId(), roomRequest.toPageable());
         return animals.map(Mapper::toResponse);
     }
 
-    private List<Room> getRooms(List<String> roomIds){
-        List<Room> existingRooms = roomRepo.findAllById(roomIds);
-        List<String> existingIds = existingRooms.stream()
-                .map(Room::getId)
-                .toList();
+    // --- Fallback methods ---
+    // they throw instead of returning, so the stale value reaches the client without being cached
+    private AnimalResponse staleAnimal(String id, Throwable ex) {
+        logger.warn(entityName, "FALLBACK", "Fallback triggered for getAnimal(" + id + "): " + ex.getMessage());
+        throw lastKnownGood.stale("animals", id, ex);
+    }
+
+    // a failed version lookup only skips the 304: the full read may still be answered stale
+    private Optional<Long> unknownVersion(String id, Throwable ex) {
+        if (ex instanceof AnimalNotFoundException notFound)
+            throw notFound;
+        logger.warn(entityName, "FALLBACK", "Fallback triggered for currentVersion(" + id + "): " + ex.getMessage());
+        return Optional.empty();
+    }
+
+    private Page<AnimalResponse> staleAnimalsInRoom(RoomRequest roomRequest, Throwable ex) {
+        String key = AnimalsInRoomCache.key(roomRequest);
+        logger.warn(entityName, "FALLBACK", "Fallback triggered for getAnimalsInRoom(" + key + "): " + ex.getMessage());
+        throw lastKnownGood.stale(AnimalsInRoomCache.NAME, key, ex);
+    }
+
+    /**
+     * Keyset variant of {@link #getAnimalsInRoom(RoomRequest)} for large rooms: continues after
+     * the {@code after} token instead of skipping pages and does not count the room.
+     */
+    public CursorPage<AnimalResponse> getAnimalsInRoomAfter(RoomRequest roomRequest) {
+        if (roomRequest.size() < 1)
+            throw new IllegalArgumentException("Page size must be at least 1");
+        List<Animal> animals = animalRepo.findByRoomIdAfter(roomRequest.roomId(), roomRequest.sort(),
+                roomRequest.order(), roomRequest.toCursor(), roomRequest.size() + 1);
+
+        String next = null;
+        if (animals.size() > roomRequest.size()) {
+            animals = animals.subList(0, roomRequest.size());
+            next = RoomCursor.of(roomRequest.sort(), roomRequest.order(), animals.getLast()).encode();
+        }
+        return new CursorPage<>(animals.stream().map(Mapper::toResponse).toList(), next);
+    }
+
+    private static List<String> idsOf(List<Animal> animals) {
+        return animals.stream().map(Animal::getId).toList();
+    }
+
+    /**
+     * Evicts the animals a bulk update wrote with {@code updated}, reading their ids in chunks.
+     */
+    private void evictUpdated(String roomId, Instant updated, long count) {
+        if (count == 0) return;
+        try (Stream<String> ids = animalRepo.streamIdsUpdatedAt(roomId, updated, BULK_CHUNK_SIZE)) {
+            Iterator<String> iterator = ids.iterator();
+            while (iterator.hasNext())
+                bulkCache.evictAll("animals", nextChunk(iterator));
+        }
+    }
+
+    private static <T> List<T> nextChunk(Iterator<T> iterator) {
+        List<T> chunk = new ArrayList<>(BULK_CHUNK_SIZE);
+        while (iterator.hasNext() && chunk.size() < BULK_CHUNK_SIZE)
+            chunk.add(iterator.next());
+        return chunk;
+    }
+
+    private RuntimeException notFoundOrModified(String id, Long version) {
+        return writeMissed(version, () -> animalRepo.existsById(id), () -> new AnimalNotFoundException("Animal not found"));
+    }
+
+    /**
+     * Undoes the animal side of a favorite change whose room write failed. If the undo fails as well,
+     * or the animal changed meanwhile, the animal and its rooms disagree until the favorites are set again.
+     * @param revert the inverse update on the animal, conditioned on the version it wrote
+     * @param cause the room write failure, which gets a failed undo attached as suppressed
+     */
+    private void revertFavorites(String animalId, Supplier<Animal> revert, RuntimeException cause) {
+        try {
+            if (revert.get() == null)
+                logger.warn(entityName, "FAVORITES", "Animal " + animalId + " changed before its favorites could be reverted");
+        } catch (RuntimeException e) {
+            cause.addSuppressed(e);
+            logger.warn(entityName, "FAVORITES", "Could not revert favorites of animal " + animalId + ": " + e.getMessage());
+        }
+    }
 
-        if (existingIds.size() != roomIds.size()) {
-            Set<String> missing = new HashSet<>(roomIds);
-            existingIds.forEach(missing::remove);
+    /**
+     * Verifies that all rooms exist, loading only their ids.
+     */
+    private void requireRooms(List<String> roomIds){
+        Set<String> missing = new HashSet<>(roomIds);
+        roomRepo.findIdsByIdIn(missing).forEach(room -> missing.remove(room.getId()));
+        if (!missing.isEmpty()) {
             throw new IllegalArgumentException("Invalid room IDs: " + missing);
         }
-        return existingRooms;
     }
 }
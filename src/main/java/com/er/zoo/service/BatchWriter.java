@@ -0,0 +1,211 @@
+package com.er.zoo.service;
+
+import com.er.zoo.dto.BatchOperation;
+import com.er.zoo.dto.BatchResult;
+import com.er.zoo.enums.BatchOperationType;
+import com.er.zoo.model.common.BaseDocument;
+import com.er.zoo.repository.BatchWrite;
+import com.er.zoo.repository.BatchWriteResult;
+import com.mongodb.ErrorCategory;
+import com.mongodb.bulk.BulkWriteError;
+import org.bson.types.ObjectId;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Runs the operations of a {@code :batch} request as one unordered bulk write.
+ * <p>
+ * The documents touched by updates and deletes are looked up first with one projection query:
+ * missing ones get 404 and a stale {@code If-Match} gets 412 without being written. Operations
+ * without {@code If-Match} are conditioned on the version just read, so every result carries the
+ * exact new version. All remaining writes then go out in a single bulk write.
+ * </p>
+ * <p>
+ * The bulk result only has totals. Only when fewer writes matched than were sent, because a
+ * concurrent writer got in between, are the documents read again. An update counts as applied
+ * if the document is at the next version and has this batch's {@code updated} timestamp.
+ * </p>
+ */
+final class BatchWriter<T extends BaseDocument> {
+
+    /**
+     * @param results one result per operation, in request order
+     * @param created documents inserted by the batch
+     * @param updated state before the write of the documents updated by the batch
+     * @param deleted state before the write of the documents deleted by the batch
+     */
+    record Outcome<T>(List<BatchResult> results, List<T> created, List<T> updated, List<T> deleted) {}
+
+    private final Function<Collection<String>, List<T>> findWriteState;
+    private final Function<List<BatchWrite<T>>, BatchWriteResult> write;
+    private final Function<String, Long> expectedVersion;
+    private final String notFoundMessage;
+
+    /**
+     * @param findWriteState  loads {@code _id}, {@code version} and {@code updated} of the given ids
+     * @param write           runs the writes as one unordered bulk write
+     * @param expectedVersion parses an {@code If-Match} value, {@code null} if absent
+     */
+    BatchWriter(Function<Collection<String>, List<T>> findWriteState,
+                Function<List<BatchWrite<T>>, BatchWriteResult> write,
+                Function<String, Long> expectedVersion,
+                String notFoundMessage) {
+        this.findWriteState = findWriteState;
+        this.write = write;
+        this.expectedVersion = expectedVersion;
+        this.notFoundMessage = notFoundMessage;
+    }
+
+    /**
+     * @param toDocument builds the document to insert ({@code CREATE}) or the fields to set ({@code UPDATE});
+     *                   throws {@link IllegalArgumentException} for an invalid operation
+     */
+    <O extends BatchOperation> Outcome<T> run(List<O> operations, Function<O, T> toDocument) {
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        BatchResult[] results = new BatchResult[operations.size()];
+
+        // position of the single update or delete of each id
+        Map<String, Integer> targets = new LinkedHashMap<>();
+        for (int i = 0; i < operations.size(); i++) {
+            O operation = operations.get(i);
+            if (operation.op() == BatchOperationType.CREATE) continue;
+            if (operation.id() == null || operation.id().isBlank())
+                results[i] = failed(i, HttpStatus.BAD_REQUEST, null, "id is required for " + operation.op());
+            else if (targets.putIfAbsent(operation.id(), i) != null)
+                results[i] = failed(i, HttpStatus.BAD_REQUEST, operation.id(), "id appears more than once in the batch");
+        }
+        Map<String, T> states = byId(findWriteState.apply(targets.keySet()));
+
+        List<BatchWrite<T>> writes = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+        List<T> previous = new ArrayList<>();
+        for (int i = 0; i < operations.size(); i++) {
+            if (results[i] != null) continue;
+            O operation = operations.get(i);
+            try {
+                if (operation.op() == BatchOperationType.CREATE) {
+                    T document = toDocument.apply(operation);
+                    document.setId(new ObjectId().toHexString());
+                    document.setVersion(0L);
+                    document.setCreated(now);
+                    document.setUpdated(now);
+                    writes.add(new BatchWrite<>(BatchOperationType.CREATE, document, 0));
+                    previous.add(null);
+                    positions.add(i);
+                    continue;
+                }
+                T state = states.get(operation.id());
+                if (state == null) {
+                    results[i] = failed(i, HttpStatus.NOT_FOUND, operation.id(), notFoundMessage);
+                    continue;
+                }
+                Long expected = expectedVersion.apply(operation.ifMatch());
+                if (expected != null && expected.longValue() != state.getVersion()) {
+                    results[i] = failed(i, HttpStatus.PRECONDITION_FAILED, operation.id(),
+                            "Entity has been modified by another user");
+                    continue;
+                }
+                T document = state;
+                if (operation.op() == BatchOperationType.UPDATE) {
+                    document = toDocument.apply(operation);
+                    document.setId(operation.id());
+                    document.setUpdated(now);
+                }
+                writes.add(new BatchWrite<>(operation.op(), document, state.getVersion()));
+                previous.add(state);
+                positions.add(i);
+            } catch (ResponseStatusException e) {
+                results[i] = failed(i, HttpStatus.valueOf(e.getStatusCode().value()), operation.id(), e.getReason());
+            } catch (IllegalArgumentException e) {
+                results[i] = failed(i, HttpStatus.BAD_REQUEST, operation.id(), e.getMessage());
+            }
+        }
+
+        BatchWriteResult result = write.apply(writes);
+        for (BulkWriteError error : result.errors()) {
+            int position = positions.get(error.getIndex());
+            results[position] = failed(position, ErrorCategory.fromErrorCode(error.getCode()) == ErrorCategory.DUPLICATE_KEY
+                    ? HttpStatus.CONFLICT : HttpStatus.INTERNAL_SERVER_ERROR,
+                    operations.get(position).id(), error.getMessage());
+        }
+
+        Map<String, T> after = lostWrites(writes, positions, results, result)
+                ? byId(findWriteState.apply(targets.keySet())) : null;
+        var created = new ArrayList<T>();
+        var updated = new ArrayList<T>();
+        var deleted = new ArrayList<T>();
+        for (int w = 0; w < writes.size(); w++) {
+            int i = positions.get(w);
+            if (results[i] != null) continue;
+            BatchWrite<T> applied = writes.get(w);
+            String id = applied.document().getId();
+            switch (applied.type()) {
+                case CREATE -> {
+                    results[i] = new BatchResult(i, HttpStatus.CREATED.value(), id, "0", null);
+                    created.add(applied.document());
+                }
+                case UPDATE -> {
+                    T current = after == null ? null : after.get(id);
+                    if (after != null && (current == null || current.getVersion() != applied.version() + 1
+                            || !now.equals(current.getUpdated()))) {
+                        results[i] = lost(i, id, current);
+                        continue;
+                    }
+                    results[i] = new BatchResult(i, HttpStatus.OK.value(), id, Long.toString(applied.version() + 1), null);
+                    updated.add(previous.get(w));
+                }
+                case DELETE -> {
+                    if (after != null && after.containsKey(id)) {
+                        results[i] = lost(i, id, after.get(id));
+                        continue;
+                    }
+                    results[i] = new BatchResult(i, HttpStatus.NO_CONTENT.value(), id, null, null);
+                    deleted.add(previous.get(w));
+                }
+            }
+        }
+        return new Outcome<>(List.of(results), created, updated, deleted);
+    }
+
+    /**
+     * Whether fewer updates or deletes matched than were sent without a write error.
+     */
+    private boolean lostWrites(List<BatchWrite<T>> writes, List<Integer> positions, BatchResult[] results,
+                               BatchWriteResult result) {
+        int updates = 0;
+        int deletes = 0;
+        for (int w = 0; w < writes.size(); w++) {
+            if (results[positions.get(w)] != null) continue;
+            switch (writes.get(w).type()) {
+                case UPDATE -> updates++;
+                case DELETE -> deletes++;
+                default -> { }
+            }
+        }
+        return result.matched() < updates || result.deleted() < deletes;
+    }
+
+    private BatchResult lost(int index, String id, T current) {
+        return current == null
+                ? failed(index, HttpStatus.NOT_FOUND, id, notFoundMessage)
+                : failed(index, HttpStatus.PRECONDITION_FAILED, id, "Entity has been modified by another user");
+    }
+
+    private static BatchResult failed(int index, HttpStatus status, String id, String error) {
+        return new BatchResult(index, status.value(), id, null, error);
+    }
+
+    private Map<String, T> byId(List<T> documents) {
+        return documents.stream().collect(Collectors.toMap(BaseDocument::getId, Function.identity()));
+    }
+}
@@ -0,0 +1,83 @@
+package com.er.zoo.service;
+
+import com.er.zoo.logging.LoggerService;
+import com.er.zoo.mapper.Mapper;
+import com.er.zoo.model.Animal;
+import com.er.zoo.model.Room;
+import com.er.zoo.repository.AnimalRepository;
+import com.er.zoo.repository.RoomRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Streams animals and rooms as NDJSON, one {@link com.er.zoo.dto.AnimalResponse} or
+ * {@link com.er.zoo.dto.RoomResponse} per line.
+ * <p>
+ * Documents are read from a Mongo cursor in batches of {@code zoo.export.batch-size}, written
+ * as they arrive and flushed after every batch, so memory use does not depend on the result size.
+ * </p>
+ */
+@Service
+public class ExportService {
+
+    private static final String ENTITY_NAME = "Export";
+
+    private final AnimalRepository animalRepo;
+    private final RoomRepository roomRepo;
+    private final ObjectWriter writer;
+    private final LoggerService logger;
+    private final int batchSize;
+
+    public ExportService(AnimalRepository animalRepo, RoomRepository roomRepo, ObjectMapper objectMapper,
+                         LoggerService logger, @Value("${zoo.export.batch-size:500}") int batchSize) {
+        if (batchSize < 1)
+            throw new IllegalArgumentException("zoo.export.batch-size must be at least 1");
+        this.animalRepo = animalRepo;
+        this.roomRepo = roomRepo;
+        this.writer = objectMapper.writer();
+        this.logger = logger;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * @return number of exported animals
+     */
+    public long exportAnimals(String roomId, Instant updatedSince, OutputStream out) throws IOException {
+        try (Stream<Animal> animals = animalRepo.streamAll(roomId, updatedSince, batchSize)) {
+            long count = write(animals.map(Mapper::toResponse).iterator(), out);
+            logger.info(ENTITY_NAME, "ANIMALS", "Exported " + count + " animals");
+            return count;
+        }
+    }
+
+    /**
+     * @return number of exported rooms
+     */
+    public long exportRooms(Instant updatedSince, OutputStream out) throws IOException {
+        try (Stream<Room> rooms = roomRepo.streamAll(updatedSince, batchSize)) {
+            long count = write(rooms.map(Mapper::toResponse).iterator(), out);
+            logger.info(ENTITY_NAME, "ROOMS", "Exported " + count + " rooms");
+            return count;
+        }
+    }
+
+    private long write(Iterator<?> rows, OutputStream out) throws IOException {
+        long count = 0;
+        while (rows.hasNext()) {
+            out.write(writer.writeValueAsBytes(rows.next()));
+            out.write('\n');
+            if (++count % batchSize == 0)
+                out.flush();
+        }
+        out.flush();
+        return count;
+    }
+}
@@ -1,7 +1,6 @@
 package com.er.zoo.service;
 
-import com.er.zoo.model.IdempotencyRecord;
-import com.er.zoo.repository.IdempotencyRepository;
+import com.er.zoo.idempotency.IdempotencyStore;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -9,20 +8,14 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class IdempotencyService {
 
-    private final IdempotencyRepository repository;
+    private final IdempotencyStore store;
 
     /**
-     * Tries to register a new idempotency key.
+     * Tries to register a new idempotency key with the configured {@link IdempotencyStore}.
+     * Backend failures are propagated rather than reported as duplicates.
      * @return true if successfully registered, false if key already exists.
      */
     public boolean registerKey(String key) {
-        try {
-            if(repository.existsById(key))
-                return false;
-            repository.save(new IdempotencyRecord(key));
-        } catch (Exception ex) {
-            return false;
-        }
-        return true;
+        return store.tryRegister(key);
     }
 }
@@ -0,0 +1,185 @@
+package com.er.zoo.service;
+
+import com.er.zoo.dto.AnimalCreateRequest;
+import com.er.zoo.dto.ImportLineResult;
+import com.er.zoo.dto.ImportLineResult.Status;
+import com.er.zoo.logging.LoggerService;
+import com.er.zoo.mapper.Mapper;
+import com.er.zoo.model.Animal;
+import com.er.zoo.repository.AnimalRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.mongodb.ErrorCategory;
+import com.mongodb.bulk.BulkWriteError;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Imports animals from an NDJSON stream, one {@link AnimalCreateRequest} per line.
+ * <p>
+ * Lines are parsed and validated one at a time and inserted in unordered batches of
+ * {@code zoo.import.batch-size}. After each batch, one {@link ImportLineResult} per line is written
+ * and flushed. The body is only read as fast as batches are written, which gives the client TCP
+ * backpressure, so memory is bounded by one batch whatever the size of the upload.
+ * </p>
+ * <p>
+ * The id of every animal is derived from the idempotency key and the line number. Repeating an
+ * import with the same key therefore creates nothing twice: lines that are already stored are
+ * reported as {@link Status#EXISTS}. An interrupted import can be resumed by sending it again.
+ * </p>
+ */
+@Service
+public class ImportService {
+
+    private static final String ENTITY_NAME = "Import";
+
+    private final AnimalRepository animalRepo;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter writer;
+    private final Validator validator;
+    private final LoggerService logger;
+    private final int batchSize;
+
+    public ImportService(AnimalRepository animalRepo, ObjectMapper objectMapper, Validator validator,
+                         LoggerService logger, @Value("${zoo.import.batch-size:1000}") int batchSize) {
+        if (batchSize < 1)
+            throw new IllegalArgumentException("zoo.import.batch-size must be at least 1");
+        this.animalRepo = animalRepo;
+        this.objectMapper = objectMapper;
+        this.writer = objectMapper.writer();
+        this.validator = validator;
+        this.logger = logger;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Reads the upload to its end and writes one result line per non-blank input line.
+     * @return number of lines per status
+     */
+    public Map<Status, Long> importAnimals(String idempotencyKey, InputStream in, OutputStream out) throws IOException {
+        if (idempotencyKey == null || idempotencyKey.isBlank())
+            throw new IllegalArgumentException("Idempotency-Key must not be blank");
+        var batch = new Batch(idempotencyKey, out);
+        var reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (!line.isBlank()) {
+                batch.add(lineNumber, line);
+            }
+        }
+        batch.flush();
+        logger.info(ENTITY_NAME, "ANIMALS", "Imported under key " + idempotencyKey + ": " + batch.totals);
+        return batch.totals;
+    }
+
+    /**
+     * Id of the animal on the given line: the first 12 bytes of SHA-256(key, line) as an ObjectId hex string.
+     */
+    static String animalId(String idempotencyKey, long lineNumber) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                    .digest((idempotencyKey + '\n' + lineNumber).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, 12);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Lines read since the last flush. Results are kept in line order; valid lines wait for the insert.
+     */
+    private final class Batch {
+        private final String idempotencyKey;
+        private final OutputStream out;
+        private final List<ImportLineResult> results = new ArrayList<>(batchSize);
+        private final List<Animal> animals = new ArrayList<>(batchSize);
+        // position in results of each animal
+        private final List<Integer> positions = new ArrayList<>(batchSize);
+        private final Map<Status, Long> totals = new EnumMap<>(Status.class);
+
+        private Batch(String idempotencyKey, OutputStream out) {
+            this.idempotencyKey = idempotencyKey;
+            this.out = out;
+        }
+
+        void add(long lineNumber, String line) throws IOException {
+            AnimalCreateRequest request;
+            try {
+                request = objectMapper.readValue(line, AnimalCreateRequest.class);
+            } catch (JsonProcessingException e) {
+                results.add(new ImportLineResult(lineNumber, Status.INVALID, null,
+                        Map.of("json", "Malformed JSON: " + e.getOriginalMessage())));
+                flushIfFull();
+                return;
+            }
+            var violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                results.add(new ImportLineResult(lineNumber, Status.INVALID, null, errors(violations)));
+                flushIfFull();
+                return;
+            }
+            Instant now = Instant.now();
+            Animal animal = Mapper.toEntity(request);
+            animal.setId(animalId(idempotencyKey, lineNumber));
+            animal.setVersion(0L);
+            animal.setCreated(now);
+            animal.setUpdated(now);
+            positions.add(results.size());
+            animals.add(animal);
+            results.add(new ImportLineResult(lineNumber, Status.CREATED, animal.getId(), null));
+            flushIfFull();
+        }
+
+        private void flushIfFull() throws IOException {
+            if (results.size() >= batchSize)
+                flush();
+        }
+
+        void flush() throws IOException {
+            for (BulkWriteError error : animalRepo.insertUnordered(animals)) {
+                int position = positions.get(error.getIndex());
+                ImportLineResult created = results.get(position);
+                results.set(position, ErrorCategory.fromErrorCode(error.getCode()) == ErrorCategory.DUPLICATE_KEY
+                        ? new ImportLineResult(created.line(), Status.EXISTS, created.id(), null)
+                        : new ImportLineResult(created.line(), Status.FAILED, null, Map.of("insert", error.getMessage())));
+            }
+            for (ImportLineResult result : results) {
+                out.write(writer.writeValueAsBytes(result));
+                out.write('\n');
+                totals.merge(result.status(), 1L, Long::sum);
+            }
+            out.flush();
+            results.clear();
+            animals.clear();
+            positions.clear();
+        }
+
+        private Map<String, String> errors(Set<ConstraintViolation<AnimalCreateRequest>> violations) {
+            return violations.stream().collect(Collectors.toMap(v -> v.getPropertyPath().toString(),
+                    ConstraintViolation::getMessage, (a, b) -> a + ", " + b, TreeMap::new));
+        }
+    }
+}
@@ -1,9 +1,16 @@
 package com.er.zoo.service;
 
+import com.er.zoo.cache.BulkCache;
+import com.er.zoo.cache.LastKnownGood;
+import com.er.zoo.dto.BatchResult;
 import com.er.zoo.dto.FavoriteRoomCount;
+import com.er.zoo.dto.MultiGetResponse;
+import com.er.zoo.dto.RoomBatchOperation;
 import com.er.zoo.dto.RoomCreateRequest;
 import com.er.zoo.dto.RoomResponse;
 import com.er.zoo.dto.RoomUpdateRequest;
+import com.er.zoo.enums.BatchOperationType;
+import com.er.zoo.exception.RoomNotFoundException;
 import com.er.zoo.logging.LoggerService;
 import com.er.zoo.mapper.Mapper;
 import com.er.zoo.model.Room;
@@ -11,12 +18,16 @@ import com.er.zoo.repository.RoomRepository;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import jakarta.validation.Validator;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service class for managing {@link Room} entities in the Zoo API.
@@ -34,54 +45,135 @@ import java.util.stream.Collectors;
 @Service
 public class RoomService extends ZooService{
     private final RoomRepository roomRepository;
+    private final BulkCache bulkCache;
+    private final LastKnownGood lastKnownGood;
+    private final Validator validator;
 
     public RoomService(RoomRepository roomRepository,
+                       BulkCache bulkCache,
+                       LastKnownGood lastKnownGood,
+                       Validator validator,
                        IdempotencyService idempotencyService,
                        LoggerService loggerService) {
         super(idempotencyService, loggerService);
         this.roomRepository = roomRepository;
+        this.bulkCache = bulkCache;
+        this.lastKnownGood = lastKnownGood;
+        this.validator = validator;
     }
 
-    public Room create(RoomCreateRequest request, String idempotencyKey) {
-        registerKey(idempotencyKey);
+    /**
+     * @param keyClaimed whether the key was already registered for this request, see {@link #registerKey}
+     */
+    public Room create(RoomCreateRequest request, String idempotencyKey, boolean keyClaimed) {
+        registerKey(idempotencyKey, keyClaimed);
         return roomRepository.save(Mapper.toEntity(request));
     }
-    @Cacheable(value = "rooms", key = "#id")
+    /**
+     * Creates, updates and deletes rooms with one unordered bulk write, see {@link BatchWriter}.
+     * A create is validated as a {@link RoomCreateRequest}; an update has to set the title.
+     * The {@code rooms} cache is written once for the whole batch: created rooms are put,
+     * updated and deleted ones evicted.
+     */
+    public List<BatchResult> batch(List<RoomBatchOperation> operations) {
+        BatchWriter<Room> batchWriter = new BatchWriter<>(roomRepository::findWriteStateByIdIn,
+                roomRepository::writeBatch, this::expectedVersion, "Room not found");
+        var outcome = batchWriter.run(operations, operation -> {
+            if (operation.op() == BatchOperationType.CREATE)
+                return Mapper.toEntity(validated(validator, new RoomCreateRequest(operation.title())));
+            if (operation.title() == null)
+                throw new IllegalArgumentException("title is required for UPDATE");
+            return new Room(operation.title());
+        });
+
+        bulkCache.putAll("rooms", outcome.created().stream()
+                .collect(Collectors.toMap(Room::getId, Mapper::toResponse)));
+        bulkCache.evictAll("rooms", Stream.concat(outcome.updated().stream(), outcome.deleted().stream())
+                .map(Room::getId).toList());
+        logger.info(entityName, "BATCH", String.format("Batch of %d: %d created, %d updated, %d deleted",
+                operations.size(), outcome.created().size(), outcome.updated().size(), outcome.deleted().size()));
+        return outcome.results();
+    }
+
+    /**
+     * Cache misses are loaded once per key, see {@link AnimalService#getAnimal(String)}.
+     * While Mongo is unavailable a miss is answered from {@link LastKnownGood}, see {@link #staleRoom}.
+     */
+    @Cacheable(value = "rooms", key = "#id", sync = true)
+    @CircuitBreaker(name = "roomService", fallbackMethod = "staleRoom")
     public RoomResponse getRoom(String id) { return Mapper.toResponse(get(id)); }
 
-    @CircuitBreaker(name = "roomService", fallbackMethod = "fallbackGetRoom")
-    public Room get(String id) { return roomRepository.findById(id).orElseThrow(() -> new IllegalArgumentException("Room not found")); }
+    /**
+     * Multi-get: cached rooms come from one {@code getAll} on the {@code rooms} cache, all misses
+     * from one {@code findAllById}, and the loaded rooms are cached in the same step.
+     */
+    public MultiGetResponse<RoomResponse> getRooms(List<String> ids) {
+        List<String> distinct = multiGetIds(ids);
+        Map<String, RoomResponse> found = bulkCache.getAll("rooms", distinct, misses ->
+                roomRepository.findAllById(misses).stream()
+                        .collect(Collectors.toMap(Room::getId, Mapper::toResponse)));
+        return MultiGetResponse.of(distinct, found);
+    }
+
+    /**
+     * Version of the room read through an {@code _id} + {@code version} projection, for conditional GETs.
+     * Runs behind the same circuit breaker as {@link #getRoom(String)}, see {@link #unknownVersion}.
+     * @return the version, empty if it could not be read
+     */
+    @CircuitBreaker(name = "roomService", fallbackMethod = "unknownVersion")
+    public Optional<Long> currentVersion(String id) {
+        return Optional.of(roomRepository.findVersionById(id).orElseThrow(() -> new RoomNotFoundException("Room not found")));
+    }
+
+    public Room get(String id) { return roomRepository.findById(id).orElseThrow(() -> new RoomNotFoundException("Room not found")); }
 
     // --- Fallback method ---
-    public Room fallbackGetRoom(String id, Throwable ex) {
-        logger.info("RoomService","fallbackGetRoom", "Fallback triggered for get(" + id + "): " + ex.getMessage());
-        Room placeholder = new Room();
-        placeholder.setId(id);
-        placeholder.setTitle("Unavailable Room");
-        return placeholder;
+    // throws instead of returning, so the stale room reaches the client without being cached
+    private RoomResponse staleRoom(String id, Throwable ex) {
+        logger.warn(entityName, "FALLBACK", "Fallback triggered for getRoom(" + id + "): " + ex.getMessage());
+        throw lastKnownGood.stale("rooms", id, ex);
+    }
+
+    // a failed version lookup only skips the 304: the full read may still be answered stale
+    private Optional<Long> unknownVersion(String id, Throwable ex) {
+        if (ex instanceof RoomNotFoundException notFound)
+            throw notFound;
+        logger.warn(entityName, "FALLBACK", "Fallback triggered for currentVersion(" + id + "): " + ex.getMessage());
+        return Optional.empty();
     }
 
+    /**
+     * Updates with one conditional {@code findAndModify}: no read, and favorite references and
+     * counters maintained by other writers are not overwritten.
+     */
     @CachePut(value = "rooms", key = "#id")
     public RoomResponse update(String id, RoomUpdateRequest updateRequest, String ifMatch) {
-        var room = get(id);
-        validateIfMatch(room.getVersion(),ifMatch);
-        if(updateRequest.title()!= null)
-            room.setTitle(updateRequest.title());
-        return Mapper.toResponse(roomRepository.save(room));
+        Long version = expectedVersion(ifMatch);
+        var room = roomRepository.updateTitle(id, version, updateRequest.title());
+        if (room == null)
+            throw notFoundOrModified(id, version);
+        return Mapper.toResponse(room);
     }
 
     @CacheEvict(value = "rooms", key = "#id")
     public void delete(String id, String ifMatch) {
-        var room = get(id);
-        validateIfMatch(room.getVersion(),ifMatch);
-        roomRepository.deleteById(id);
+        Long version = expectedVersion(ifMatch);
+        if (!roomRepository.deleteVersioned(id, version))
+            throw notFoundOrModified(id, version);
+    }
+
+    private RuntimeException notFoundOrModified(String id, Long version) {
+        return writeMissed(version, () -> roomRepository.existsById(id), () -> new RoomNotFoundException("Room not found"));
     }
 
 
-    @Transactional(readOnly = true)
-    public List<FavoriteRoomCount> favoriteRoomCounts() {
-        return roomRepository.findFavoriteRoomsWithCounts().stream()
-                .map(p -> new FavoriteRoomCount(p.title(), p.favCount()))
+    /**
+     * Rooms favorited by at least one animal, most favorited first.
+     */
+    public List<FavoriteRoomCount> favoriteRoomCounts(int page, int size) {
+        var pageable = PageRequest.of(page, size, RoomRepository.FAVORITE_ORDER);
+        return roomRepository.findFavoriteRooms(pageable).stream()
+                .map(room -> new FavoriteRoomCount(room.getTitle(), room.getFavoriteCount()))
                 .collect(Collectors.toList());
     }
 }
@@ -2,10 +2,20 @@ package com.er.zoo.service;
 
 import com.er.zoo.exception.DuplicateRequestException;
 import com.er.zoo.logging.LoggerService;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.List;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
 public abstract class ZooService {
+    public static final int MAX_MULTI_GET_IDS = 200;
+
     protected final IdempotencyService idempotencyService;
     protected final LoggerService logger;
     protected final String entityName;
@@ -17,7 +27,14 @@ public abstract class ZooService {
         this.entityName = getClass().getSimpleName();
     }
 
-    protected void registerKey(String idempotencyKey){
+    /**
+     * Registers the idempotency key of a create.
+     * @param claimed whether the caller already registered the key, as the {@code IdempotencyFilter} does
+     *                for the create endpoints; the key is then not registered again
+     */
+    protected void registerKey(String idempotencyKey, boolean claimed){
+        if (claimed)
+            return;
         boolean registered = idempotencyService.registerKey(idempotencyKey);
         if (!registered) {
             logger.warn(entityName,"CREATE", "Duplicate idempotency key: " + idempotencyKey);
@@ -25,6 +42,32 @@ public abstract class ZooService {
         }
     }
 
+    /**
+     * Validates the ids of a multi-get.
+     * @return the ids without duplicates, in request order
+     */
+    protected List<String> multiGetIds(List<String> ids) {
+        List<String> distinct = ids.stream().filter(id -> !id.isBlank()).distinct().toList();
+        if (distinct.isEmpty() || distinct.size() > MAX_MULTI_GET_IDS)
+            throw new IllegalArgumentException("Between 1 and " + MAX_MULTI_GET_IDS + " ids are required");
+        return distinct;
+    }
+
+    /**
+     * Validates a request built from one operation of a batch, whose items {@code @Valid} does not reach.
+     * @return the request
+     * @throws IllegalArgumentException naming the violated constraints, reported as a 400 result for that operation
+     */
+    protected static <R> R validated(Validator validator, R request) {
+        Set<ConstraintViolation<R>> violations = validator.validate(request);
+        if (!violations.isEmpty())
+            throw new IllegalArgumentException(violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+        return request;
+    }
+
     /**
      * Check version match via ETag / If-Match
      * @param currentVersion current entity version
@@ -32,13 +75,7 @@ public abstract class ZooService {
      */
     public void validateIfMatch(Long currentVersion,String ifMatch){
         if (ifMatch != null) {
-            long clientVersion;
-            try {
-                clientVersion = Long.parseLong(ifMatch.replace("\"", ""));
-
-            } catch (NumberFormatException e) {
-                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid ETag format");
-            }
+            long clientVersion = expectedVersion(ifMatch);
 
             if (!clientVersionEquals(currentVersion, clientVersion)) {
                 logger.warn(entityName, "CONCURRENCY",
@@ -50,6 +87,52 @@ public abstract class ZooService {
         }
     }
 
+    /**
+     * Checks the result of a write that was conditioned on the entity version.
+     * @param updated the written entity, {@code null} if the version no longer matched
+     */
+    protected <T> T versionChecked(T updated){
+        if (updated == null) {
+            logger.warn(entityName, "CONCURRENCY", "Version changed during conditional update");
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED,
+                    "Entity has been modified by another user");
+        }
+        return updated;
+    }
+
+    /**
+     * Parses the {@code If-Match} header into the version a conditional write has to match.
+     * @param ifMatch client version, may be {@code null}
+     * @return the expected version, {@code null} if no {@code If-Match} was sent
+     */
+    protected Long expectedVersion(String ifMatch){
+        if (ifMatch == null)
+            return null;
+        try {
+            return Long.parseLong(ifMatch.replace("\"", ""));
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid ETag format");
+        }
+    }
+
+    /**
+     * Explains a write on {@code {_id, version}} that matched nothing. Only this path costs a
+     * second round trip, to tell a missing entity (404) from a version conflict (412).
+     * @param expectedVersion the version the write was conditioned on, {@code null} if none
+     * @param exists checks whether the entity still exists
+     * @param notFound exception for a missing entity
+     * @return the exception to throw
+     */
+    protected RuntimeException writeMissed(Long expectedVersion, BooleanSupplier exists,
+                                           Supplier<? extends RuntimeException> notFound){
+        if (expectedVersion != null && exists.getAsBoolean()) {
+            logger.warn(entityName, "CONCURRENCY", "Version changed, expected " + expectedVersion);
+            return new ResponseStatusException(HttpStatus.PRECONDITION_FAILED,
+                    "Entity has been modified by another user");
+        }
+        return notFound.get();
+    }
+
     private boolean clientVersionEquals(Long server, long client) {
         return server != null && server == client;
     }
@@ -0,0 +1,84 @@
+package com.er.zoo.slowquery;
+
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Summary of an {@code explain} in {@code executionStats} verbosity.
+ *
+ * @param stages        stages of the winning plan, outermost first ({@code FETCH}, {@code IXSCAN}, {@code COLLSCAN}, ...)
+ * @param docsExamined  documents the query read
+ * @param keysExamined  index keys the query read
+ * @param returned      documents the query returned
+ * @param explainedAt   when the plan was taken
+ */
+public record QueryPlan(List<String> stages, long docsExamined, long keysExamined, long returned, Instant explainedAt) {
+
+    public boolean collectionScan() {
+        return stages.contains("COLLSCAN");
+    }
+
+    /**
+     * Whether the results are sorted in memory rather than read in index order.
+     */
+    public boolean inMemorySort() {
+        return stages.contains("SORT");
+    }
+
+    public static QueryPlan from(BsonDocument explain, Instant explainedAt) {
+        List<String> stages = new ArrayList<>();
+        BsonDocument winningPlan = find(explain, "winningPlan");
+        if (winningPlan != null)
+            collectStages(winningPlan, stages);
+        BsonDocument stats = find(explain, "executionStats");
+        return new QueryPlan(List.copyOf(stages),
+                number(stats, "totalDocsExamined"),
+                number(stats, "totalKeysExamined"),
+                number(stats, "nReturned"),
+                explainedAt);
+    }
+
+    /**
+     * First sub-document named {@code key}, searched depth first; for aggregations it sits inside
+     * the {@code $cursor} stage rather than at the top.
+     */
+    private static BsonDocument find(BsonValue value, String key) {
+        if (value.isDocument()) {
+            for (var entry : value.asDocument().entrySet()) {
+                if (entry.getKey().equals(key) && entry.getValue().isDocument())
+                    return entry.getValue().asDocument();
+                if (entry.getKey().equals("rejectedPlans")) continue;
+                BsonDocument found = find(entry.getValue(), key);
+                if (found != null) return found;
+            }
+        } else if (value.isArray()) {
+            for (BsonValue element : value.asArray()) {
+                BsonDocument found = find(element, key);
+                if (found != null) return found;
+            }
+        }
+        return null;
+    }
+
+    private static void collectStages(BsonValue value, List<String> stages) {
+        if (value.isDocument()) {
+            value.asDocument().forEach((key, child) -> {
+                if (key.equals("stage") && child.isString())
+                    stages.add(child.asString().getValue());
+                else
+                    collectStages(child, stages);
+            });
+        } else if (value.isArray()) {
+            value.asArray().forEach(element -> collectStages(element, stages));
+        }
+    }
+
+    private static long number(BsonDocument document, String key) {
+        if (document == null || !document.containsKey(key) || !document.get(key).isNumber()) return -1;
+        return document.get(key).asNumber().longValue();
+    }
+}
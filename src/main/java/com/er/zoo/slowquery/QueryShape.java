@@ -0,0 +1,74 @@
+package com.er.zoo.slowquery;
+
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A Mongo command with its literal values replaced by {@code "?"}, so that executions differing
+ * only in ids, titles or dates count as one query.
+ * <p>
+ * Field names, operators, {@code $field} references and sort directions are kept: they decide
+ * which index can serve the query.
+ * </p>
+ *
+ * @param database   database the command ran on
+ * @param collection collection the command targets
+ * @param command    command name ({@code find}, {@code aggregate}, ...)
+ * @param shape      the normalized query as extended JSON; identifies the shape
+ */
+public record QueryShape(String database, String collection, String command, String shape) {
+
+    /** Commands that read or match documents and that {@code explain} accepts. */
+    static final Set<String> EXPLAINABLE = Set.of("find", "aggregate", "count", "distinct", "update", "delete", "findAndModify");
+
+    // parts of each command that determine its plan, with whether their values are literals
+    private static final Map<String, Map<String, Boolean>> PARTS = Map.of(
+            "find", Map.of("filter", true, "sort", false, "projection", false),
+            "aggregate", Map.of("pipeline", true),
+            "count", Map.of("query", true),
+            "distinct", Map.of("key", false, "query", true),
+            "update", Map.of("updates", true),
+            "delete", Map.of("deletes", true),
+            "findAndModify", Map.of("query", true, "sort", false));
+
+    private static final BsonString PLACEHOLDER = new BsonString("?");
+
+    static QueryShape of(String database, String commandName, BsonDocument command) {
+        BsonDocument shape = new BsonDocument();
+        PARTS.getOrDefault(commandName, Map.of()).forEach((part, literal) -> {
+            if (command.containsKey(part))
+                shape.put(part, literal ? normalize(part, command.get(part)) : command.get(part));
+        });
+        BsonValue target = command.get(commandName);
+        String collection = target != null && target.isString() ? target.asString().getValue() : null;
+        return new QueryShape(database, collection, commandName, shape.toJson());
+    }
+
+    private static BsonValue normalize(String key, BsonValue value) {
+        if (value.isDocument()) {
+            BsonDocument normalized = new BsonDocument();
+            value.asDocument().forEach((k, v) ->
+                    normalized.put(k, "$sort".equals(k) || "sort".equals(k) ? v : normalize(k, v)));
+            return normalized;
+        }
+        if (value.isArray()) {
+            BsonArray array = value.asArray();
+            // pipelines, $and/$or branches and the statements of update/delete have a shape of their own
+            if (!array.isEmpty() && array.stream().allMatch(BsonValue::isDocument)
+                    && (key.startsWith("$") || PARTS.values().stream().anyMatch(parts -> parts.containsKey(key)))) {
+                BsonArray normalized = new BsonArray();
+                array.forEach(element -> normalized.add(normalize(key, element)));
+                return normalized;
+            }
+            return PLACEHOLDER;
+        }
+        if (value.isString() && value.asString().getValue().startsWith("$"))
+            return value;
+        return PLACEHOLDER;
+    }
+}
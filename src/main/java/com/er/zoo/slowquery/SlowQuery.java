@@ -0,0 +1,24 @@
+package com.er.zoo.slowquery;
+
+import java.time.Instant;
+
+/**
+ * One query shape in the slow-query log.
+ *
+ * @param shape      the normalized query
+ * @param count      slow executions seen since the shape entered the log
+ * @param maxMillis  slowest execution
+ * @param lastMillis most recent slow execution
+ * @param lastSeen   when the most recent slow execution finished
+ * @param plan       the latest sampled plan, {@code null} until the shape has been explained
+ */
+public record SlowQuery(QueryShape shape, long count, double maxMillis, double lastMillis, Instant lastSeen, QueryPlan plan) {
+
+    SlowQuery record(double millis, Instant at) {
+        return new SlowQuery(shape, count + 1, Math.max(maxMillis, millis), millis, at, plan);
+    }
+
+    SlowQuery withPlan(QueryPlan plan) {
+        return new SlowQuery(shape, count, maxMillis, lastMillis, lastSeen, plan);
+    }
+}
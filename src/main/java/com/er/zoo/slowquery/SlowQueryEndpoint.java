@@ -0,0 +1,31 @@
+package com.er.zoo.slowquery;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.List;
+
+/**
+ * {@code /actuator/slowqueries}: {@code GET} lists the slowest query shapes with their sampled
+ * plans, slowest first; {@code DELETE} empties the log, e.g. after adding an index.
+ */
+@Endpoint(id = "slowqueries")
+public class SlowQueryEndpoint {
+
+    private final SlowQueryLog log;
+
+    public SlowQueryEndpoint(SlowQueryLog log) {
+        this.log = log;
+    }
+
+    @ReadOperation
+    public List<SlowQuery> slowQueries() {
+        return log.slowest();
+    }
+
+    @DeleteOperation
+    public void clear() {
+        log.clear();
+    }
+}
@@ -0,0 +1,119 @@
+package com.er.zoo.slowquery;
+
+import com.er.zoo.logging.LoggerService;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+/**
+ * Mongo {@link CommandListener} feeding the {@link SlowQueryLog}.
+ * <p>
+ * The commands that {@code explain} accepts are kept from start to completion. The driver only
+ * lends the command document for the duration of the callback and reuses its buffer afterwards,
+ * so it is copied, with one flat byte copy, for every such command; hence the listener is opt-in. When one of them
+ * takes at least {@code zoo.slow-query.threshold}, its shape is recorded and, for a sampled share
+ * of slow executions and at most once per {@code explain-interval} and shape, the command is
+ * explained with {@code executionStats} on a single background thread. The explain never runs on
+ * the thread that issued the slow command, and explains that cannot be queued are skipped.
+ * </p>
+ */
+public class SlowQueryListener implements CommandListener, AutoCloseable {
+
+    private static final String ENTITY_NAME = "Mongo";
+    // session, transaction and routing fields that explain rejects or that do not belong to the query
+    private static final Set<String> NOT_EXPLAINED = Set.of("lsid", "txnNumber", "autocommit", "startTransaction",
+            "readConcern", "writeConcern", "apiVersion", "apiStrict", "apiDeprecationErrors");
+
+    private record Started(String database, BsonDocument command) {}
+
+    private final SlowQueryProperties properties;
+    private final SlowQueryLog log;
+    private final BiFunction<String, BsonDocument, BsonDocument> explainer;
+    private final LoggerService logger;
+    private final Clock clock;
+    private final ConcurrentMap<Integer, Started> running = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor explains = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(16), runnable -> {
+                Thread thread = new Thread(runnable, "slow-query-explain");
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.DiscardPolicy());
+
+    /**
+     * @param explainer runs a command document on the given database and returns the reply
+     */
+    public SlowQueryListener(SlowQueryProperties properties, SlowQueryLog log,
+                             BiFunction<String, BsonDocument, BsonDocument> explainer,
+                             LoggerService logger, Clock clock) {
+        this.properties = properties;
+        this.log = log;
+        this.explainer = explainer;
+        this.logger = logger;
+        this.clock = clock;
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        if (QueryShape.EXPLAINABLE.contains(event.getCommandName()))
+            running.put(event.getRequestId(), new Started(event.getDatabaseName(), event.getCommand().clone()));
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        Started started = running.remove(event.getRequestId());
+        if (started == null) return;
+        long nanos = event.getElapsedTime(TimeUnit.NANOSECONDS);
+        if (nanos < properties.threshold().toNanos()) return;
+
+        double millis = nanos / 1_000_000.0;
+        Instant now = clock.instant();
+        QueryShape shape = QueryShape.of(started.database(), event.getCommandName(), started.command());
+        logger.warn(ENTITY_NAME, "SLOW_QUERY", String.format("%s on %s took %.1f ms: %s",
+                shape.command(), shape.collection(), millis, shape.shape()));
+        if (log.record(shape, millis, now) && log.needsPlan(shape, properties.explainInterval(), now)
+                && ThreadLocalRandom.current().nextDouble() < properties.sampleRate()) {
+            explains.execute(() -> explain(shape, started));
+        }
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        running.remove(event.getRequestId());
+    }
+
+    private void explain(QueryShape shape, Started started) {
+        // another sample of the same shape may have been explained while this one waited
+        if (!log.needsPlan(shape, properties.explainInterval(), clock.instant())) return;
+        BsonDocument command = new BsonDocument();
+        started.command().forEach((key, value) -> {
+            if (!key.startsWith("$") && !NOT_EXPLAINED.contains(key))
+                command.put(key, value);
+        });
+        try {
+            BsonDocument reply = explainer.apply(started.database(),
+                    new BsonDocument("explain", command).append("verbosity", new BsonString("executionStats")));
+            log.attach(shape, QueryPlan.from(reply, clock.instant()));
+        } catch (RuntimeException e) {
+            logger.warn(ENTITY_NAME, "EXPLAIN", "Could not explain " + shape.shape() + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        explains.shutdownNow();
+    }
+}
@@ -0,0 +1,104 @@
+package com.er.zoo.slowquery;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded log of the slowest query shapes.
+ * <p>
+ * Holds at most {@code capacity} shapes. A shape already in the log is updated in place; a new
+ * shape replaces the one with the lowest {@code maxMillis} if it was slower, and is dropped otherwise.
+ * Only commands over the threshold get here, so a lock is cheap enough. It is a {@link ReentrantLock}
+ * rather than {@code synchronized} because {@link #record} runs on request threads, which may be virtual.
+ * </p>
+ */
+public class SlowQueryLog {
+
+    private final int capacity;
+    private final Map<String, SlowQuery> queries = new HashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public SlowQueryLog(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Records one slow execution.
+     * @return whether the shape is in the log afterwards
+     */
+    public boolean record(QueryShape shape, double millis, Instant at) {
+        lock.lock();
+        try {
+            String id = id(shape);
+            SlowQuery current = queries.get(id);
+            if (current != null) {
+                queries.put(id, current.record(millis, at));
+                return true;
+            }
+            if (queries.size() >= capacity) {
+                SlowQuery fastest = queries.values().stream().min(Comparator.comparingDouble(SlowQuery::maxMillis)).orElseThrow();
+                if (fastest.maxMillis() >= millis)
+                    return false;
+                queries.remove(id(fastest.shape()));
+            }
+            queries.put(id, new SlowQuery(shape, 1, millis, millis, at, null));
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Whether the shape has no plan yet, or one older than {@code interval}.
+     */
+    public boolean needsPlan(QueryShape shape, Duration interval, Instant now) {
+        lock.lock();
+        try {
+            SlowQuery query = queries.get(id(shape));
+            return query != null && (query.plan() == null || query.plan().explainedAt().plus(interval).isBefore(now));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void attach(QueryShape shape, QueryPlan plan) {
+        lock.lock();
+        try {
+            queries.computeIfPresent(id(shape), (id, query) -> query.withPlan(plan));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the logged shapes, slowest first
+     */
+    public List<SlowQuery> slowest() {
+        lock.lock();
+        try {
+            return queries.values().stream()
+                    .sorted(Comparator.comparingDouble(SlowQuery::maxMillis).reversed())
+                    .toList();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            queries.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static String id(QueryShape shape) {
+        return shape.database() + "." + shape.collection() + "." + shape.command() + shape.shape();
+    }
+}
@@ -0,0 +1,28 @@
+package com.er.zoo.slowquery;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the slow-query log, bound from {@code zoo.slow-query}.
+ *
+ * @param threshold       commands taking at least this long are recorded
+ * @param sampleRate      share of slow commands, between 0 and 1, that may trigger an {@code explain}
+ * @param explainInterval a query shape is explained again at most this often
+ * @param capacity        number of query shapes kept; the fastest one makes room for a slower newcomer
+ */
+@ConfigurationProperties("zoo.slow-query")
+public record SlowQueryProperties(Duration threshold, Double sampleRate, Duration explainInterval, Integer capacity) {
+
+    public SlowQueryProperties {
+        if (threshold == null) threshold = Duration.ofMillis(100);
+        if (sampleRate == null) sampleRate = 0.1;
+        if (explainInterval == null) explainInterval = Duration.ofMinutes(10);
+        if (capacity == null) capacity = 50;
+        if (sampleRate < 0 || sampleRate > 1)
+            throw new IllegalArgumentException("zoo.slow-query.sample-rate must be between 0 and 1");
+        if (capacity < 1)
+            throw new IllegalArgumentException("zoo.slow-query.capacity must be at least 1");
+    }
+}
@@ -1,7 +1,13 @@
 package com.er.zoo;
 
+import com.er.zoo.dto.AnimalFilter;
+import com.er.zoo.enums.BatchOperationType;
 import com.er.zoo.model.Animal;
 import com.er.zoo.repository.AnimalRepository;
+import com.er.zoo.repository.BatchWrite;
+import com.er.zoo.repository.BatchWriteResult;
+import com.mongodb.bulk.BulkWriteError;
+import org.bson.types.ObjectId;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -12,7 +18,12 @@ import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
 
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -44,5 +55,117 @@ class AnimalRepositoryIT {
         assertNotNull(saved.getUpdated());
         assertTrue(animalRepository.findById(a.getId()).isPresent());
     }
-}
 
+    @Test
+    void shouldUpdateOnlyWhenVersionMatches() {
+        Animal saved = animalRepository.save(new Animal("Elephant", LocalDate.now()));
+
+        Animal updated = animalRepository.updateFields(saved.getId(), 0L, "Mammoth", null);
+        assertEquals("Mammoth", updated.getTitle());
+        assertEquals(1L, updated.getVersion());
+        assertEquals(saved.getLocated(), updated.getLocated());
+
+        assertNull(animalRepository.updateFields(saved.getId(), 0L, "Stale", null));
+        assertNull(animalRepository.updateFields("missing", null, "Ghost", null));
+
+        var move = animalRepository.moveToRoom(saved.getId(), 1L, "R2");
+        assertNull(move.previousRoomId());
+        assertEquals("R2", move.animal().getRoomId());
+        assertEquals(2L, move.animal().getVersion());
+        Animal moved = animalRepository.findById(saved.getId()).orElseThrow();
+        assertEquals(move.animal().getVersion(), moved.getVersion());
+        assertEquals(move.animal().getUpdated(), moved.getUpdated());
+
+        assertNull(animalRepository.removeFromRoom(saved.getId(), 2L, "R1"));
+        assertNull(animalRepository.removeFromRoom(saved.getId(), 2L, "R2").getRoomId());
+
+        assertNull(animalRepository.deleteVersioned(saved.getId(), 2L));
+        assertNotNull(animalRepository.deleteVersioned(saved.getId(), 3L));
+        assertFalse(animalRepository.existsById(saved.getId()));
+    }
+
+    @Test
+    void shouldStreamWithRoomAndUpdatedSinceFilters() {
+        animalRepository.deleteAll();
+        Animal inRoom = new Animal("Zebra", LocalDate.now());
+        inRoom.setRoomId("R1");
+        animalRepository.save(inRoom);
+        Animal elsewhere = new Animal("Yak", LocalDate.now());
+        elsewhere.setRoomId("R2");
+        animalRepository.save(elsewhere);
+
+        try (var animals = animalRepository.streamAll("R1", null, 1)) {
+            assertEquals(List.of("Zebra"), animals.map(Animal::getTitle).toList());
+        }
+        try (var animals = animalRepository.streamAll(null, elsewhere.getUpdated(), 1)) {
+            assertEquals(List.of("Yak"), animals.map(Animal::getTitle).toList());
+        }
+    }
+
+    @Test
+    void shouldWriteBatchConditionedOnVersion() {
+        Animal kept = animalRepository.save(new Animal("Koala", LocalDate.now()));
+        Animal removed = animalRepository.save(new Animal("Dodo", LocalDate.now()));
+        Animal created = new Animal("Okapi", LocalDate.now());
+        created.setId(new ObjectId().toHexString());
+        created.setVersion(0L);
+        Animal update = new Animal("Wombat", null);
+        update.setId(kept.getId());
+        update.setUpdated(Instant.now());
+        Animal delete = new Animal();
+        delete.setId(removed.getId());
+
+        BatchWriteResult result = animalRepository.writeBatch(List.of(
+                new BatchWrite<>(BatchOperationType.CREATE, created, 0),
+                new BatchWrite<>(BatchOperationType.UPDATE, update, 0),
+                new BatchWrite<>(BatchOperationType.DELETE, delete, 7),
+                new BatchWrite<>(BatchOperationType.CREATE, created, 0)));
+
+        assertEquals(1, result.matched());
+        assertEquals(0, result.deleted());
+        assertEquals(List.of(3), result.errors().stream().map(BulkWriteError::getIndex).toList());
+        Animal written = animalRepository.findById(kept.getId()).orElseThrow();
+        assertEquals("Wombat", written.getTitle());
+        assertEquals(kept.getLocated(), written.getLocated());
+        assertEquals(1L, written.getVersion());
+        assertTrue(animalRepository.existsById(created.getId()));
+        assertEquals(List.of(0L), animalRepository.findWriteStateByIdIn(List.of(removed.getId())).stream()
+                .map(Animal::getVersion).toList());
+    }
+
+    @Test
+    void shouldMoveUnassignAndDeleteInBulk() {
+        animalRepository.deleteAll();
+        Animal old = new Animal("Mammoth", LocalDate.parse("1900-01-01"));
+        old.setRoomId("A");
+        Animal young = new Animal("Calf", LocalDate.now());
+        young.setRoomId("A");
+        animalRepository.saveAll(List.of(old, young));
+
+        Instant moved = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        assertEquals(2, animalRepository.moveAll("A", "B", moved));
+        assertEquals(0, animalRepository.moveAll("A", "B", moved));
+        assertEquals(1L, animalRepository.findById(old.getId()).orElseThrow().getVersion());
+        try (var ids = animalRepository.streamIdsUpdatedAt("B", moved, 1)) {
+            assertEquals(Set.of(old.getId(), young.getId()), ids.collect(Collectors.toSet()));
+        }
+
+        var filter = new AnimalFilter("B", null, LocalDate.parse("2000-01-01"));
+        List<String> toDelete;
+        try (var matching = animalRepository.streamWriteStateBy(filter, 10)) {
+            toDelete = matching.map(Animal::getId).toList();
+        }
+        assertEquals(List.of(old.getId()), toDelete);
+        // the young animal does not match the filter and is not deleted
+        assertEquals(Set.of(old.getId()), animalRepository.deleteAll(List.of(old.getId(), young.getId()), filter));
+
+        Instant unassignedAt = moved.plusMillis(1);
+        assertEquals(1, animalRepository.unassignAll("B", unassignedAt));
+        try (var ids = animalRepository.streamIdsUpdatedAt(null, unassignedAt, 10)) {
+            assertEquals(List.of(young.getId()), ids.toList());
+        }
+        Animal unassigned = animalRepository.findById(young.getId()).orElseThrow();
+        assertNull(unassigned.getRoomId());
+        assertEquals(2L, unassigned.getVersion());
+    }
+}
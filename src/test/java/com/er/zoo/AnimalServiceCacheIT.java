@@ -1,16 +1,24 @@
 package com.er.zoo;
 
+import com.er.zoo.cache.AnimalsInRoomCache;
 import com.er.zoo.dto.AnimalResponse;
 import com.er.zoo.dto.AnimalUpdateRequest;
 import com.er.zoo.dto.RoomRequest;
 import com.er.zoo.enums.SortField;
+import com.er.zoo.exception.AnimalNotFoundException;
+import com.er.zoo.exception.StaleResponseException;
 import com.er.zoo.model.Animal;
+import com.er.zoo.model.Room;
 
 import com.er.zoo.repository.AnimalRepository;
+import com.er.zoo.repository.AnimalRepositoryCustom;
 import com.er.zoo.repository.RoomRepository;
 import com.er.zoo.logging.LoggerService;
 import com.er.zoo.service.AnimalService;
 import com.er.zoo.service.IdempotencyService;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -21,13 +29,24 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.data.domain.*;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
-
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
 @SpringBootTest
@@ -55,6 +74,17 @@ class AnimalServiceCacheIT {
     @Autowired
     private CacheManager cacheManager;
 
+    @Autowired
+    private CircuitBreakerRegistry circuitBreakers;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void closeCircuit() {
+        circuitBreakers.circuitBreaker("animalService").reset();
+    }
+
     @BeforeEach
     void clearCache() {
         cacheManager.getCacheNames().forEach(n -> Objects.requireNonNull(cacheManager.getCache(n)).clear());
@@ -93,12 +123,14 @@ class AnimalServiceCacheIT {
         animalService.getAnimal("a2");
         verify(animalRepo, times(1)).findById("a2");
 
+        when(animalRepo.deleteVersioned("a2", 1L)).thenReturn(animal);
+
         // Delete should evict cache
         animalService.delete("a2", String.valueOf(1L));
 
         // Fetch again should re-hit DB
         animalService.getAnimal("a2");
-        verify(animalRepo, times(3)).findById("a2");
+        verify(animalRepo, times(2)).findById("a2");
     }
 
     @Test
@@ -116,7 +148,7 @@ class AnimalServiceCacheIT {
 
 
         when(animalRepo.findById("a3")).thenReturn(Optional.of(existing));
-        when(animalRepo.save(ArgumentMatchers.any(Animal.class))).thenReturn(updated);
+        when(animalRepo.updateFields("a3", 1L, "Updated Tiger", null)).thenReturn(updated);
 
         // Cache initial
         animalService.getAnimal("a3");
@@ -126,10 +158,32 @@ class AnimalServiceCacheIT {
 
         // Fetch again - should return new title from updated object (not old cache)
         AnimalResponse response = animalService.getAnimal("a3");
-        verify(animalRepo, atLeastOnce()).save(any());
+        verify(animalRepo, never()).save(any());
         assert response.title().equals("Updated Tiger");
     }
 
+    @Test
+    @DisplayName("Cache hits and misses of getAnimal() should be published as cache metrics")
+    void shouldPublishCacheMetrics() {
+        Animal animal = new Animal();
+        animal.setId("a1");
+        animal.setTitle("Lion");
+        animal.setVersion(1L);
+        when(animalRepo.findById("a1")).thenReturn(Optional.of(animal));
+        double hits = cacheGets("hit");
+        double misses = cacheGets("miss");
+
+        animalService.getAnimal("a1");
+        animalService.getAnimal("a1");
+
+        assertEquals(hits + 1, cacheGets("hit"));
+        assertEquals(misses + 1, cacheGets("miss"));
+    }
+
+    private double cacheGets(String result) {
+        return meterRegistry.get("cache.gets").tags("cache", "animals", "result", result).functionCounter().count();
+    }
+
     @Test
     @DisplayName("Verify @Cacheable on getAnimalsInRoom()")
     void shouldCacheAnimalsInRoomResult() {
@@ -138,7 +192,7 @@ class AnimalServiceCacheIT {
         a1.setTitle("Zebra");
         a1.setVersion(1L);
         Page<Animal> page = new PageImpl<>(List.of(a1));
-        RoomRequest roomRequest = new RoomRequest("r1", SortField.TITLE, Sort.Direction.ASC, 0, 10);
+        RoomRequest roomRequest = new RoomRequest("r1", SortField.TITLE, Sort.Direction.ASC, 0, 10, null);
 
         when(animalRepo.findByRoomId(eq("r1"), any(Pageable.class))).thenReturn(page);
 
@@ -150,4 +204,128 @@ class AnimalServiceCacheIT {
         // Verify DB hit only once
         verify(animalRepo, times(1)).findByRoomId(eq("r1"), any(Pageable.class));
     }
+
+    @Test
+    @DisplayName("Moving an animal evicts only the pages of the source and target rooms")
+    void shouldKeepPagesOfUnrelatedRoomsOnMove() {
+        Animal animal = new Animal();
+        animal.setId("a1");
+        animal.setTitle("Zebra");
+        animal.setRoomId("r1");
+        animal.setVersion(1L);
+        List<RoomRequest> pages = List.of("r1", "r2", "r3").stream()
+                .map(roomId -> new RoomRequest(roomId, SortField.TITLE, Sort.Direction.ASC, 0, 10, null))
+                .toList();
+
+        when(animalRepo.findByRoomId(anyString(), any(Pageable.class))).thenReturn(new PageImpl<>(List.of()));
+        when(roomRepo.existsById("r2")).thenReturn(true);
+        when(animalRepo.moveToRoom("a1", 1L, "r2")).thenReturn(new AnimalRepositoryCustom.RoomMove(animal, "r1"));
+
+        // Warm pages of three rooms, each page is a distinct cache entry
+        pages.forEach(animalService::getAnimalsInRoom);
+        pages.forEach(animalService::getAnimalsInRoom);
+        verify(animalRepo, times(3)).findByRoomId(anyString(), any(Pageable.class));
+
+        animalService.assignToRoom("a1", "r2", "1");
+        pages.forEach(animalService::getAnimalsInRoom);
+
+        verify(animalRepo, times(2)).findByRoomId(eq("r1"), any(Pageable.class));
+        verify(animalRepo, times(2)).findByRoomId(eq("r2"), any(Pageable.class));
+        verify(animalRepo, times(1)).findByRoomId(eq("r3"), any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("Multi-get should load all misses in one findAllById and serve them from the cache afterwards")
+    void shouldMultiGetThroughCache() {
+        Animal lion = new Animal("Lion", null);
+        lion.setId("m1");
+        lion.setVersion(1L);
+        Animal tiger = new Animal("Tiger", null);
+        tiger.setId("m2");
+        tiger.setVersion(1L);
+        when(animalRepo.findById("m1")).thenReturn(Optional.of(lion));
+        animalService.getAnimal("m1");
+        reset(animalRepo);
+        when(animalRepo.findAllById(ArgumentMatchers.<Iterable<String>>any())).thenReturn(List.of(tiger));
+
+        var first = animalService.getAnimals(List.of("m2", "m1", "gone", "m2"));
+        var second = animalService.getAnimals(List.of("m1", "m2"));
+
+        assertEquals(List.of("m2", "m1"), first.items().stream().map(AnimalResponse::id).toList());
+        assertEquals(List.of("gone"), first.missing());
+        assertEquals(List.of("m1", "m2"), second.items().stream().map(AnimalResponse::id).toList());
+        verify(animalRepo, times(1)).findAllById(Set.of("m2", "gone"));
+        verify(animalRepo, never()).findById(any());
+    }
+
+    @Test
+    @DisplayName("Concurrent misses for one animal should cause exactly one repository call")
+    void shouldLoadConcurrentMissesOnce() throws Exception {
+        Animal animal = new Animal("Lion", null);
+        animal.setId("hot");
+        animal.setVersion(1L);
+        int callers = 32;
+        when(animalRepo.findById("hot")).thenAnswer(invocation -> {
+            // keep the load in flight until every caller has missed
+            Thread.sleep(200);
+            return Optional.of(animal);
+        });
+
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        try {
+            var start = new CountDownLatch(1);
+            List<Future<AnimalResponse>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return animalService.getAnimal("hot");
+                }));
+            }
+            start.countDown();
+            for (Future<AnimalResponse> result : results)
+                assertEquals("Lion", result.get(5, TimeUnit.SECONDS).title());
+        } finally {
+            pool.shutdownNow();
+        }
+
+        verify(animalRepo, times(1)).findById("hot");
+    }
+
+    @Test
+    @DisplayName("While Mongo is down an evicted page should be served stale without being cached")
+    void shouldServeStalePageWithoutCachingIt() {
+        Animal a1 = new Animal();
+        a1.setId("a1");
+        a1.setTitle("Zebra");
+        a1.setVersion(1L);
+        // a room no other test caches: clearing a page of another test drops its last known good
+        // value from a removal listener that may run only after this test has evicted its page
+        RoomRequest roomRequest = new RoomRequest("r-stale", SortField.TITLE, Sort.Direction.ASC, 0, 10, null);
+        when(animalRepo.findByRoomId(eq("r-stale"), any(Pageable.class))).thenReturn(new PageImpl<>(List.of(a1)));
+        animalService.getAnimalsInRoom(roomRequest);
+
+        // push the page out for weight, as a full cache would
+        var pages = (com.github.benmanes.caffeine.cache.Cache<?, ?>) Objects.requireNonNull(cacheManager.getCache("animalsInRoom")).getNativeCache();
+        var eviction = pages.policy().eviction().orElseThrow();
+        long maximum = eviction.getMaximum();
+        eviction.setMaximum(0);
+        pages.cleanUp();
+        eviction.setMaximum(maximum);
+
+        when(animalRepo.findByRoomId(eq("r-stale"), any(Pageable.class))).thenThrow(new DataAccessResourceFailureException("Mongo is down"));
+        var stale = assertThrows(StaleResponseException.class, () -> animalService.getAnimalsInRoom(roomRequest));
+        assertEquals("Zebra", ((Page<?>) stale.getBody()).getContent().stream()
+                .map(AnimalResponse.class::cast).findFirst().orElseThrow().title());
+        assertNull(pages.asMap().get(AnimalsInRoomCache.key(roomRequest)));
+    }
+
+    @Test
+    @DisplayName("While Mongo is down the version of an animal is unknown instead of failing the conditional GET")
+    void shouldReportUnknownVersionWhileMongoIsDown() {
+        when(animalRepo.findVersionById("a1")).thenThrow(new DataAccessResourceFailureException("Mongo is down"));
+        assertEquals(Optional.empty(), animalService.currentVersion("a1"));
+
+        when(animalRepo.findVersionById("a2")).thenReturn(Optional.empty());
+        assertThrows(AnimalNotFoundException.class, () -> animalService.currentVersion("a2"));
+    }
 }
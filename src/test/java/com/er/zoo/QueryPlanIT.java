@@ -0,0 +1,232 @@
+package com.er.zoo;
+
+import com.er.zoo.dto.AnimalFilter;
+import com.er.zoo.dto.RoomCursor;
+import com.er.zoo.enums.BatchOperationType;
+import com.er.zoo.enums.SortField;
+import com.er.zoo.model.Animal;
+import com.er.zoo.model.Room;
+import com.er.zoo.repository.AnimalRepository;
+import com.er.zoo.repository.BatchWrite;
+import com.er.zoo.repository.RoomRepository;
+import com.er.zoo.slowquery.QueryPlan;
+import com.mongodb.client.MongoClient;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs every query the repositories issue against a seeded database, captures the commands on the
+ * wire and fails if the {@code explain} of any of them reads the whole collection or sorts in memory.
+ * <p>
+ * Index creation on startup is left to {@link com.er.zoo.migration.IndexVerification}.
+ * </p>
+ */
+@SpringBootTest
+@Testcontainers
+@Import(QueryPlanIT.CommandCapture.class)
+class QueryPlanIT {
+
+    private static final Set<String> EXPLAINABLE = Set.of("find", "aggregate", "count", "update", "delete", "findAndModify");
+    private static final Set<String> NOT_EXPLAINED = Set.of("lsid", "txnNumber", "autocommit", "startTransaction",
+            "readConcern", "writeConcern");
+    // statements of a multi-statement write, which explain only accepts one at a time
+    private static final Map<String, String> STATEMENTS = Map.of("update", "updates", "delete", "deletes");
+    private static final List<BsonDocument> commands = new CopyOnWriteArrayList<>();
+
+    @Container
+    static MongoDBContainer mongo = new MongoDBContainer("mongo:7.0.2");
+
+    @DynamicPropertySource
+    static void setMongoProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", mongo::getReplicaSetUrl);
+        registry.add("spring.data.mongodb.auto-index-creation", () -> "false");
+    }
+
+    // imported rather than a @TestConfiguration, so that applications started from the test classpath don't scan it
+    static class CommandCapture {
+        @Bean
+        MongoClientSettingsBuilderCustomizer commandCapture() {
+            return settings -> settings.addCommandListener(new CommandListener() {
+                @Override
+                public void commandStarted(CommandStartedEvent event) {
+                    if (EXPLAINABLE.contains(event.getCommandName()))
+                        commands.add(event.getCommand().clone());
+                }
+            });
+        }
+    }
+
+    @Autowired
+    private AnimalRepository animalRepository;
+    @Autowired
+    private RoomRepository roomRepository;
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    @Autowired
+    private MongoClient mongoClient;
+
+    private List<Room> rooms;
+    private List<Animal> animals;
+
+    @BeforeEach
+    void seed() {
+        animalRepository.deleteAll();
+        roomRepository.deleteAll();
+        rooms = roomRepository.saveAll(IntStream.range(0, 20)
+                .mapToObj(i -> new Room("Room " + i)).toList());
+        animals = animalRepository.saveAll(IntStream.range(0, 2000).mapToObj(i -> {
+            Animal animal = new Animal("Animal " + (i % 50), LocalDate.of(2020, 1, 1).plusDays(i % 365));
+            animal.setRoomId(rooms.get(i % rooms.size()).getId());
+            return animal;
+        }).toList());
+        commands.clear();
+    }
+
+    @Test
+    void shouldCreateDeclaredIndexesOnStartup() {
+        List<String> names = mongoTemplate.indexOps(Animal.class).getIndexInfo().stream()
+                .map(IndexInfo::getName).toList();
+        assertTrue(names.containsAll(List.of("roomId_title_id", "roomId_located_id", "roomId_created_id", "roomId_id",
+                "title", "located")), names.toString());
+        assertTrue(mongoTemplate.indexOps(Room.class).getIndexInfo().stream()
+                .anyMatch(index -> index.getName().equals("favoriteCount_id")));
+    }
+
+    @Test
+    void shouldServeAnimalQueriesFromIndexes() {
+        String roomId = rooms.get(0).getId();
+        Animal animal = animals.get(0);
+        for (SortField sort : SortField.values()) {
+            for (Sort.Direction order : Sort.Direction.values()) {
+                animalRepository.findByRoomId(roomId,
+                        PageRequest.of(1, 10, Sort.by(order, sort.name().toLowerCase())));
+                List<Animal> first = animalRepository.findByRoomIdAfter(roomId, sort, order, null, 10);
+                animalRepository.findByRoomIdAfter(roomId, sort, order,
+                        RoomCursor.of(sort, order, first.get(first.size() - 1)), 10);
+            }
+        }
+        try (var stream = animalRepository.streamAll(roomId, null, 100)) { stream.count(); }
+        try (var stream = animalRepository.streamAll(null, Instant.EPOCH, 100)) { stream.count(); }
+        try (var stream = animalRepository.streamAll(roomId, Instant.EPOCH, 100)) { stream.count(); }
+
+        animalRepository.findWriteStateByIdIn(List.of(animal.getId()));
+        try (var stream = animalRepository.streamWriteStateBy(new AnimalFilter(roomId, null, null), 100)) { stream.count(); }
+        try (var stream = animalRepository.streamWriteStateBy(new AnimalFilter(null, "Animal 7", null), 100)) { stream.count(); }
+        try (var stream = animalRepository.streamWriteStateBy(new AnimalFilter(null, null, LocalDate.of(2020, 1, 10)), 100)) { stream.count(); }
+        try (var stream = animalRepository.streamWriteStateBy(new AnimalFilter(roomId, "Animal 7", LocalDate.of(2020, 6, 1)), 100)) { stream.count(); }
+        animalRepository.findVersionById(animal.getId());
+
+        Animal updated = animalRepository.updateFields(animal.getId(), animal.getVersion(), "Renamed", null);
+        updated = animalRepository.addFavoriteRooms(updated.getId(), updated.getVersion(), List.of(roomId));
+        updated = animalRepository.removeFavoriteRooms(updated.getId(), updated.getVersion(), List.of(roomId));
+        var move = animalRepository.moveToRoom(updated.getId(), updated.getVersion(), rooms.get(1).getId());
+        updated = animalRepository.removeFromRoom(updated.getId(), move.animal().getVersion(), rooms.get(1).getId());
+        animalRepository.deleteVersioned(updated.getId(), updated.getVersion());
+
+        Animal next = animals.get(1);
+        animalRepository.writeBatch(List.of(new BatchWrite<>(BatchOperationType.UPDATE, next, next.getVersion())));
+        String otherRoomId = rooms.get(2).getId();
+        List<String> ids = animals.stream().filter(a -> a.getRoomId().equals(otherRoomId)).map(Animal::getId).toList();
+        Instant bulkUpdated = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        animalRepository.moveAll(otherRoomId, rooms.get(3).getId(), bulkUpdated);
+        try (var stream = animalRepository.streamIdsUpdatedAt(rooms.get(3).getId(), bulkUpdated, 100)) { stream.count(); }
+        animalRepository.unassignAll(rooms.get(3).getId(), bulkUpdated);
+        try (var stream = animalRepository.streamIdsUpdatedAt(null, bulkUpdated, 100)) { stream.count(); }
+        animalRepository.deleteAll(ids, new AnimalFilter(null, "Animal 2", null));
+        animalRepository.findById(next.getId());
+        animalRepository.existsById(next.getId());
+        animalRepository.findAllById(List.of(next.getId()));
+
+        assertIndexed();
+    }
+
+    @Test
+    void shouldServeRoomQueriesFromIndexes() {
+        Room room = rooms.get(0);
+        roomRepository.addFavorites(List.of(room.getId()), animals.get(0).getId());
+        roomRepository.findFavoriteRooms(PageRequest.of(0, 10, RoomRepository.FAVORITE_ORDER));
+        roomRepository.findIdsByIdIn(List.of(room.getId()));
+        roomRepository.removeFavorites(List.of(room.getId()), animals.get(0).getId());
+        roomRepository.removeFavorites(Map.of(animals.get(0).getId(), List.of(room.getId())));
+        try (var stream = roomRepository.streamAll(null, 100)) { stream.count(); }
+        try (var stream = roomRepository.streamAll(Instant.EPOCH, 100)) { stream.count(); }
+        roomRepository.findWriteStateByIdIn(List.of(room.getId()));
+        roomRepository.findVersionById(room.getId());
+        Room renamed = roomRepository.updateTitle(room.getId(), null, "Renamed");
+        roomRepository.deleteVersioned(renamed.getId(), renamed.getVersion());
+        roomRepository.findById(rooms.get(1).getId());
+
+        assertIndexed();
+    }
+
+    /**
+     * Explains every captured command, one statement at a time, and fails on the plans that
+     * scan the collection or sort in memory.
+     */
+    private void assertIndexed() {
+        List<BsonDocument> captured = List.copyOf(commands);
+        assertFalse(captured.isEmpty());
+        List<String> failures = new ArrayList<>();
+        for (BsonDocument command : captured) {
+            for (BsonDocument statement : statements(command)) {
+                BsonDocument reply = mongoClient.getDatabase(command.getString("$db").getValue())
+                        .runCommand(new BsonDocument("explain", statement)
+                                .append("verbosity", new BsonString("queryPlanner")), BsonDocument.class);
+                QueryPlan plan = QueryPlan.from(reply, Instant.now());
+                if (plan.collectionScan() || plan.inMemorySort())
+                    failures.add(plan.stages() + " for " + statement.toJson());
+            }
+        }
+        assertTrue(failures.isEmpty(), String.join("\n", failures));
+    }
+
+    private static List<BsonDocument> statements(BsonDocument command) {
+        BsonDocument explainable = new BsonDocument();
+        command.forEach((key, value) -> {
+            if (!key.startsWith("$") && !NOT_EXPLAINED.contains(key))
+                explainable.put(key, value);
+        });
+        String array = STATEMENTS.get(command.getFirstKey());
+        if (array == null)
+            return List.of(explainable);
+        List<BsonDocument> statements = new ArrayList<>();
+        for (BsonValue statement : explainable.getArray(array)) {
+            BsonDocument single = explainable.clone();
+            single.put(array, new BsonArray(List.of(statement)));
+            statements.add(single);
+        }
+        return statements;
+    }
+}
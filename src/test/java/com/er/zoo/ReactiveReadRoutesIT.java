@@ -0,0 +1,221 @@
+package com.er.zoo;
+
+import com.er.zoo.logging.LoggerService;
+import com.er.zoo.model.Animal;
+import com.er.zoo.model.Room;
+import com.er.zoo.repository.ReactiveAnimalRepository;
+import com.er.zoo.repository.ReactiveRoomRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * The read routes of the {@code reactive} profile against mocked reactive repositories: same
+ * bodies, status codes and {@code ETag}s as the controllers, reads through the async caches,
+ * and NDJSON streaming.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles({"test", "reactive"})
+class ReactiveReadRoutesIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @MockBean
+    private ReactiveAnimalRepository animalRepository;
+
+    @MockBean
+    private ReactiveRoomRepository roomRepository;
+
+    @MockBean
+    private LoggerService loggerService;
+
+    @BeforeEach
+    void clearCaches() {
+        cacheManager.getCacheNames().forEach(n -> Objects.requireNonNull(cacheManager.getCache(n)).clear());
+    }
+
+    @Test
+    @DisplayName("GET /animals/{id} is read once through the async cache and carries the ETag")
+    void shouldServeAnimalThroughCache() throws Exception {
+        when(animalRepository.findById("A1")).thenReturn(Mono.just(animal("A1", 3L)));
+
+        perform(get("/api/v1/animals/A1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(jsonPath("$.title").value("Leo"));
+        perform(get("/api/v1/animals/A1"))
+                .andExpect(status().isOk());
+
+        verify(animalRepository, times(1)).findById("A1");
+    }
+
+    @Test
+    @DisplayName("If-None-Match with the current version answers 304 without loading the animal")
+    void shouldAnswerNotModified() throws Exception {
+        when(animalRepository.findVersionById("A1")).thenReturn(Mono.just(animal("A1", 3L)));
+
+        perform(get("/api/v1/animals/A1").header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andExpect(status().isNotModified());
+
+        verify(animalRepository, never()).findById("A1");
+    }
+
+    @Test
+    @DisplayName("If-None-Match while the version lookup fails answers in full instead of failing")
+    void shouldAnswerInFullWhenVersionLookupFails() throws Exception {
+        when(animalRepository.findVersionById("A1"))
+                .thenReturn(Mono.error(new DataAccessResourceFailureException("mongo down")));
+        when(animalRepository.findById("A1")).thenReturn(Mono.just(animal("A1", 3L)));
+
+        perform(get("/api/v1/animals/A1").header(HttpHeaders.IF_NONE_MATCH, "\"2\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(jsonPath("$.title").value("Leo"));
+    }
+
+    @Test
+    @DisplayName("A missing room answers 404 with the exception handler body")
+    void shouldAnswerNotFound() throws Exception {
+        when(roomRepository.findById("R404")).thenReturn(Mono.empty());
+
+        perform(get("/api/v1/rooms/R404"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error").value("Room not found"));
+    }
+
+    @Test
+    @DisplayName("A failed load serves the last known good room with a Warning")
+    void shouldServeLastKnownGood() throws Exception {
+        when(roomRepository.findById("R1"))
+                .thenReturn(Mono.just(room("R1", "Green", 0)))
+                .thenReturn(Mono.error(new DataAccessResourceFailureException("mongo down")));
+
+        perform(get("/api/v1/rooms/R1")).andExpect(status().isOk());
+
+        // push the entry out for size, as a full cache would
+        var rooms = (com.github.benmanes.caffeine.cache.Cache<?, ?>) Objects.requireNonNull(cacheManager.getCache("rooms")).getNativeCache();
+        var eviction = rooms.policy().eviction().orElseThrow();
+        long maximum = eviction.getMaximum();
+        eviction.setMaximum(0);
+        rooms.cleanUp();
+        eviction.setMaximum(maximum);
+
+        perform(get("/api/v1/rooms/R1"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.WARNING))
+                .andExpect(jsonPath("$.title").value("Green"));
+    }
+
+    @Test
+    @DisplayName("Room pages are served as a Page and cached per page")
+    void shouldServeAnimalsInRoomPage() throws Exception {
+        when(animalRepository.findByRoomId(eq("R1"), any(Pageable.class)))
+                .thenReturn(Flux.just(animal("A1", 0L), animal("A2", 0L)));
+        when(animalRepository.countByRoomId("R1")).thenReturn(Mono.just(2L));
+
+        perform(get("/api/v1/rooms/R1/animals").param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(2))
+                .andExpect(jsonPath("$.totalElements").value(2));
+        perform(get("/api/v1/rooms/R1/animals").param("size", "10"))
+                .andExpect(status().isOk());
+
+        verify(animalRepository, times(1)).countByRoomId("R1");
+    }
+
+    @Test
+    @DisplayName("Room pages are streamed one animal per line for application/x-ndjson")
+    void shouldStreamAnimalsInRoom() throws Exception {
+        when(animalRepository.findByRoomId(eq("R1"), any(Pageable.class)))
+                .thenReturn(Flux.just(animal("A1", 0L), animal("A2", 0L)));
+
+        MvcResult result = perform(get("/api/v1/rooms/R1/animals").param("size", "10")
+                .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn();
+
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertEquals(2, lines.length);
+        verify(animalRepository, never()).countByRoomId(any());
+    }
+
+    @Test
+    @DisplayName("Invalid page parameters answer 400")
+    void shouldRejectInvalidPage() throws Exception {
+        perform(get("/api/v1/rooms/R1/animals").param("size", "50"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors.size").exists());
+        perform(get("/api/v1/rooms/favorites").param("size", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("GET /rooms/favorites keeps the JSON list contract")
+    void shouldServeFavoriteRooms() throws Exception {
+        when(roomRepository.findFavoriteRooms(any(Pageable.class)))
+                .thenReturn(Flux.just(room("R1", "Green", 2), room("R2", "Blue", 1)));
+
+        perform(get("/api/v1/rooms/favorites"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].title").value("Green"))
+                .andExpect(jsonPath("$[0].count").value(2));
+    }
+
+    /**
+     * Performs the request and dispatches the asynchronously completed response.
+     */
+    private ResultActions perform(RequestBuilder request) throws Exception {
+        MvcResult result = mockMvc.perform(request)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result));
+    }
+
+    private static Animal animal(String id, long version) {
+        Animal animal = new Animal("Leo", LocalDate.of(2020, 1, 1));
+        animal.setId(id);
+        animal.setVersion(version);
+        return animal;
+    }
+
+    private static Room room(String id, String title, int favorites) {
+        Set<String> favoritedBy = new HashSet<>();
+        for (int i = 0; i < favorites; i++) favoritedBy.add("animal-" + i);
+        return new Room(id, title, null, null, favoritedBy, 0L);
+    }
+}
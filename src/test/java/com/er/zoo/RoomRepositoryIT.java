@@ -7,6 +7,7 @@ import com.er.zoo.repository.RoomRepository;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.testcontainers.containers.MongoDBContainer;
@@ -14,6 +15,8 @@ import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
 import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -42,5 +45,34 @@ class RoomRepositoryIT {
         assertNotNull(saved.getUpdated());
         assertTrue(roomRepository.findById(room.getId()).isPresent());
     }
-}
 
+    @Test
+    void shouldReadOnlyTheVersion() {
+        Room saved = roomRepository.save(new Room("Versioned"));
+        saved.setTitle("Renamed");
+        roomRepository.save(saved);
+
+        assertEquals(1L, roomRepository.findVersionById(saved.getId()).orElseThrow());
+        assertTrue(roomRepository.findVersionById("missing").isEmpty());
+    }
+
+    @Test
+    void shouldCountFavoritesOnlyWhenMembershipChanges() {
+        Room saved = roomRepository.save(new Room("Favourite"));
+
+        Room other = roomRepository.save(new Room("Other"));
+        var both = List.of(saved.getId(), other.getId());
+
+        assertEquals(2, roomRepository.addFavorites(both, "a1"));
+        assertEquals(0, roomRepository.addFavorites(both, "a1"));
+        assertEquals(1, roomRepository.addFavorites(List.of(saved.getId()), "a2"));
+        assertEquals(2, roomRepository.removeFavorites(both, "a1"));
+        assertEquals(0, roomRepository.removeFavorites(both, "a1"));
+
+        Room reloaded = roomRepository.findById(saved.getId()).orElseThrow();
+        assertEquals(1, reloaded.getFavoriteCount());
+        assertEquals(Set.of("a2"), reloaded.getFavoritedByAnimalIds());
+        assertTrue(roomRepository.findFavoriteRooms(PageRequest.of(0, 10))
+                .stream().anyMatch(r -> r.getId().equals(saved.getId())));
+    }
+}
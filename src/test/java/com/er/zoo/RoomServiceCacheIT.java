@@ -2,11 +2,14 @@ package com.er.zoo;
 
 import com.er.zoo.dto.RoomResponse;
 import com.er.zoo.dto.RoomUpdateRequest;
+import com.er.zoo.exception.StaleResponseException;
 import com.er.zoo.logging.LoggerService;
 import com.er.zoo.model.Room;
 import com.er.zoo.repository.RoomRepository;
 import com.er.zoo.service.IdempotencyService;
 import com.er.zoo.service.RoomService;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -16,11 +19,22 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
-
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
 @SpringBootTest
@@ -47,6 +61,14 @@ class RoomServiceCacheIT {
     @Autowired
     private CacheManager cacheManager;
 
+    @Autowired
+    private CircuitBreakerRegistry circuitBreakers;
+
+    @AfterEach
+    void closeCircuit() {
+        circuitBreakers.circuitBreaker("roomService").reset();
+    }
+
     @BeforeEach
     void clearCache() {
         cacheManager.getCacheNames().forEach(n -> Objects.requireNonNull(cacheManager.getCache(n)).clear());
@@ -86,12 +108,14 @@ class RoomServiceCacheIT {
         roomService.getRoom("R123");
         verify(roomRepo, times(1)).findById("R123");
 
+        when(roomRepo.deleteVersioned("R123", 1L)).thenReturn(true);
+
         // Delete should evict cache
         roomService.delete("R123", String.valueOf(1L));
 
         // Fetch again should re-hit DB
         roomService.getRoom("R123");
-        verify(roomRepo, times(3)).findById("R123");
+        verify(roomRepo, times(2)).findById("R123");
     }
 
     @Test
@@ -108,7 +132,7 @@ class RoomServiceCacheIT {
         updatedRoom.setVersion(2L);
 
         when(roomRepo.findById("R123")).thenReturn(Optional.of(room));
-        when(roomRepo.save(any(Room.class))).thenReturn(updatedRoom);
+        when(roomRepo.updateTitle("R123", 1L, "New Room")).thenReturn(updatedRoom);
 
         // Preload cache
         roomService.get("R123");
@@ -118,9 +142,69 @@ class RoomServiceCacheIT {
 
         // Fetch again - should return new title from updated object (not old cache)
         RoomResponse response = roomService.getRoom("R123");
-        verify(roomRepo, atLeastOnce()).save(any());
+        verify(roomRepo, never()).save(any());
         assert response.title().equals("New Room");
     }
 
+    @Test
+    @DisplayName("Concurrent misses for one room should cause exactly one repository call")
+    void shouldLoadConcurrentMissesOnce() throws Exception {
+        var room = new Room();
+        room.setId("hot");
+        room.setTitle("Green");
+        room.setVersion(1L);
+        int callers = 32;
+        when(roomRepo.findById("hot")).thenAnswer(invocation -> {
+            // keep the load in flight until every caller has missed
+            Thread.sleep(200);
+            return Optional.of(room);
+        });
+
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        try {
+            var start = new CountDownLatch(1);
+            List<Future<RoomResponse>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return roomService.getRoom("hot");
+                }));
+            }
+            start.countDown();
+            for (Future<RoomResponse> result : results)
+                assertEquals("Green", result.get(5, TimeUnit.SECONDS).title());
+        } finally {
+            pool.shutdownNow();
+        }
+
+        verify(roomRepo, times(1)).findById("hot");
+    }
+
+    @Test
+    @DisplayName("While Mongo is down an evicted room should be served stale without being cached")
+    void shouldServeStaleRoomWithoutCachingIt() {
+        var room = new Room();
+        room.setId("R123");
+        room.setTitle("Green");
+        room.setVersion(1L);
+        when(roomRepo.findById("R123")).thenReturn(Optional.of(room));
+        roomService.getRoom("R123");
 
+        // push the entry out for size, as a full cache would
+        var rooms = (com.github.benmanes.caffeine.cache.Cache<?, ?>) Objects.requireNonNull(cacheManager.getCache("rooms")).getNativeCache();
+        var eviction = rooms.policy().eviction().orElseThrow();
+        long maximum = eviction.getMaximum();
+        eviction.setMaximum(0);
+        rooms.cleanUp();
+        eviction.setMaximum(maximum);
+
+        when(roomRepo.findById("R123")).thenThrow(new DataAccessResourceFailureException("Mongo is down"));
+        var stale = assertThrows(StaleResponseException.class, () -> roomService.getRoom("R123"));
+        assertEquals("Green", ((RoomResponse) stale.getBody()).title());
+        assertNull(rooms.asMap().get("R123"));
+
+        room.setTitle("Blue");
+        doReturn(Optional.of(room)).when(roomRepo).findById("R123");
+        assertEquals("Blue", roomService.getRoom("R123").title());
+    }
 }
@@ -0,0 +1,75 @@
+package com.er.zoo;
+
+import com.er.zoo.cache.LastKnownGood;
+import com.er.zoo.cache.TwoLevelCacheManager;
+import com.er.zoo.config.CacheConfig;
+import com.er.zoo.config.RedisCacheConfig;
+import com.er.zoo.dto.RoomResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs two application contexts ("replicas") against one Redis to verify the shared tier
+ * and the pub/sub invalidation of the local tiers.
+ */
+@Testcontainers
+class TwoLevelCacheIT {
+
+    @Container
+    static GenericContainer<?> redis = new GenericContainer<>("redis:7.2-alpine").withExposedPorts(6379);
+
+    private final List<ConfigurableApplicationContext> replicas = new ArrayList<>();
+
+    @AfterEach
+    void close() {
+        replicas.forEach(ConfigurableApplicationContext::close);
+    }
+
+    private TwoLevelCacheManager startReplica() {
+        var context = new SpringApplicationBuilder(RedisAutoConfiguration.class, CacheConfig.class, RedisCacheConfig.class,
+                LastKnownGood.class)
+                .web(WebApplicationType.NONE)
+                .properties("zoo.cache.redis.enabled=true",
+                        "spring.data.redis.host=" + redis.getHost(),
+                        "spring.data.redis.port=" + redis.getMappedPort(6379))
+                .run();
+        replicas.add(context);
+        return context.getBean(TwoLevelCacheManager.class);
+    }
+
+    @Test
+    void shouldShareValuesAndInvalidateOtherReplicas() throws Exception {
+        var podA = startReplica();
+        var podB = startReplica();
+        var roomsA = Objects.requireNonNull(podA.getCache("rooms"));
+        var roomsB = Objects.requireNonNull(podB.getCache("rooms"));
+        roomsA.clear();
+
+        var v1 = new RoomResponse("r1", "Green", null, null, "1");
+        roomsA.put("r1", v1);
+        // served from the shared tier, no load on pod B
+        assertEquals(v1, roomsB.get("r1", () -> fail("should not load")));
+
+        var v2 = new RoomResponse("r1", "Blue", null, null, "2");
+        roomsA.put("r1", v2);
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!v2.equals(roomsB.get("r1", RoomResponse.class)) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(v2, roomsB.get("r1", RoomResponse.class));
+    }
+}
@@ -77,6 +77,24 @@ public class ZooIntegrationTest {
         mvc.perform(get("/api/v1/rooms/" + r.getId())).andExpect(status().isOk()).andExpect(jsonPath("$.title").value("Blue"));
     }
 
+    @Test
+    void whenIdempotencyKeyRepeated_thenReplaysFirstResponse() throws Exception {
+        var json = "{\"title\":\"Paradise\"}";
+        MvcResult first = mvc.perform(post("/api/v1/rooms").contentType(MediaType.APPLICATION_JSON).content(json)
+                        .header("Idempotency-Key", "room-replay-key"))
+                .andExpect(status().isCreated())
+                .andReturn();
+
+        mvc.perform(post("/api/v1/rooms").contentType(MediaType.APPLICATION_JSON).content(json)
+                        .header("Idempotency-Key", "room-replay-key"))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(header().string("ETag", first.getResponse().getHeader("ETag")))
+                .andExpect(header().string("Location", first.getResponse().getHeader("Location")))
+                .andExpect(content().bytes(first.getResponse().getContentAsByteArray()));
+
+        assertThat(roomRepository.count()).isEqualTo(1L);
+    }
 
     @Test
     void whenMissingIdempotencyKey_thenReturns400() throws Exception {
@@ -0,0 +1,124 @@
+package com.er.zoo.benchmark;
+
+import com.er.zoo.dto.AnimalUpdateRequest;
+import com.er.zoo.model.Animal;
+import com.er.zoo.repository.AnimalRepository;
+import com.er.zoo.service.AnimalService;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the write latency of the previous {@code findById} + {@code If-Match} check + {@code save}
+ * sequence with the single version-conditioned {@code findAndModify} used by {@link AnimalService#update}.
+ * Animals carry large favorite sets so the full-document rewrite of {@code save} is visible.
+ * <p>
+ * Run with {@code ./gradlew benchmark --tests '*ConditionalWriteBenchmark'}.
+ * </p>
+ */
+@Tag("benchmark")
+@SpringBootTest
+@Testcontainers
+class ConditionalWriteBenchmark {
+
+    private static final int ANIMALS = 200;
+    private static final int FAVORITES_PER_ANIMAL = 2_000;
+    private static final int UPDATES_PER_ANIMAL = 20;
+    private static final int THREADS = 16;
+
+    @Container
+    static MongoDBContainer mongo = new MongoDBContainer("mongo:7.0.2");
+
+    @DynamicPropertySource
+    static void setMongoProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", mongo::getReplicaSetUrl);
+    }
+
+    @Autowired
+    private AnimalService animalService;
+    @Autowired
+    private AnimalRepository animalRepository;
+
+    @Test
+    void updateWithIfMatch() throws Exception {
+        animalRepository.deleteAll();
+        List<String> legacyIds = seed("Legacy");
+        List<String> conditionalIds = seed("Conditional");
+
+        Histogram readThenSave = new ConcurrentHistogram(3);
+        Histogram findAndModify = new ConcurrentHistogram(3);
+        run(legacyIds, readThenSave, (id, round) -> {
+            Animal animal = animalRepository.findById(id).orElseThrow();
+            animalService.validateIfMatch(animal.getVersion(), Long.toString(round));
+            animal.setTitle("Legacy " + round);
+            animalRepository.save(animal);
+        });
+        run(conditionalIds, findAndModify, (id, round) ->
+                animalService.update(id, new AnimalUpdateRequest("Conditional " + round, null), Long.toString(round)));
+
+        System.out.println("findById + validate + save, ms:");
+        readThenSave.outputPercentileDistribution(System.out, 1_000_000.0);
+        System.out.println("findAndModify {_id, version}, ms:");
+        findAndModify.outputPercentileDistribution(System.out, 1_000_000.0);
+        assertEquals((long) UPDATES_PER_ANIMAL,
+                animalRepository.findById(conditionalIds.getFirst()).orElseThrow().getVersion());
+    }
+
+    private List<String> seed(String prefix) {
+        return IntStream.range(0, ANIMALS).mapToObj(i -> {
+            var animal = new Animal(prefix + " " + i, LocalDate.now());
+            var favorites = new HashSet<String>();
+            IntStream.range(0, FAVORITES_PER_ANIMAL).forEach(f -> favorites.add("room-" + f));
+            animal.setFavoriteRoomIds(favorites);
+            return animalRepository.save(animal).getId();
+        }).toList();
+    }
+
+    /**
+     * Each animal is updated {@code UPDATES_PER_ANIMAL} times in sequence with the matching
+     * {@code If-Match}; different animals are updated concurrently. Each write's latency is recorded in nanoseconds.
+     */
+    private void run(List<String> ids, Histogram latency, Write write) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (String id : ids) {
+                futures.add(pool.submit(() -> {
+                    for (int round = 0; round < UPDATES_PER_ANIMAL; round++) {
+                        long start = System.nanoTime();
+                        write.apply(id, round);
+                        latency.recordValue(System.nanoTime() - start);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> f : futures) f.get();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Write {
+        void apply(String id, int round) throws Exception;
+    }
+}
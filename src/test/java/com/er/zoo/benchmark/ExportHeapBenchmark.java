@@ -0,0 +1,109 @@
+package com.er.zoo.benchmark;
+
+import com.er.zoo.model.Animal;
+import com.er.zoo.service.ExportService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Exports 1M animals through {@link ExportService} into a counting sink and samples the live heap
+ * (after a GC) while doing so. The export must finish with heap growth far below the size of the data.
+ * <p>
+ * Run with {@code ./gradlew benchmark --tests '*ExportHeapBenchmark'}.
+ * </p>
+ */
+@Tag("benchmark")
+@SpringBootTest
+@Testcontainers
+class ExportHeapBenchmark {
+
+    private static final int ANIMALS = 1_000_000;
+    private static final int INSERT_BATCH = 10_000;
+    private static final long SAMPLE_EVERY_BYTES = 16L * 1024 * 1024;
+    private static final long MAX_HEAP_GROWTH = 64L * 1024 * 1024;
+
+    @Container
+    static MongoDBContainer mongo = new MongoDBContainer("mongo:7.0.2");
+
+    @DynamicPropertySource
+    static void setMongoProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", mongo::getReplicaSetUrl);
+    }
+
+    @Autowired
+    private ExportService exportService;
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Test
+    void exportOneMillionAnimals() throws Exception {
+        mongoTemplate.dropCollection(Animal.class);
+        for (int from = 0; from < ANIMALS; from += INSERT_BATCH) {
+            List<Animal> batch = new ArrayList<>(INSERT_BATCH);
+            for (int i = from; i < from + INSERT_BATCH; i++) {
+                var animal = new Animal("Animal " + i, LocalDate.of(2020, 1, 1).plusDays(i % 1000));
+                animal.setRoomId("room-" + (i % 100));
+                animal.setVersion(0L);
+                batch.add(animal);
+            }
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Animal.class).insert(batch).execute();
+        }
+
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        memory.gc();
+        long baseline = memory.getHeapMemoryUsage().getUsed();
+        var sink = new OutputStream() {
+            long bytes;
+            long peak;
+            long nextSample = SAMPLE_EVERY_BYTES;
+
+            @Override
+            public void write(int b) {
+                count(1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                count(len);
+            }
+
+            private void count(int len) {
+                bytes += len;
+                if (bytes >= nextSample) {
+                    nextSample += SAMPLE_EVERY_BYTES;
+                    memory.gc();
+                    peak = Math.max(peak, memory.getHeapMemoryUsage().getUsed() - baseline);
+                }
+            }
+        };
+
+        long start = System.nanoTime();
+        long exported = exportService.exportAnimals(null, null, sink);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.printf("exported %d animals, %d MB in %d ms, peak live heap growth %d MB%n",
+                exported, sink.bytes >> 20, millis, sink.peak >> 20);
+        assertEquals(ANIMALS, exported);
+        assertTrue(sink.peak < MAX_HEAP_GROWTH, "heap grew by " + (sink.peak >> 20) + " MB");
+        assertTrue(sink.bytes > 2 * MAX_HEAP_GROWTH, "export should be larger than the allowed heap growth");
+    }
+}
@@ -0,0 +1,97 @@
+package com.er.zoo.benchmark;
+
+import com.er.zoo.model.Animal;
+import com.er.zoo.model.Room;
+import com.er.zoo.repository.AnimalRepository;
+import com.er.zoo.repository.RoomRepository;
+import com.er.zoo.service.AnimalService;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Assigns 50 favorite rooms at once to many animals and compares the previous per-room
+ * load-and-save approach with the single bulk write used by {@link AnimalService#assignFavorite}.
+ * The rooms are pre-populated with large favorite sets so whole-document rewrites are visible.
+ * <p>
+ * Run with {@code ./gradlew benchmark --tests '*FavoriteBulkWriteBenchmark'}.
+ * </p>
+ */
+@Tag("benchmark")
+@SpringBootTest
+@Testcontainers
+class FavoriteBulkWriteBenchmark {
+
+    private static final int ROOMS = 50;
+    private static final int EXISTING_FAVORITES_PER_ROOM = 5_000;
+    private static final int ANIMALS = 200;
+
+    @Container
+    static MongoDBContainer mongo = new MongoDBContainer("mongo:7.0.2");
+
+    @DynamicPropertySource
+    static void setMongoProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", mongo::getReplicaSetUrl);
+    }
+
+    @Autowired
+    private AnimalService animalService;
+    @Autowired
+    private AnimalRepository animalRepository;
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Test
+    void assignFiftyFavoriteRooms() throws Exception {
+        roomRepository.deleteAll();
+        animalRepository.deleteAll();
+        List<String> roomIds = IntStream.range(0, ROOMS).mapToObj(i -> {
+            var room = new Room("Room " + i);
+            var favoritedBy = new HashSet<String>();
+            IntStream.range(0, EXISTING_FAVORITES_PER_ROOM).forEach(a -> favoritedBy.add("seed-" + a));
+            room.setFavoritedByAnimalIds(favoritedBy);
+            room.setFavoriteCount(favoritedBy.size());
+            return roomRepository.save(room).getId();
+        }).toList();
+
+        Histogram perRoomSave = new Histogram(3);
+        Histogram bulkWrite = new Histogram(3);
+        for (int i = 0; i < ANIMALS; i++) {
+            Animal legacy = animalRepository.save(new Animal("Legacy " + i, LocalDate.now()));
+            long start = System.nanoTime();
+            legacy.getFavoriteRoomIds().addAll(roomIds);
+            animalRepository.save(legacy);
+            roomRepository.findAllById(roomIds).forEach(room -> {
+                room.getFavoritedByAnimalIds().add(legacy.getId());
+                roomRepository.save(room);
+            });
+            perRoomSave.recordValue(System.nanoTime() - start);
+
+            Animal bulk = animalRepository.save(new Animal("Bulk " + i, LocalDate.now()));
+            start = System.nanoTime();
+            animalService.assignFavorite(bulk.getId(), roomIds, null);
+            bulkWrite.recordValue(System.nanoTime() - start);
+        }
+
+        System.out.println("per-room findAllById + save x50, ms:");
+        perRoomSave.outputPercentileDistribution(System.out, 1_000_000.0);
+        System.out.println("bulkWrite $addToSet x50, ms:");
+        bulkWrite.outputPercentileDistribution(System.out, 1_000_000.0);
+        assertEquals(EXISTING_FAVORITES_PER_ROOM + 2L * ANIMALS,
+                roomRepository.findById(roomIds.getFirst()).orElseThrow().getFavoritedByAnimalIds().size());
+    }
+}
@@ -0,0 +1,120 @@
+package com.er.zoo.benchmark;
+
+import com.er.zoo.idempotency.IdempotencyStore;
+import com.er.zoo.idempotency.InMemoryIdempotencyStore;
+import com.er.zoo.idempotency.MongoIdempotencyStore;
+import com.er.zoo.idempotency.RedisIdempotencyStore;
+import com.er.zoo.model.IdempotencyRecord;
+import com.er.zoo.repository.IdempotencyRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Registers keys from many threads against each {@link IdempotencyStore} backend and against the
+ * previous {@code existsById} + {@code save} sequence. Every key is sent twice, so each backend must
+ * accept exactly half of the registrations.
+ * <p>
+ * Run with {@code ./gradlew benchmark --tests '*IdempotencyStoreBenchmark'}.
+ * </p>
+ */
+@Tag("benchmark")
+@SpringBootTest
+@Testcontainers
+class IdempotencyStoreBenchmark {
+
+    private static final int THREADS = 32;
+    private static final int KEYS = 5_000;
+
+    @Container
+    static MongoDBContainer mongo = new MongoDBContainer("mongo:7.0.2");
+
+    @Container
+    static GenericContainer<?> redis = new GenericContainer<>("redis:7.2-alpine").withExposedPorts(6379);
+
+    @DynamicPropertySource
+    static void setProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", mongo::getReplicaSetUrl);
+        registry.add("spring.data.redis.host", redis::getHost);
+        registry.add("spring.data.redis.port", () -> redis.getMappedPort(6379));
+    }
+
+    @Autowired
+    private IdempotencyRepository repository;
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void concurrentRegistrations() throws Exception {
+        Duration lease = Duration.ofMinutes(1);
+        Duration ttl = Duration.ofHours(24);
+        IdempotencyStore existsThenSave = new MongoIdempotencyStore(repository, mongoTemplate, lease, ttl) {
+            @Override
+            public boolean tryRegister(String key) {
+                if (repository.existsById(key)) return false;
+                repository.save(new IdempotencyRecord(key, Instant.now().plus(lease)));
+                return true;
+            }
+        };
+        run("mongo existsById + save (previous)", existsThenSave);
+        run("mongo insert", new MongoIdempotencyStore(repository, mongoTemplate, lease, ttl));
+        run("redis SET NX EX", new RedisIdempotencyStore(redisTemplate, objectMapper, lease, ttl));
+        run("caffeine putIfAbsent", new InMemoryIdempotencyStore(lease, ttl));
+    }
+
+    private void run(String name, IdempotencyStore store) throws Exception {
+        Histogram latency = new ConcurrentHistogram(3);
+        var accepted = new AtomicInteger();
+        String prefix = UUID.randomUUID() + "-";
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < KEYS * 2; i++) {
+                String key = prefix + (i / 2);
+                futures.add(pool.submit(() -> {
+                    long start = System.nanoTime();
+                    boolean registered = store.tryRegister(key);
+                    latency.recordValue(System.nanoTime() - start);
+                    if (registered) accepted.incrementAndGet();
+                    return null;
+                }));
+            }
+            for (Future<?> f : futures) f.get();
+        } finally {
+            pool.shutdown();
+        }
+        System.out.println(name + ", accepted=" + accepted.get() + ", ms:");
+        latency.outputPercentileDistribution(System.out, 1_000_000.0);
+        // the previous sequence is racy and may accept a duplicate, so only the stores are asserted
+        if (!name.endsWith("(previous)"))
+            assertEquals(KEYS, accepted.get());
+    }
+}
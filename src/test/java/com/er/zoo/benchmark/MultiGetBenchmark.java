@@ -0,0 +1,92 @@
+package com.er.zoo.benchmark;
+
+import com.er.zoo.model.Animal;
+import com.er.zoo.repository.AnimalRepository;
+import com.er.zoo.service.AnimalService;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares resolving 100 animals with one {@code getAnimal} call per id against one
+ * {@link AnimalService#getAnimals} multi-get, once with a cold cache (every id a miss) and once warm.
+ * <p>
+ * Run with {@code ./gradlew benchmark --tests '*MultiGetBenchmark'}.
+ * </p>
+ */
+@Tag("benchmark")
+@SpringBootTest
+@Testcontainers
+class MultiGetBenchmark {
+
+    private static final int IDS = 100;
+    private static final int ROUNDS = 200;
+
+    @Container
+    static MongoDBContainer mongo = new MongoDBContainer("mongo:7.0.2");
+
+    @DynamicPropertySource
+    static void setMongoProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", mongo::getReplicaSetUrl);
+    }
+
+    @Autowired
+    private AnimalService animalService;
+    @Autowired
+    private AnimalRepository animalRepository;
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Test
+    void hundredIds() throws Exception {
+        animalRepository.deleteAll();
+        List<String> ids = animalRepository.saveAll(IntStream.range(0, IDS)
+                        .mapToObj(i -> new Animal("Animal " + i, LocalDate.now())).toList())
+                .stream().map(Animal::getId).toList();
+
+        Map<String, Histogram> latencies = new LinkedHashMap<>();
+        Runnable loop = () -> ids.forEach(animalService::getAnimal);
+        Runnable multiGet = () -> animalService.getAnimals(ids);
+        for (int round = 0; round < ROUNDS; round++) {
+            clearAnimals();
+            time(latencies, "per-id loop, cold cache", loop);
+            time(latencies, "per-id loop, warm cache", loop);
+            clearAnimals();
+            time(latencies, "multi-get, cold cache", multiGet);
+            time(latencies, "multi-get, warm cache", multiGet);
+        }
+
+        latencies.forEach((name, latency) -> {
+            System.out.println(name + ", ms:");
+            latency.outputPercentileDistribution(System.out, 1_000_000.0);
+        });
+        assertEquals(IDS, animalService.getAnimals(ids).items().size());
+    }
+
+    private static void time(Map<String, Histogram> latencies, String name, Runnable call) {
+        long start = System.nanoTime();
+        call.run();
+        latencies.computeIfAbsent(name, n -> new Histogram(3)).recordValue(System.nanoTime() - start);
+    }
+
+    private void clearAnimals() {
+        Objects.requireNonNull(cacheManager.getCache("animals")).clear();
+    }
+}
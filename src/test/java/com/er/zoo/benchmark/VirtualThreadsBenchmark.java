@@ -0,0 +1,145 @@
+package com.er.zoo.benchmark;
+
+import com.er.zoo.ZooApplication;
+import com.er.zoo.model.Room;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Starts the application once on Tomcat's platform-thread pool and once with
+ * {@code spring.threads.virtual.enabled=true}, and loads {@code GET /rooms/favorites}, which is not
+ * cached, from {@value #CLIENTS} concurrent clients while every Mongo {@code find} is delayed by
+ * {@link #MONGO_LATENCY} on the calling thread. Reports throughput and latency percentiles of each mode.
+ * <p>
+ * The Mongo pool is sized above the client count, so that request threads rather than connections
+ * are the limit. Run with {@code ./gradlew benchmark --tests '*VirtualThreadsBenchmark'}.
+ * </p>
+ */
+@Tag("benchmark")
+@Testcontainers
+class VirtualThreadsBenchmark {
+
+    private static final int CLIENTS = 1_000;
+    private static final int REQUESTS_PER_CLIENT = 20;
+    private static final Duration MONGO_LATENCY = Duration.ofMillis(50);
+
+    @Container
+    static MongoDBContainer mongo = new MongoDBContainer("mongo:7.0.2");
+
+    @Test
+    void platformVersusVirtualThreads() throws Exception {
+        run(false);
+        run(true);
+    }
+
+    private void run(boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ZooApplication.class)
+                .initializers(VirtualThreadsBenchmark::injectMongoLatency)
+                .properties(
+                        "spring.data.mongodb.uri=" + mongo.getReplicaSetUrl() + "?maxPoolSize=" + (CLIENTS + 100),
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "server.port=0",
+                        "zoo.slow-query.enabled=false",
+                        "logging.level.root=WARN")
+                .run()) {
+            seed(context.getBean(MongoTemplate.class));
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            URI uri = URI.create("http://localhost:" + port + "/api/v1/rooms/favorites?page=0&size=10");
+            String mode = virtualThreads ? "virtual threads" : "platform threads";
+
+            load(uri, REQUESTS_PER_CLIENT / 4, new ConcurrentHistogram(3));
+            Histogram latency = new ConcurrentHistogram(3);
+            long start = System.nanoTime();
+            int ok = load(uri, REQUESTS_PER_CLIENT, latency);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            assertEquals(CLIENTS * REQUESTS_PER_CLIENT, ok);
+            System.out.printf("%s, throughput=%.0f req/s, ms:%n", mode, ok / seconds);
+            latency.outputPercentileDistribution(System.out, 1_000_000.0);
+        }
+    }
+
+    /**
+     * Sends {@code requests} requests from each of {@link #CLIENTS} virtual threads.
+     * @return the number of 200 responses
+     */
+    private static int load(URI uri, int requests, Histogram latency) throws Exception {
+        var ok = new AtomicInteger();
+        try (var clients = Executors.newVirtualThreadPerTaskExecutor();
+             var http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).executor(clients).build()) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int c = 0; c < CLIENTS; c++) {
+                futures.add(clients.submit(() -> {
+                    var request = HttpRequest.newBuilder(uri).GET().build();
+                    for (int i = 0; i < requests; i++) {
+                        long start = System.nanoTime();
+                        var response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                        latency.recordValue(System.nanoTime() - start);
+                        if (response.statusCode() == 200) ok.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) future.get();
+        }
+        return ok.get();
+    }
+
+    private static void seed(MongoTemplate mongoTemplate) {
+        mongoTemplate.remove(new Query(), Room.class);
+        mongoTemplate.insertAll(IntStream.range(0, 50).mapToObj(i -> {
+            Set<String> favoritedBy = new HashSet<>();
+            for (int a = 0; a <= i % 5; a++) favoritedBy.add("animal-" + a);
+            return new Room(null, "Room " + i, null, null, favoritedBy, 0L);
+        }).toList());
+    }
+
+    /**
+     * Delays every {@code find} on the calling thread while it holds its pooled connection, as a
+     * slow server would.
+     */
+    private static void injectMongoLatency(ConfigurableApplicationContext context) {
+        ((GenericApplicationContext) context).registerBean("mongoLatency", MongoClientSettingsBuilderCustomizer.class,
+                () -> settings -> settings.addCommandListener(new CommandListener() {
+                    @Override
+                    public void commandStarted(CommandStartedEvent event) {
+                        if (!event.getCommandName().equals("find")) return;
+                        try {
+                            Thread.sleep(MONGO_LATENCY);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                }));
+    }
+}
@@ -0,0 +1,72 @@
+package com.er.zoo.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link BulkCache} on a Caffeine cache manager.
+ */
+class BulkCacheTest {
+
+    private CaffeineCacheManager cacheManager;
+    private BulkCache bulkCache;
+    private final List<Set<String>> loads = new ArrayList<>();
+
+    @BeforeEach
+    void setup() {
+        cacheManager = new CaffeineCacheManager("animals");
+        cacheManager.setCaffeine(Caffeine.newBuilder());
+        bulkCache = new BulkCache(cacheManager);
+    }
+
+    private Map<String, String> load(Set<String> missing) {
+        loads.add(Set.copyOf(missing));
+        return missing.contains("a2") ? Map.of("a2", "Tiger") : Map.of();
+    }
+
+    @Test
+    @DisplayName("Should load all misses with one loader call and serve them from the cache afterwards")
+    void shouldLoadMissesOnce() {
+        bulkCache.putAll("animals", Map.of("a1", "Lion"));
+
+        assertEquals(Map.of("a1", "Lion", "a2", "Tiger"), bulkCache.getAll("animals", List.of("a1", "a2", "a3"), this::load));
+        assertEquals(Map.of("a1", "Lion", "a2", "Tiger"), bulkCache.getAll("animals", List.of("a1", "a2"), this::load));
+
+        assertEquals(List.of(Set.of("a2", "a3")), loads);
+    }
+
+    @Test
+    @DisplayName("Should evict many keys at once")
+    void shouldEvictAll() {
+        bulkCache.putAll("animals", Map.of("a1", "Lion", "a2", "Tiger", "a3", "Zebra"));
+
+        bulkCache.evictAll("animals", List.of("a1", "a2"));
+
+        var cache = cacheManager.getCache("animals");
+        assertNull(cache.get("a1"));
+        assertNull(cache.get("a2"));
+        assertEquals("Zebra", cache.get("a3").get());
+    }
+
+    @Test
+    @DisplayName("Should fall back to per-key calls for caches without Caffeine")
+    void shouldFallBackForOtherCaches() {
+        var fallback = new BulkCache(new ConcurrentMapCacheManager("animals"));
+
+        assertEquals(Map.of("a2", "Tiger"), fallback.getAll("animals", List.of("a2", "a3"), this::load));
+        assertEquals(Map.of("a2", "Tiger"), fallback.getAll("animals", List.of("a2"), this::load));
+
+        assertEquals(List.of(Set.of("a2", "a3")), loads);
+    }
+}
@@ -0,0 +1,94 @@
+package com.er.zoo.cache;
+
+import com.er.zoo.exception.StaleResponseException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link LastKnownGood} fed by a Caffeine cache on a manual clock.
+ */
+class LastKnownGoodTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final DataAccessResourceFailureException mongoDown = new DataAccessResourceFailureException("Mongo is down");
+    private LastKnownGood lastKnownGood;
+    private Cache<Object, Object> rooms;
+
+    @BeforeEach
+    void setup() {
+        lastKnownGood = new LastKnownGood(Duration.ofHours(1), 100);
+        rooms = lastKnownGood.track("rooms", Caffeine.newBuilder()
+                        .expireAfterWrite(Duration.ofMinutes(5))
+                        .ticker(nanos::get)
+                        .executor(Runnable::run))
+                .build();
+    }
+
+    private void expire() {
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(6));
+    }
+
+    @Test
+    @DisplayName("Should serve an expired value when its reload finds Mongo down")
+    void shouldServeExpiredValue() {
+        rooms.put("r1", "Green");
+        expire();
+
+        var failure = assertThrows(DataAccessResourceFailureException.class,
+                () -> rooms.get("r1", key -> { throw mongoDown; }));
+        var stale = assertInstanceOf(StaleResponseException.class, lastKnownGood.stale("rooms", "r1", failure));
+
+        assertEquals("Green", stale.getBody());
+        assertSame(mongoDown, stale.getCause());
+        assertNull(rooms.getIfPresent("r1"));
+    }
+
+    @Test
+    @DisplayName("Should serve the value while the circuit breaker is open")
+    void shouldServeWhileCircuitOpen() {
+        rooms.put("r1", "Green");
+        expire();
+        rooms.cleanUp();
+
+        var open = CallNotPermittedException.createCallNotPermittedException(CircuitBreaker.ofDefaults("roomService"));
+        var stale = assertInstanceOf(StaleResponseException.class, lastKnownGood.stale("rooms", "r1", open));
+        assertEquals("Green", stale.getBody());
+    }
+
+    @Test
+    @DisplayName("Should drop the value when the entry is evicted because it changed")
+    void shouldDropExplicitlyEvictedValue() {
+        rooms.put("r1", "Green");
+        expire();
+        rooms.cleanUp();
+        rooms.put("r1", "Blue");
+        rooms.invalidate("r1");
+
+        assertSame(mongoDown, lastKnownGood.stale("rooms", "r1", mongoDown));
+    }
+
+    @Test
+    @DisplayName("Should rethrow failures that do not mean Mongo is unavailable")
+    void shouldRethrowOtherFailures() {
+        rooms.put("r1", "Green");
+        expire();
+        rooms.cleanUp();
+
+        var notFound = new IllegalArgumentException("Room not found");
+        assertSame(notFound, lastKnownGood.stale("rooms", "r1", notFound));
+        assertSame(mongoDown, lastKnownGood.stale("rooms", "r2", mongoDown));
+        assertSame(mongoDown, lastKnownGood.stale("animals", "r1", mongoDown));
+    }
+}
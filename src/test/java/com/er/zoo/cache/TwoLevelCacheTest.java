@@ -0,0 +1,162 @@
+package com.er.zoo.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link TwoLevelCache}, with an in-memory map standing in for the Redis tier.
+ */
+class TwoLevelCacheTest {
+
+    private ConcurrentMapCache remote;
+    private List<CacheInvalidation> published;
+    private TwoLevelCache cache;
+
+    @BeforeEach
+    void setup() {
+        remote = new ConcurrentMapCache("animals", false);
+        published = new ArrayList<>();
+        cache = newCache("pod-a");
+    }
+
+    private TwoLevelCache newCache(String origin) {
+        return new TwoLevelCache("animals", Caffeine.newBuilder().build(), remote,
+                prefix -> remote.getNativeCache().keySet().removeIf(k -> k.toString().startsWith(prefix)),
+                published::add, origin);
+    }
+
+    @Test
+    @DisplayName("Should read through L1, then L2, then the loader")
+    void shouldReadThroughTiers() {
+        remote.put("a1", "Lion");
+
+        assertEquals("Lion", cache.get("a1", () -> "from-db"));
+        assertEquals("Lion", cache.getNativeCache().getIfPresent("a1"));
+        assertEquals("Tiger", cache.get("a2", () -> "Tiger"));
+        assertEquals("Tiger", remote.get("a2").get());
+    }
+
+    @Test
+    @DisplayName("Should write both tiers and broadcast the eviction on put")
+    void shouldBroadcastOnPut() {
+        cache.put("a1", "Lion");
+
+        assertEquals("Lion", remote.get("a1").get());
+        assertEquals(List.of(new CacheInvalidation("pod-a", "animals", CacheInvalidation.Type.EVICT, "a1")), published);
+    }
+
+    @Test
+    @DisplayName("Should drop the L1 copy when another replica invalidates a key")
+    void shouldInvalidateLocalOnRemoteMessage() {
+        var other = newCache("pod-b");
+        other.get("a1", () -> "Lion");
+        cache.put("a1", "Lion v2");
+
+        published.forEach(other::invalidateLocal);
+
+        assertNull(other.getNativeCache().getIfPresent("a1"));
+        assertEquals("Lion v2", other.get("a1").get());
+    }
+
+    @Test
+    @DisplayName("Should evict keys by prefix on both tiers")
+    void shouldEvictByPrefix() {
+        cache.put("r1:TITLE:ASC:0:10", "page");
+        cache.put("r2:TITLE:ASC:0:10", "page");
+
+        cache.evictByPrefix(Set.of("r1:"));
+
+        assertNull(cache.get("r1:TITLE:ASC:0:10"));
+        assertNotNull(cache.get("r2:TITLE:ASC:0:10"));
+        assertEquals(CacheInvalidation.Type.EVICT_PREFIX, published.getLast().type());
+        assertEquals(published.getLast(), CacheInvalidation.decode(published.getLast().encode()));
+    }
+
+    @Test
+    @DisplayName("Should write and evict many keys on both tiers and broadcast each key")
+    void shouldPutAndEvictInBulk() {
+        cache.putAll(Map.of("a1", "Lion", "a2", "Tiger"));
+
+        assertEquals("Tiger", remote.get("a2").get());
+        assertEquals("Lion", cache.getNativeCache().getIfPresent("a1"));
+
+        cache.evictAll(List.of("a1", "a2"));
+
+        assertNull(remote.get("a1"));
+        assertEquals(0, cache.getNativeCache().estimatedSize());
+        assertEquals(4, published.size());
+        assertTrue(published.stream().allMatch(p -> p.type() == CacheInvalidation.Type.EVICT));
+    }
+
+    @Test
+    @DisplayName("Should resolve a bulk read from L1, then L2, then one loader call")
+    void shouldGetAllThroughTiers() {
+        cache.put("a1", "Lion");
+        cache.getNativeCache().invalidate("a1");
+        cache.put("a2", "Tiger");
+        List<Set<Object>> loads = new ArrayList<>();
+
+        Map<Object, Object> found = cache.getAll(List.of("a1", "a2", "a3", "a4"), missing -> {
+            loads.add(Set.copyOf(missing));
+            return Map.of("a3", "Zebra");
+        });
+
+        assertEquals(Map.of("a1", "Lion", "a2", "Tiger", "a3", "Zebra"), found);
+        assertEquals(List.of(Set.of("a3", "a4")), loads);
+        assertEquals("Zebra", remote.get("a3").get());
+        assertEquals("Lion", cache.getNativeCache().getIfPresent("a1"));
+    }
+
+    @Test
+    @DisplayName("Should run the loader once for concurrent misses of one key")
+    void shouldLoadConcurrentMissesOnce() throws Exception {
+        var loads = new AtomicInteger();
+        var pool = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                results.add(pool.submit(() -> cache.get("hot", () -> {
+                    loads.incrementAndGet();
+                    Thread.sleep(100);
+                    return "Lion";
+                })));
+            }
+            for (var result : results) assertEquals("Lion", result.get());
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    @DisplayName("Should load a miss on the async cache's executor, not on the calling thread")
+    void shouldLoadOnExecutorWhenAsync() {
+        Executor loads = runnable -> Thread.ofVirtual().name("cache-load-test").start(runnable);
+        var async = new TwoLevelCache("animals", Caffeine.newBuilder().executor(loads).buildAsync(), remote,
+                prefix -> {}, published::add, "pod-a");
+
+        assertEquals("cache-load-test", async.get("a1", () -> Thread.currentThread().getName()));
+        assertEquals("cache-load-test", async.getNativeCache().getIfPresent("a1"));
+        assertEquals("cache-load-test", remote.get("a1").get());
+
+        assertThrows(Cache.ValueRetrievalException.class, () -> async.get("a2", () -> {
+            throw new IllegalStateException("db down");
+        }));
+        assertNull(async.getNativeCache().getIfPresent("a2"));
+    }
+}
@@ -0,0 +1,160 @@
+package com.er.zoo.config;
+
+import com.er.zoo.cache.CacheLoaders;
+import com.er.zoo.cache.LastKnownGood;
+import com.er.zoo.dto.RoomResponse;
+import com.er.zoo.model.Room;
+import com.er.zoo.repository.AnimalRepository;
+import com.er.zoo.repository.RoomRepository;
+import com.github.benmanes.caffeine.cache.Policy;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the per-cache policies built by {@link CacheConfig}.
+ */
+class CacheConfigTest {
+
+    private final RoomRepository roomRepository = mock(RoomRepository.class);
+    private final CacheLoaders loaders = new CacheLoaders(mock(AnimalRepository.class), roomRepository);
+    private final LastKnownGood lastKnownGood = new LastKnownGood(Duration.ofHours(1), 100);
+
+    private static CacheProperties bind(Map<String, String> properties) {
+        return new Binder(new MapConfigurationPropertySource(properties))
+                .bind("zoo.cache", CacheProperties.class)
+                .orElseGet(() -> new CacheProperties(null));
+    }
+
+    private static com.github.benmanes.caffeine.cache.Cache<?, ?> caffeine(CacheManager manager, String name) {
+        return (com.github.benmanes.caffeine.cache.Cache<?, ?>) manager.getCache(name).getNativeCache();
+    }
+
+    private static Room room(String title) {
+        var room = new Room();
+        room.setId("r1");
+        room.setTitle(title);
+        room.setVersion(0L);
+        return room;
+    }
+
+    @Test
+    @DisplayName("Should bind each cache's policy and keep the defaults for caches without one")
+    void shouldBindSpecs() {
+        var properties = bind(Map.of(
+                "zoo.cache.specs.animals.maximum-weight", "64MB",
+                "zoo.cache.specs.animals.expire-after-write", "PT10M",
+                "zoo.cache.specs.animals.refresh-after-write", "PT1M",
+                "zoo.cache.specs[animalsInRoom].maximum-size", "500"));
+
+        var animals = properties.spec("animals");
+        assertEquals(DataSize.ofMegabytes(64), animals.maximumWeight());
+        assertEquals(Duration.ofMinutes(1), animals.refreshAfterWrite());
+        assertEquals(500L, properties.spec("animalsInRoom").maximumSize());
+
+        var manager = new CacheConfig().cacheManager(properties, loaders, lastKnownGood, false, false);
+        Policy<?, ?> animalsPolicy = caffeine(manager, "animals").policy();
+        assertEquals(DataSize.ofMegabytes(64).toBytes(), animalsPolicy.eviction().orElseThrow().getMaximum());
+        assertTrue(animalsPolicy.eviction().orElseThrow().isWeighted());
+        assertEquals(Duration.ofMinutes(1), animalsPolicy.refreshAfterWrite().orElseThrow().getRefreshesAfter());
+
+        Policy<?, ?> roomsPolicy = caffeine(manager, "rooms").policy();
+        assertEquals(10_000, roomsPolicy.eviction().orElseThrow().getMaximum());
+        assertEquals(Duration.ofMinutes(5), roomsPolicy.expireAfterWrite().orElseThrow().getExpiresAfter());
+        assertTrue(roomsPolicy.refreshAfterWrite().isEmpty());
+        assertTrue(animalsPolicy.isRecordingStats() && roomsPolicy.isRecordingStats());
+        assertNull(manager.getCache("unknown"));
+    }
+
+    @Test
+    @DisplayName("Should fail at startup when the refresh is not shorter than the expiry")
+    void shouldRejectRefreshAfterExpiry() {
+        var properties = bind(Map.of(
+                "zoo.cache.specs.rooms.expire-after-write", "PT1M",
+                "zoo.cache.specs.rooms.refresh-after-write", "PT1M"));
+
+        assertThrows(IllegalStateException.class, () -> new CacheConfig().cacheManager(properties, loaders, lastKnownGood, false, false));
+    }
+
+    @Test
+    @DisplayName("Should serve the old value while a hot entry is reloaded in the background")
+    void shouldRefreshInBackground() throws Exception {
+        var properties = bind(Map.of(
+                "zoo.cache.specs.rooms.expire-after-write", "PT1M",
+                "zoo.cache.specs.rooms.refresh-after-write", "PT0.05S"));
+        Cache rooms = new CacheConfig().cacheManager(properties, loaders, lastKnownGood, false, false).getCache("rooms");
+        var v1 = new RoomResponse("r1", "Green", null, null, "0");
+        rooms.put("r1", v1);
+
+        var reloading = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        when(roomRepository.findById("r1")).thenAnswer(invocation -> {
+            reloading.countDown();
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+            return Optional.of(room("Blue"));
+        });
+        Thread.sleep(100);
+
+        // the stale read returns at once and starts the reload, which is still blocked
+        assertEquals(v1, rooms.get("r1", () -> fail("should not load")));
+        assertTrue(reloading.await(5, TimeUnit.SECONDS));
+        assertEquals(v1, rooms.get("r1", () -> fail("should not load")));
+
+        release.countDown();
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!"Blue".equals(((RoomResponse) rooms.get("r1").get()).title()) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals("Blue", ((RoomResponse) rooms.get("r1").get()).title());
+        verify(roomRepository, times(1)).findById("r1");
+    }
+
+    @Test
+    @DisplayName("In virtual-thread mode a miss should load once on a virtual thread while the callers wait")
+    void shouldLoadOnVirtualThreads() throws Exception {
+        var properties = bind(Map.of(
+                "zoo.cache.specs.rooms.expire-after-write", "PT1M",
+                "zoo.cache.specs.rooms.refresh-after-write", "PT30S"));
+        var manager = new CacheConfig().cacheManager(properties, loaders, lastKnownGood, true, true);
+        Cache rooms = manager.getCache("rooms");
+        assertTrue(caffeine(manager, "rooms").policy().refreshAfterWrite().isPresent());
+
+        var loads = new AtomicInteger();
+        var release = new CountDownLatch(1);
+        Callable<String> loader = () -> {
+            loads.incrementAndGet();
+            assertTrue(Thread.currentThread().isVirtual());
+            assertTrue(Thread.currentThread().getName().startsWith("cache-load-"));
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+            return "Green";
+        };
+        try (var callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            var results = IntStream.range(0, 32)
+                    .mapToObj(i -> CompletableFuture.supplyAsync(() -> rooms.get("r1", loader), callers))
+                    .toList();
+            Thread.sleep(100);
+            release.countDown();
+            for (var result : results)
+                assertEquals("Green", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+    }
+}
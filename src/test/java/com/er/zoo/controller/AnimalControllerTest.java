@@ -1,8 +1,11 @@
 package com.er.zoo.controller;
 
 import com.er.zoo.dto.*;
+import com.er.zoo.exception.StaleResponseException;
 import com.er.zoo.logging.LoggerService;
 import com.er.zoo.service.AnimalService;
+import com.er.zoo.service.ExportService;
+import com.er.zoo.service.ImportService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,11 +15,17 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -32,6 +41,12 @@ class AnimalControllerTest {
     @MockBean
     private AnimalService animalService;
 
+    @MockBean
+    private ExportService exportService;
+
+    @MockBean
+    private ImportService importService;
+
     @MockBean
     private LoggerService loggerService;
 
@@ -49,7 +64,7 @@ class AnimalControllerTest {
     @Test
     void createAnimal_ShouldReturn201() throws Exception {
         var request = new AnimalCreateRequest("Lion", LocalDate.now());
-        when(animalService.create(any(), anyString())).thenReturn(response);
+        when(animalService.create(any(), anyString(), anyBoolean())).thenReturn(response);
 
         mockMvc.perform(post("/api/v1/animals")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -58,7 +73,7 @@ class AnimalControllerTest {
                 .andExpect(status().isCreated())
                 .andExpect(jsonPath("$.title").value("Lion"));
 
-        verify(animalService).create(any(), eq("key123"));
+        verify(animalService).create(any(), eq("key123"), eq(false));
     }
 
     // ---------- GET ----------
@@ -71,6 +86,84 @@ class AnimalControllerTest {
                 .andExpect(jsonPath("$.title").value("Lion"));
     }
 
+    @Test
+    void exportAnimals_ShouldStreamNdjsonForRoom() throws Exception {
+        when(exportService.exportAnimals(eq("R1"), isNull(), any(OutputStream.class))).thenAnswer(inv -> {
+            OutputStream out = inv.getArgument(2);
+            out.write(objectMapper.writeValueAsBytes(response));
+            out.write('\n');
+            return 1L;
+        });
+
+        MvcResult result = mockMvc.perform(get("/api/v1/animals/export").param("roomId", "R1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string(objectMapper.writeValueAsString(response) + "\n"));
+        verify(animalService, never()).getAnimal(any());
+    }
+
+    @Test
+    void importAnimals_ShouldStreamResultsForNdjsonBody() throws Exception {
+        when(importService.importAnimals(eq("import-1"), any(InputStream.class), any(OutputStream.class))).thenAnswer(inv -> {
+            InputStream in = inv.getArgument(1);
+            OutputStream out = inv.getArgument(2);
+            long lines = new String(in.readAllBytes()).lines().count();
+            out.write(("{\"lines\":" + lines + "}\n").getBytes());
+            return Map.of();
+        });
+
+        MvcResult result = mockMvc.perform(post("/api/v1/animals/import")
+                        .contentType("application/x-ndjson")
+                        .header("Idempotency-Key", "import-1")
+                        .content("{\"title\":\"Lion\",\"located\":\"2022-07-30\"}\n{\"title\":\"Tiger\",\"located\":\"2022-07-30\"}\n"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string("{\"lines\":2}\n"));
+    }
+
+    @Test
+    void getAnimal_ShouldReturn304WithoutLoading_WhenVersionUnchanged() throws Exception {
+        when(animalService.currentVersion("id1")).thenReturn(Optional.of(1L));
+
+        mockMvc.perform(get("/api/v1/animals/id1").header("If-None-Match", "\"1\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"1\""))
+                .andExpect(content().string(""));
+
+        verify(animalService, never()).getAnimal(any());
+    }
+
+    @Test
+    void getAnimal_ShouldServeStaleAnimal_WhenVersionLookupFails() throws Exception {
+        when(animalService.currentVersion("id1")).thenReturn(Optional.empty());
+        when(animalService.getAnimal("id1")).thenThrow(
+                new StaleResponseException(response, new DataAccessResourceFailureException("Mongo is down")));
+
+        mockMvc.perform(get("/api/v1/animals/id1").header("If-None-Match", "\"1\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Warning", "110 - \"Response is Stale\""))
+                .andExpect(jsonPath("$.title").value("Lion"));
+    }
+
+    @Test
+    void getAnimal_ShouldReturnBody_WhenVersionChanged() throws Exception {
+        when(animalService.currentVersion("id1")).thenReturn(Optional.of(1L));
+        when(animalService.getAnimal("id1")).thenReturn(response);
+
+        mockMvc.perform(get("/api/v1/animals/id1").header("If-None-Match", "\"0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1\""))
+                .andExpect(jsonPath("$.title").value("Lion"));
+    }
+
     @Test
     void updateAnimal_ShouldReturnUpdatedResponse() throws Exception {
         var updateReq = new AnimalUpdateRequest("Tiger", LocalDate.now());
@@ -164,4 +257,27 @@ class AnimalControllerTest {
 
         verify(animalService).getAnimalsInRoom("room1", null, "asc", 0, 10);
     }*/
+
+    @Test
+    void deleteAll_ShouldBindFilterAndReturnNumberDeleted() throws Exception {
+        when(animalService.deleteAll(new AnimalFilter("R1", null, LocalDate.parse("2020-01-01")))).thenReturn(4L);
+
+        mockMvc.perform(delete("/api/v1/animals").param("roomId", "R1").param("locatedBefore", "2020-01-01"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affected").value(4));
+    }
+
+    @Test
+    void getAnimals_ShouldReturnItemsInRequestOrderAndMissingIds() throws Exception {
+        when(animalService.getAnimals(List.of("a2", "a1", "zz"))).thenReturn(new MultiGetResponse<>(
+                List.of(new AnimalResponse("a2", "Tiger", null, null, null, null, null, "1"),
+                        new AnimalResponse("a1", "Lion", null, null, null, null, null, "3")),
+                List.of("zz")));
+
+        mockMvc.perform(get("/api/v1/animals").param("ids", "a2,a1,zz"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value("a2"))
+                .andExpect(jsonPath("$.items[1].id").value("a1"))
+                .andExpect(jsonPath("$.missing[0]").value("zz"));
+    }
 }
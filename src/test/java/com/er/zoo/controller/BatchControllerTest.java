@@ -0,0 +1,69 @@
+package com.er.zoo.controller;
+
+import com.er.zoo.dto.BatchResult;
+import com.er.zoo.logging.LoggerService;
+import com.er.zoo.service.AnimalService;
+import com.er.zoo.service.RoomService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(BatchController.class)
+class BatchControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private AnimalService animalService;
+
+    @MockBean
+    private RoomService roomService;
+
+    @MockBean
+    private LoggerService loggerService;
+
+    @Test
+    void animalsBatch_ShouldReturnResultPerOperation() throws Exception {
+        when(animalService.batch(argThat(ops -> ops.size() == 2 && "a1".equals(ops.get(1).id())))).thenReturn(List.of(
+                new BatchResult(0, 201, "a2", "0", null),
+                new BatchResult(1, 412, "a1", null, "Entity has been modified by another user")));
+
+        mockMvc.perform(post("/api/v1/animals:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"operations": [
+                                  {"op": "CREATE", "title": "Lion", "located": "2024-01-01"},
+                                  {"op": "UPDATE", "id": "a1", "ifMatch": "\\"3\\"", "title": "Tiger"}
+                                ]}"""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value(201))
+                .andExpect(jsonPath("$[0].version").value("0"))
+                .andExpect(jsonPath("$[1].status").value(412))
+                .andExpect(jsonPath("$[1].version").doesNotExist());
+    }
+
+    @Test
+    void roomsBatch_ShouldRejectEmptyOrUntypedOperations() throws Exception {
+        mockMvc.perform(post("/api/v1/rooms:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"operations\": []}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/v1/rooms:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"operations\": [{\"title\": \"Savanna\"}]}"))
+                .andExpect(status().isBadRequest());
+
+        verify(roomService, never()).batch(any());
+    }
+}
@@ -3,9 +3,13 @@ package com.er.zoo.controller;
 
 import com.er.zoo.dto.*;
 import com.er.zoo.enums.SortField;
+import com.er.zoo.exception.RoomNotFoundException;
+import com.er.zoo.exception.StaleResponseException;
 import com.er.zoo.logging.LoggerService;
+import com.er.zoo.idempotency.IdempotencyFilter;
 import com.er.zoo.model.Room;
 import com.er.zoo.service.AnimalService;
+import com.er.zoo.service.ExportService;
 import com.er.zoo.service.RoomService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,15 +17,20 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.OutputStream;
 import java.net.URI;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -40,6 +49,9 @@ class RoomControllerTest {
     @MockBean
     private AnimalService animalService;
 
+    @MockBean
+    private ExportService exportService;
+
     @MockBean
     private LoggerService loggerService;
 
@@ -61,7 +73,7 @@ class RoomControllerTest {
     @Test
     void createRoom_ShouldReturn201() throws Exception {
         RoomCreateRequest request = new RoomCreateRequest("Green");
-        when(roomService.create(any(), eq("key123"))).thenReturn(room);
+        when(roomService.create(any(), eq("key123"), anyBoolean())).thenReturn(room);
 
         mockMvc.perform(post("/api/v1/rooms")
                         .header("Idempotency-Key", "key123")
@@ -71,7 +83,21 @@ class RoomControllerTest {
                 .andExpect(header().string("Location", URI.create("/rooms/" + roomResponse.id()).toString()))
                 .andExpect(jsonPath("$.title").value("Green"));
 
-        verify(roomService).create(any(RoomCreateRequest.class), eq("key123"));
+        verify(roomService).create(any(RoomCreateRequest.class), eq("key123"), eq(false));
+    }
+
+    @Test
+    void createRoom_ShouldPassOnKeyClaimedByFilter() throws Exception {
+        when(roomService.create(any(), eq("key123"), anyBoolean())).thenReturn(room);
+
+        mockMvc.perform(post("/api/v1/rooms")
+                        .header("Idempotency-Key", "key123")
+                        .requestAttr(IdempotencyFilter.CLAIMED_KEY_ATTRIBUTE, "key123")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RoomCreateRequest("Green"))))
+                .andExpect(status().isCreated());
+
+        verify(roomService).create(any(RoomCreateRequest.class), eq("key123"), eq(true));
     }
 
     @Test
@@ -80,9 +106,74 @@ class RoomControllerTest {
 
         mockMvc.perform(get("/api/v1/rooms/r1"))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1\""))
+                .andExpect(jsonPath("$.title").value("Green"));
+    }
+
+    @Test
+    void getRoom_ShouldServeStaleRoomWithWarning_WhenMongoIsDown() throws Exception {
+        when(roomService.getRoom("r1")).thenThrow(
+                new StaleResponseException(roomResponse, new DataAccessResourceFailureException("Mongo is down")));
+
+        mockMvc.perform(get("/api/v1/rooms/r1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Warning", "110 - \"Response is Stale\""))
                 .andExpect(jsonPath("$.title").value("Green"));
     }
 
+    @Test
+    void exportRooms_ShouldStreamNdjson() throws Exception {
+        when(exportService.exportRooms(eq(Instant.parse("2025-01-01T00:00:00Z")), any(OutputStream.class)))
+                .thenAnswer(inv -> {
+                    OutputStream out = inv.getArgument(1);
+                    out.write("{\"id\":\"r1\"}\n{\"id\":\"r2\"}\n".getBytes());
+                    return 2L;
+                });
+
+        MvcResult result = mockMvc.perform(get("/api/v1/rooms/export").param("updatedSince", "2025-01-01T00:00:00Z"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string("{\"id\":\"r1\"}\n{\"id\":\"r2\"}\n"));
+    }
+
+    @Test
+    void getRoom_ShouldReturn304WithoutLoading_WhenVersionUnchanged() throws Exception {
+        when(roomService.currentVersion("r1")).thenReturn(Optional.of(1L));
+
+        mockMvc.perform(get("/api/v1/rooms/r1").header("If-None-Match", "\"1\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(roomService, never()).getRoom(any());
+    }
+
+    @Test
+    void getRoom_ShouldReturn404_WhenMissing_WithAndWithoutIfNoneMatch() throws Exception {
+        when(roomService.currentVersion("missing")).thenThrow(new RoomNotFoundException("Room not found"));
+        when(roomService.getRoom("missing")).thenThrow(new RoomNotFoundException("Room not found"));
+
+        mockMvc.perform(get("/api/v1/rooms/missing"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/v1/rooms/missing").header("If-None-Match", "\"1\""))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getRoom_ShouldServeStaleRoom_WhenVersionLookupFails() throws Exception {
+        when(roomService.currentVersion("r1")).thenReturn(Optional.empty());
+        when(roomService.getRoom("r1")).thenThrow(
+                new StaleResponseException(roomResponse, new DataAccessResourceFailureException("Mongo is down")));
+
+        mockMvc.perform(get("/api/v1/rooms/r1").header("If-None-Match", "\"1\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Warning", "110 - \"Response is Stale\""))
+                .andExpect(jsonPath("$.title").value(roomResponse.title()));
+    }
+
     @Test
     void updateRoom_ShouldReturnUpdatedRoom() throws Exception {
         RoomUpdateRequest request = new RoomUpdateRequest("Big Room");
@@ -135,7 +226,7 @@ class RoomControllerTest {
     @Test
     void getAnimalsInRoom_ShouldReturnPagedAnimals() throws Exception {
         var page = new PageImpl<>(List.of(animalResponse), PageRequest.of(0, 10), 1);
-        RoomRequest roomRequest = new RoomRequest("r1", SortField.TITLE, Sort.Direction.ASC, 0, 20);
+        RoomRequest roomRequest = new RoomRequest("r1", SortField.TITLE, Sort.Direction.ASC, 0, 20, null);
         when(animalService.getAnimalsInRoom(roomRequest)).thenReturn(page);
 
         mockMvc.perform(get("/api/v1/rooms/r1/animals")
@@ -150,19 +241,78 @@ class RoomControllerTest {
     }
 
 
+    @Test
+    void getAnimalsInRoomAfter_ShouldReturnCursorPage() throws Exception {
+        RoomRequest roomRequest = new RoomRequest("r1", SortField.TITLE, Sort.Direction.ASC, 0, 20, null);
+        when(animalService.getAnimalsInRoomAfter(roomRequest))
+                .thenReturn(new CursorPage<>(List.of(animalResponse), "token"));
+
+        mockMvc.perform(get("/api/v1/rooms/r1/animals")
+                        .param("after", "")
+                        .param("size", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].title").value("Lion"))
+                .andExpect(jsonPath("$.next").value("token"));
+
+        verify(animalService).getAnimalsInRoomAfter(roomRequest);
+        verify(animalService, never()).getAnimalsInRoom(any());
+    }
+
     @Test
     void favoriteRooms_ShouldReturnList() throws Exception {
         List<FavoriteRoomCount> favorites = List.of(
                 new FavoriteRoomCount("Green", 4),
                 new FavoriteRoomCount("Big", 1)
         );
-        when(roomService.favoriteRoomCounts()).thenReturn(favorites);
+        when(roomService.favoriteRoomCounts(0, 20)).thenReturn(favorites);
 
         mockMvc.perform(get("/api/v1/rooms/favorites"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].title").value("Green"))
                 .andExpect(jsonPath("$[0].count").value(4));
 
-        verify(roomService).favoriteRoomCounts();
+        verify(roomService).favoriteRoomCounts(0, 20);
+    }
+
+    @Test
+    void favoriteRooms_ShouldReturn400_WhenPageOrSizeOutOfRange() throws Exception {
+        mockMvc.perform(get("/api/v1/rooms/favorites").param("size", "0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors.size").exists());
+        mockMvc.perform(get("/api/v1/rooms/favorites").param("size", "101"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/rooms/favorites").param("page", "-1"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors.page").exists());
+
+        verify(roomService, never()).favoriteRoomCounts(anyInt(), anyInt());
+    }
+
+    @Test
+    void moveAllAnimals_ShouldReturnNumberMoved() throws Exception {
+        when(animalService.moveAll("r1", "r2")).thenReturn(3L);
+
+        mockMvc.perform(post("/api/v1/rooms/r1/animals/move/r2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affected").value(3));
+    }
+
+    @Test
+    void removeAllAnimals_ShouldReturnNumberUnassigned() throws Exception {
+        when(animalService.unassignAll("r1")).thenReturn(2L);
+
+        mockMvc.perform(delete("/api/v1/rooms/r1/animals"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affected").value(2));
+    }
+
+    @Test
+    void getRooms_ShouldReturnItemsAndMissingIds() throws Exception {
+        when(roomService.getRooms(List.of("r1", "r9"))).thenReturn(new MultiGetResponse<>(List.of(roomResponse), List.of("r9")));
+
+        mockMvc.perform(get("/api/v1/rooms").param("ids", "r1", "r9"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].title").value("Green"))
+                .andExpect(jsonPath("$.missing[0]").value("r9"));
     }
 }
@@ -0,0 +1,98 @@
+package com.er.zoo.dataset;
+
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.InsertManyOptions;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Converts batches of entities with the application's {@link MongoConverter} and writes them with
+ * unordered {@code insertMany} calls on {@code writers} threads. {@link #write} blocks while every
+ * writer is busy and another batch is queued, so generation never runs far ahead of Mongo.
+ */
+final class BulkWriter implements AutoCloseable {
+
+    private static final long PROGRESS_EVERY = 1_000_000;
+    private static final InsertManyOptions UNORDERED = new InsertManyOptions().ordered(false);
+
+    private final MongoDatabase database;
+    private final MongoConverter converter;
+    private final ExecutorService executor;
+    private final Semaphore queued;
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private final AtomicLong written = new AtomicLong();
+    private final long start = System.nanoTime();
+
+    BulkWriter(MongoDatabase database, MongoConverter converter, int writers) {
+        this.database = database;
+        this.converter = converter;
+        this.executor = Executors.newFixedThreadPool(writers);
+        this.queued = new Semaphore(writers * 2);
+    }
+
+    void write(String collection, List<?> entities) {
+        rethrowFailure();
+        queued.acquireUninterruptibly();
+        executor.execute(() -> {
+            try {
+                List<Document> documents = new ArrayList<>(entities.size());
+                for (Object entity : entities) {
+                    Document document = new Document();
+                    converter.write(entity, document);
+                    documents.add(document);
+                }
+                database.getCollection(collection).insertMany(documents, UNORDERED);
+                progress(documents.size());
+            } catch (Throwable e) {
+                failure.compareAndSet(null, e);
+            } finally {
+                queued.release();
+            }
+        });
+    }
+
+    long written() {
+        return written.get();
+    }
+
+    private void progress(int documents) {
+        long total = written.addAndGet(documents);
+        if (total / PROGRESS_EVERY != (total - documents) / PROGRESS_EVERY) {
+            double minutes = (System.nanoTime() - start) / 60e9;
+            System.out.printf("%,d documents written, %,.0f per minute%n", total, total / minutes);
+        }
+    }
+
+    private void rethrowFailure() {
+        Throwable e = failure.get();
+        if (e != null)
+            throw new IllegalStateException("Bulk insert failed", e);
+    }
+
+    /**
+     * Waits for the queued inserts. An interrupt stops the writers, restores the interrupt flag
+     * and is rethrown unchecked.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(1, TimeUnit.HOURS))
+                throw new IllegalStateException("Bulk inserts did not finish within an hour");
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the bulk inserts", e);
+        }
+        rethrowFailure();
+    }
+}
@@ -0,0 +1,83 @@
+package com.er.zoo.dataset;
+
+import com.er.zoo.model.Animal;
+import com.er.zoo.model.Room;
+import com.mongodb.ConnectionString;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoDatabase;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.List;
+
+/**
+ * Writes a synthetic zoo straight into Mongo for performance testing; see {@link ZooDataset} for
+ * the distributions and {@link DatasetSettings} for the parameters. Run with
+ * {@code ./gradlew generateDataset -Pzoo.dataset.animals=10000000 -Pzoo.dataset.rooms=100000}.
+ * <p>
+ * Documents are converted exactly as the application stores them, but without a Spring context
+ * and without indexes; the application creates the declared indexes on its next startup (see
+ * {@link com.er.zoo.migration.IndexVerification}), which is faster than maintaining them during the load.
+ * </p>
+ */
+public final class DatasetGenerator {
+
+    private DatasetGenerator() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        DatasetSettings settings = DatasetSettings.fromSystemProperties();
+        ConnectionString connection = new ConnectionString(settings.mongoUri());
+        MappingMongoConverter converter = converter();
+        String animals = converter.getMappingContext().getRequiredPersistentEntity(Animal.class).getCollection();
+        String rooms = converter.getMappingContext().getRequiredPersistentEntity(Room.class).getCollection();
+
+        try (MongoClient client = MongoClients.create(connection)) {
+            MongoDatabase database = client.getDatabase(connection.getDatabase() == null ? "zoodb" : connection.getDatabase());
+            prepare(database, List.of(animals, rooms), settings.drop());
+            System.out.printf("Generating %,d animals and %,d rooms into %s (seed %d)%n",
+                    settings.animals(), settings.rooms(), database.getName(), settings.seed());
+
+            long start = System.nanoTime();
+            ZooDataset.Stats stats;
+            BulkWriter writer = new BulkWriter(database, converter, settings.writers());
+            // closing waits for the last inserts
+            try (writer) {
+                stats = new ZooDataset(settings).generate(
+                        batch -> writer.write(animals, batch),
+                        batch -> writer.write(rooms, batch));
+            }
+            double minutes = (System.nanoTime() - start) / 60e9;
+            System.out.printf("%s%nWrote %,d documents in %.1f min, %,.0f per minute%n",
+                    stats, writer.written(), minutes, writer.written() / minutes);
+        }
+    }
+
+    private static void prepare(MongoDatabase database, List<String> collections, boolean drop) {
+        for (String collection : collections) {
+            if (drop) {
+                database.getCollection(collection).drop();
+            } else if (database.getCollection(collection).estimatedDocumentCount() > 0) {
+                throw new IllegalStateException("Collection " + collection
+                        + " is not empty; pass -Pzoo.dataset.drop=true to replace it");
+            }
+        }
+    }
+
+    /**
+     * The converter Spring Boot configures for the application: default mapping and conversions.
+     */
+    private static MappingMongoConverter converter() {
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        return converter;
+    }
+}
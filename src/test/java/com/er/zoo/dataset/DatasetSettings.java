@@ -0,0 +1,60 @@
+package com.er.zoo.dataset;
+
+/**
+ * Shape of a generated dataset, read from {@code zoo.dataset.*} system properties; the
+ * {@code generateDataset} task forwards Gradle properties of the same names.
+ *
+ * @param mongoUri              target database, e.g. {@code mongodb://localhost:27017/zoodb}
+ * @param animals               animals to generate
+ * @param rooms                 rooms to generate
+ * @param seed                  seed of every random choice; the same settings always produce the same documents
+ * @param occupancySkew         Zipf exponent of the animals per room; 0 spreads them evenly
+ * @param unassignedShare       share of animals without a room
+ * @param favoriteSkew          Zipf exponent of the rooms chosen as favorites; higher makes a few rooms hot
+ * @param favoritesPerAnimal    mean number of favorite rooms of an ordinary animal
+ * @param collectorShare        share of animals that favorite {@code collectorFavorites} rooms each
+ * @param collectorFavorites    favorites of such an animal
+ * @param maxFavoritesPerRoom   upper bound of a room's {@code favoritedByAnimalIds}, which keeps documents
+ *                              well below Mongo's 16MB limit
+ * @param batchSize             documents per {@code insertMany}
+ * @param writers               concurrent {@code insertMany} calls
+ * @param drop                  drop the {@code animals} and {@code rooms} collections first; without it
+ *                              the generator refuses to write into non-empty collections
+ */
+public record DatasetSettings(String mongoUri, int animals, int rooms, long seed,
+                              double occupancySkew, double unassignedShare,
+                              double favoriteSkew, double favoritesPerAnimal,
+                              double collectorShare, int collectorFavorites, int maxFavoritesPerRoom,
+                              int batchSize, int writers, boolean drop) {
+
+    private static final String PREFIX = "zoo.dataset.";
+
+    public DatasetSettings {
+        if (rooms < 1 || animals < 0)
+            throw new IllegalArgumentException("At least one room and no negative animal count are required");
+        if (batchSize < 1 || writers < 1)
+            throw new IllegalArgumentException("batch-size and writers must be positive");
+    }
+
+    public static DatasetSettings fromSystemProperties() {
+        return new DatasetSettings(
+                property("mongo-uri", "mongodb://localhost:27017/zoodb"),
+                Integer.parseInt(property("animals", "1000000")),
+                Integer.parseInt(property("rooms", "10000")),
+                Long.parseLong(property("seed", "42")),
+                Double.parseDouble(property("occupancy-skew", "1.0")),
+                Double.parseDouble(property("unassigned-share", "0.05")),
+                Double.parseDouble(property("favorite-skew", "1.2")),
+                Double.parseDouble(property("favorites-per-animal", "1.0")),
+                Double.parseDouble(property("collector-share", "0.001")),
+                Integer.parseInt(property("collector-favorites", "500")),
+                Integer.parseInt(property("max-favorites-per-room", "50000")),
+                Integer.parseInt(property("batch-size", "1000")),
+                Integer.parseInt(property("writers", "4")),
+                Boolean.parseBoolean(property("drop", "false")));
+    }
+
+    private static String property(String name, String defaultValue) {
+        return System.getProperty(PREFIX + name, defaultValue);
+    }
+}
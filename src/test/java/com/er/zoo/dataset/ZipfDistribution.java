@@ -0,0 +1,39 @@
+package com.er.zoo.dataset;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Zipf distribution over {@code 0..n-1}: the item of rank {@code k} is drawn with a probability
+ * proportional to {@code 1 / k^exponent}. Ranks are assigned to items by a seeded shuffle, so the
+ * popular items are spread over the id range instead of being the first ones.
+ */
+final class ZipfDistribution {
+
+    private final double[] cumulative;
+    private final int[] itemOfRank;
+
+    ZipfDistribution(int n, double exponent, SplittableRandom shuffle) {
+        cumulative = new double[n];
+        double sum = 0;
+        for (int rank = 0; rank < n; rank++) {
+            sum += 1 / Math.pow(rank + 1, exponent);
+            cumulative[rank] = sum;
+        }
+        itemOfRank = new int[n];
+        for (int i = 0; i < n; i++) itemOfRank[i] = i;
+        for (int i = n - 1; i > 0; i--) {
+            int j = shuffle.nextInt(i + 1);
+            int swap = itemOfRank[i];
+            itemOfRank[i] = itemOfRank[j];
+            itemOfRank[j] = swap;
+        }
+    }
+
+    int sample(SplittableRandom random) {
+        double u = random.nextDouble() * cumulative[cumulative.length - 1];
+        int rank = Arrays.binarySearch(cumulative, u);
+        if (rank < 0) rank = -rank - 1;
+        return itemOfRank[Math.min(rank, itemOfRank.length - 1)];
+    }
+}
@@ -0,0 +1,157 @@
+package com.er.zoo.dataset;
+
+import com.er.zoo.model.Animal;
+import com.er.zoo.model.Room;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+
+/**
+ * Generates the animals and rooms of a {@link DatasetSettings} in batches, deterministically: all
+ * choices are drawn in order from one seeded random, so equal settings yield equal documents,
+ * down to the ids.
+ * <p>
+ * Animals are placed in rooms by a Zipf distribution, so a few rooms hold most of them. An
+ * ordinary animal favorites a geometrically distributed number of rooms, drawn from a second,
+ * steeper Zipf distribution, which makes a few rooms hot; collectors favorite many rooms drawn
+ * uniformly. The rooms are emitted after all animals, with {@code favoritedByAnimalIds} and
+ * {@code favoriteCount} built from the animals' choices, so both sides of the relation agree.
+ * </p>
+ */
+final class ZooDataset {
+
+    private static final int ROOM = 1;
+    private static final int ANIMAL = 2;
+    private static final Instant CREATED = Instant.parse("2024-01-01T00:00:00Z");
+    private static final LocalDate FIRST_LOCATED = LocalDate.of(2000, 1, 1);
+    private static final String[] SPECIES = {"Lion", "Tiger", "Zebra", "Giraffe", "Elephant", "Penguin",
+            "Otter", "Lemur", "Flamingo", "Rhino", "Hippo", "Gorilla", "Meerkat", "Panda", "Koala", "Wolf"};
+
+    /**
+     * What was generated: document counts, favorite edges and the extremes of the distributions.
+     */
+    record Stats(long animals, long rooms, long unassigned, long favorites,
+                 int maxAnimalsInRoom, int maxFavoritesOfRoom, int maxFavoritesOfAnimal) {}
+
+    private final DatasetSettings settings;
+
+    ZooDataset(DatasetSettings settings) {
+        this.settings = settings;
+    }
+
+    /**
+     * Passes the animals, then the rooms, to the consumers in batches of {@code batch-size}.
+     */
+    Stats generate(Consumer<List<Animal>> animalBatches, Consumer<List<Room>> roomBatches) {
+        int rooms = settings.rooms();
+        SplittableRandom random = new SplittableRandom(settings.seed());
+        ZipfDistribution occupancy = new ZipfDistribution(rooms, settings.occupancySkew(), random.split());
+        ZipfDistribution hotRooms = new ZipfDistribution(rooms, settings.favoriteSkew(), random.split());
+        String[] roomIds = new String[rooms];
+        for (int r = 0; r < rooms; r++) roomIds[r] = objectId(ROOM, r);
+
+        int[] animalsInRoom = new int[rooms];
+        int[][] favoritedBy = new int[rooms][];
+        int[] favoriteCounts = new int[rooms];
+        // chosen[room] == animal + 1 while that animal is picking its favorites
+        int[] chosen = new int[rooms];
+        double continueFavoriting = settings.favoritesPerAnimal() / (1 + settings.favoritesPerAnimal());
+        long unassigned = 0;
+        long favorites = 0;
+        int maxFavoritesOfAnimal = 0;
+
+        List<Animal> batch = new ArrayList<>(settings.batchSize());
+        for (int a = 0; a < settings.animals(); a++) {
+            Animal animal = new Animal(SPECIES[random.nextInt(SPECIES.length)] + " " + a,
+                    FIRST_LOCATED.plusDays(random.nextInt(9_000)));
+            animal.setId(objectId(ANIMAL, a));
+            animal.setCreated(CREATED.plusSeconds(a));
+            animal.setUpdated(animal.getCreated());
+            animal.setVersion(0L);
+            if (random.nextDouble() < settings.unassignedShare()) {
+                unassigned++;
+            } else {
+                int room = occupancy.sample(random);
+                animalsInRoom[room]++;
+                animal.setRoomId(roomIds[room]);
+            }
+
+            boolean collector = random.nextDouble() < settings.collectorShare();
+            int wanted = collector ? settings.collectorFavorites() : geometric(random, continueFavoriting);
+            wanted = Math.min(wanted, rooms);
+            Set<String> favoriteRoomIds = new LinkedHashSet<>();
+            // a full or already chosen room is skipped, so an animal may end up with fewer favorites
+            for (int attempts = wanted * 4 + 16; favoriteRoomIds.size() < wanted && attempts > 0; attempts--) {
+                int room = collector ? random.nextInt(rooms) : hotRooms.sample(random);
+                if (chosen[room] == a + 1 || favoriteCounts[room] >= settings.maxFavoritesPerRoom())
+                    continue;
+                chosen[room] = a + 1;
+                favoritedBy[room] = append(favoritedBy[room], favoriteCounts[room]++, a);
+                favoriteRoomIds.add(roomIds[room]);
+            }
+            animal.setFavoriteRoomIds(favoriteRoomIds);
+            favorites += favoriteRoomIds.size();
+            maxFavoritesOfAnimal = Math.max(maxFavoritesOfAnimal, favoriteRoomIds.size());
+
+            batch.add(animal);
+            if (batch.size() == settings.batchSize()) {
+                animalBatches.accept(batch);
+                batch = new ArrayList<>(settings.batchSize());
+            }
+        }
+        if (!batch.isEmpty())
+            animalBatches.accept(batch);
+
+        List<Room> roomBatch = new ArrayList<>(settings.batchSize());
+        for (int r = 0; r < rooms; r++) {
+            Set<String> favoritedByAnimalIds = new LinkedHashSet<>();
+            for (int i = 0; i < favoriteCounts[r]; i++)
+                favoritedByAnimalIds.add(objectId(ANIMAL, favoritedBy[r][i]));
+            // release the edges as soon as the room is built
+            favoritedBy[r] = null;
+            Instant created = CREATED.plusSeconds(r);
+            roomBatch.add(new Room(roomIds[r], "Room " + r, created, created, favoritedByAnimalIds, 0L));
+            if (roomBatch.size() == settings.batchSize()) {
+                roomBatches.accept(roomBatch);
+                roomBatch = new ArrayList<>(settings.batchSize());
+            }
+        }
+        if (!roomBatch.isEmpty())
+            roomBatches.accept(roomBatch);
+
+        return new Stats(settings.animals(), rooms, unassigned, favorites, Arrays.stream(animalsInRoom).max().orElse(0),
+                Arrays.stream(favoriteCounts).max().orElse(0), maxFavoritesOfAnimal);
+    }
+
+    /**
+     * Number of failures before the first success, each attempt continuing with {@code p}: mean {@code p / (1 - p)}.
+     */
+    private static int geometric(SplittableRandom random, double p) {
+        int n = 0;
+        while (random.nextDouble() < p) n++;
+        return n;
+    }
+
+    private static int[] append(int[] values, int size, int value) {
+        if (values == null) values = new int[4];
+        else if (size == values.length) values = Arrays.copyOf(values, size * 2);
+        values[size] = value;
+        return values;
+    }
+
+    /**
+     * A valid ObjectId hex string made of the document kind and its index, so ids are
+     * reproducible and never collide between rooms and animals.
+     */
+    static String objectId(int kind, long index) {
+        String hex = Long.toHexString(index);
+        return String.format("%02x", kind) + "0".repeat(22 - hex.length()) + hex;
+    }
+}
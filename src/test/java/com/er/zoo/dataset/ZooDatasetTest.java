@@ -0,0 +1,98 @@
+package com.er.zoo.dataset;
+
+import com.er.zoo.model.Animal;
+import com.er.zoo.model.Room;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the documents {@link ZooDataset} generates, without Mongo.
+ */
+class ZooDatasetTest {
+
+    private static DatasetSettings settings(int animals, int rooms, long seed, int maxFavoritesPerRoom) {
+        return new DatasetSettings("mongodb://localhost/unused", animals, rooms, seed,
+                1.0, 0.05, 1.2, 1.0, 0.01, 40, maxFavoritesPerRoom, 100, 1, false);
+    }
+
+    private record Generated(List<Animal> animals, List<Room> rooms, ZooDataset.Stats stats) {}
+
+    private static Generated generate(DatasetSettings settings) {
+        List<Animal> animals = new ArrayList<>();
+        List<Room> rooms = new ArrayList<>();
+        var stats = new ZooDataset(settings).generate(animals::addAll, rooms::addAll);
+        return new Generated(animals, rooms, stats);
+    }
+
+    @Test
+    @DisplayName("Favorites should be recorded on both the animal and the room")
+    void shouldBuildFavoritesOnBothSides() {
+        var generated = generate(settings(5_000, 200, 42, 50_000));
+        Map<String, Room> rooms = generated.rooms().stream().collect(Collectors.toMap(Room::getId, Function.identity()));
+        Map<String, Animal> animals = generated.animals().stream().collect(Collectors.toMap(Animal::getId, Function.identity()));
+
+        long edges = 0;
+        for (Animal animal : generated.animals()) {
+            for (String roomId : animal.getFavoriteRoomIds())
+                assertTrue(rooms.get(roomId).getFavoritedByAnimalIds().contains(animal.getId()));
+            edges += animal.getFavoriteRoomIds().size();
+        }
+        for (Room room : generated.rooms()) {
+            assertEquals(room.getFavoritedByAnimalIds().size(), room.getFavoriteCount());
+            for (String animalId : room.getFavoritedByAnimalIds())
+                assertTrue(animals.get(animalId).getFavoriteRoomIds().contains(room.getId()));
+        }
+        assertEquals(edges, generated.stats().favorites());
+        assertEquals(5_000, generated.animals().size());
+        assertEquals(200, generated.rooms().size());
+    }
+
+    @Test
+    @DisplayName("The same seed should produce the same documents")
+    void shouldBeDeterministic() {
+        var first = generate(settings(2_000, 100, 7, 50_000));
+        var second = generate(settings(2_000, 100, 7, 50_000));
+        var other = generate(settings(2_000, 100, 8, 50_000));
+
+        assertEquals(first.animals(), second.animals());
+        assertEquals(first.rooms(), second.rooms());
+        assertNotEquals(first.animals(), other.animals());
+    }
+
+    @Test
+    @DisplayName("Occupancy and favorites should be skewed, collectors should favorite many rooms and rooms should stay capped")
+    void shouldSkewDistributions() {
+        var generated = generate(settings(20_000, 500, 42, 300));
+        var stats = generated.stats();
+
+        int averageInRoom = (int) ((stats.animals() - stats.unassigned()) / stats.rooms());
+        assertTrue(stats.maxAnimalsInRoom() > 20 * averageInRoom, stats.toString());
+        assertEquals(300, stats.maxFavoritesOfRoom());
+        assertTrue(generated.rooms().stream().allMatch(room -> room.getFavoriteCount() <= 300));
+        assertTrue(stats.maxFavoritesOfAnimal() >= 30, stats.toString());
+        assertTrue(stats.unassigned() > 0);
+        assertEquals(stats.unassigned(), generated.animals().stream().filter(a -> a.getRoomId() == null).count());
+    }
+
+    @Test
+    @DisplayName("Ids should be valid, distinct ObjectIds")
+    void shouldGenerateObjectIds() {
+        var generated = generate(settings(1_000, 50, 42, 50_000));
+        Set<String> ids = generated.animals().stream().map(Animal::getId).collect(Collectors.toSet());
+        generated.rooms().forEach(room -> ids.add(room.getId()));
+
+        assertEquals(1_050, ids.size());
+        assertTrue(ids.stream().allMatch(ObjectId::isValid));
+        assertEquals("0200000000000000000000ff", ZooDataset.objectId(2, 255));
+    }
+}
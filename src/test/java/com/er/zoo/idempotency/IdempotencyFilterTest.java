@@ -0,0 +1,195 @@
+package com.er.zoo.idempotency;
+
+import com.er.zoo.exception.DuplicateRequestException;
+import com.er.zoo.logging.LoggerService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.servlet.ModelAndView;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Unit tests for {@link IdempotencyFilter} on top of the in-memory store.
+ */
+class IdempotencyFilterTest {
+
+    private static final String BODY = "{\"id\":\"r1\",\"title\":\"Paradise\"}";
+
+    private InMemoryIdempotencyStore store;
+    private IdempotencyFilter filter;
+    private AtomicInteger executions;
+
+    @BeforeEach
+    void setUp() {
+        store = new InMemoryIdempotencyStore(Duration.ofMinutes(1), Duration.ofHours(24));
+        HandlerExceptionResolver conflict = (request, response, handler, ex) -> {
+            assertInstanceOf(DuplicateRequestException.class, ex);
+            response.setStatus(HttpServletResponse.SC_CONFLICT);
+            return new ModelAndView();
+        };
+        filter = new IdempotencyFilter(store, conflict, mock(LoggerService.class), Duration.ofSeconds(2));
+        executions = new AtomicInteger();
+    }
+
+    private FilterChain created() {
+        return (request, response) -> {
+            executions.incrementAndGet();
+            var http = (HttpServletResponse) response;
+            http.setStatus(201);
+            http.setHeader("ETag", "\"0\"");
+            http.setHeader("Location", "/rooms/r1");
+            http.setContentType("application/json");
+            http.getOutputStream().write(BODY.getBytes(StandardCharsets.UTF_8));
+        };
+    }
+
+    private MockHttpServletResponse post(String uri, String key, FilterChain chain) throws Exception {
+        var request = new MockHttpServletRequest("POST", uri);
+        request.addHeader(IdempotencyFilter.HEADER, key);
+        var response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    @Test
+    @DisplayName("Duplicate request should replay the first response without running the handler again")
+    void shouldReplayFirstResponse() throws Exception {
+        var first = post("/api/v1/rooms", "k1", created());
+        var second = post("/api/v1/rooms", "k1", created());
+
+        assertEquals(1, executions.get());
+        assertEquals(201, second.getStatus());
+        assertArrayEquals(first.getContentAsByteArray(), second.getContentAsByteArray());
+        assertEquals("\"0\"", second.getHeader("ETag"));
+        assertEquals("/rooms/r1", second.getHeader("Location"));
+        assertEquals("application/json", second.getContentType());
+        assertEquals("true", second.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertNull(first.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+    }
+
+    @Test
+    @DisplayName("Failed request should release the key so a retry runs again")
+    void shouldReleaseKeyOnFailure() throws Exception {
+        var failed = post("/api/v1/rooms", "k1", (request, response) -> {
+            executions.incrementAndGet();
+            ((HttpServletResponse) response).setStatus(400);
+        });
+        var retried = post("/api/v1/rooms", "k1", created());
+
+        assertEquals(400, failed.getStatus());
+        assertEquals(201, retried.getStatus());
+        assertEquals(2, executions.get());
+        assertNull(retried.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+    }
+
+    @Test
+    @DisplayName("Succeeded request whose response cannot be recorded should keep the key claimed")
+    void shouldKeepKeyWhenRecordingFails() throws Exception {
+        var failingStore = new InMemoryIdempotencyStore(Duration.ofMinutes(1), Duration.ofHours(24)) {
+            @Override
+            public void complete(String key, IdempotentResponse response) {
+                throw new DataAccessResourceFailureException("down");
+            }
+        };
+        HandlerExceptionResolver conflict = (request, response, handler, ex) -> {
+            response.setStatus(HttpServletResponse.SC_CONFLICT);
+            return new ModelAndView();
+        };
+        filter = new IdempotencyFilter(failingStore, conflict, mock(LoggerService.class), Duration.ofMillis(100));
+
+        var first = post("/api/v1/rooms", "k1", created());
+        var retried = post("/api/v1/rooms", "k1", created());
+
+        assertEquals(201, first.getStatus());
+        assertEquals(BODY, first.getContentAsString());
+        assertEquals(409, retried.getStatus());
+        assertEquals(1, executions.get());
+        assertFalse(failingStore.tryRegister("k1"));
+    }
+
+    @Test
+    @DisplayName("Request arriving while the first is in flight should wait for it and replay its response")
+    void shouldWaitForInFlightRequest() throws Exception {
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        FilterChain slow = (request, response) -> {
+            started.countDown();
+            try {
+                assertTrue(release.await(5, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            created().doFilter(request, response);
+        };
+
+        var first = CompletableFuture.supplyAsync(() -> uncheckedPost("k1", slow));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        var duplicate = CompletableFuture.supplyAsync(() -> uncheckedPost("k1", created()));
+        release.countDown();
+
+        assertEquals(201, first.get(5, TimeUnit.SECONDS).getStatus());
+        var replayed = duplicate.get(5, TimeUnit.SECONDS);
+        assertEquals(201, replayed.getStatus());
+        assertEquals(BODY, replayed.getContentAsString());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    @DisplayName("Key reused on another endpoint should be rejected with 409")
+    void shouldRejectKeyReusedOnOtherEndpoint() throws Exception {
+        post("/api/v1/rooms", "k1", created());
+        var other = post("/api/v1/animals", "k1", created());
+
+        assertEquals(409, other.getStatus());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    @DisplayName("POSTs to other endpoints, such as the NDJSON import, should pass through and leave the key unregistered")
+    void shouldIgnoreOtherEndpoints() throws Exception {
+        var request = new MockHttpServletRequest("POST", "/api/v1/animals/import");
+        request.addHeader(IdempotencyFilter.HEADER, "k1");
+        request.setContentType("application/x-ndjson");
+        filter.doFilter(request, new MockHttpServletResponse(), created());
+        filter.doFilter(request, new MockHttpServletResponse(), created());
+        var move = new MockHttpServletRequest("POST", "/api/v1/animals/a1/move/r1");
+        move.addHeader(IdempotencyFilter.HEADER, "k1");
+        filter.doFilter(move, new MockHttpServletResponse(), created());
+
+        assertEquals(3, executions.get());
+        assertTrue(store.tryRegister("k1"));
+    }
+
+    @Test
+    @DisplayName("Requests without an Idempotency-Key should pass through")
+    void shouldIgnoreRequestsWithoutKey() throws Exception {
+        var request = new MockHttpServletRequest("POST", "/api/v1/rooms");
+        filter.doFilter(request, new MockHttpServletResponse(), created());
+        filter.doFilter(request, new MockHttpServletResponse(), created());
+
+        assertEquals(2, executions.get());
+    }
+
+    private MockHttpServletResponse uncheckedPost(String key, FilterChain chain) {
+        try {
+            return post("/api/v1/rooms", key, chain);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
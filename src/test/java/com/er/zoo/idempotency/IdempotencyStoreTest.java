@@ -0,0 +1,183 @@
+package com.er.zoo.idempotency;
+
+import com.er.zoo.model.IdempotencyRecord;
+import com.er.zoo.repository.IdempotencyRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the {@link IdempotencyStore} implementations.
+ */
+class IdempotencyStoreTest {
+
+    private static final Duration LEASE = Duration.ofMinutes(1);
+    private static final Duration TTL = Duration.ofHours(24);
+
+    @Test
+    @DisplayName("Mongo store should insert once and treat duplicate key as a duplicate request")
+    void mongoStoreShouldUseInsertOnly() {
+        IdempotencyRepository repository = mock(IdempotencyRepository.class);
+        when(repository.insert(any(IdempotencyRecord.class)))
+                .thenReturn(new IdempotencyRecord("k1", Instant.now().plus(LEASE)))
+                .thenThrow(new DuplicateKeyException("E11000"));
+        MongoTemplate template = mock(MongoTemplate.class);
+        when(template.updateFirst(any(Query.class), any(Update.class), eq(IdempotencyRecord.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+        var store = new MongoIdempotencyStore(repository, template, LEASE, TTL);
+
+        assertTrue(store.tryRegister("k1"));
+        assertFalse(store.tryRegister("k1"));
+        verify(repository, never()).existsById(any());
+    }
+
+    @Test
+    @DisplayName("Mongo store should take over a key whose in-flight lease has run out, and extend a completed key to the TTL")
+    void mongoStoreShouldTakeOverExpiredLease() {
+        IdempotencyRepository repository = mock(IdempotencyRepository.class);
+        MongoTemplate template = mock(MongoTemplate.class);
+        when(repository.insert(any(IdempotencyRecord.class))).thenThrow(new DuplicateKeyException("E11000"));
+        when(template.updateFirst(any(Query.class), any(Update.class), eq(IdempotencyRecord.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null), UpdateResult.acknowledged(0, 0L, null));
+        var store = new MongoIdempotencyStore(repository, template, LEASE, TTL);
+
+        assertTrue(store.tryRegister("k1"));
+        assertFalse(store.tryRegister("k1"));
+        var takeOver = ArgumentCaptor.forClass(Query.class);
+        verify(template, times(2)).updateFirst(takeOver.capture(), any(Update.class), eq(IdempotencyRecord.class));
+        var criteria = takeOver.getValue().getQueryObject();
+        assertEquals("k1", criteria.get("_id"));
+        assertTrue(criteria.containsKey("status"));
+        assertTrue(criteria.containsKey("expiresAt"));
+
+        Instant before = Instant.now();
+        store.complete("k1", new IdempotentResponse("/api/v1/rooms", 201, Map.of(), new byte[0]));
+        var completion = ArgumentCaptor.forClass(Update.class);
+        verify(template, times(3)).updateFirst(any(Query.class), completion.capture(), eq(IdempotencyRecord.class));
+        var expiresAt = (Instant) completion.getValue().getUpdateObject().get("$set", Document.class).get("expiresAt");
+        assertFalse(expiresAt.isBefore(before.plus(TTL)));
+    }
+
+    @Test
+    @DisplayName("Mongo store should propagate backend failures instead of reporting duplicates")
+    void mongoStoreShouldPropagateFailures() {
+        IdempotencyRepository repository = mock(IdempotencyRepository.class);
+        when(repository.insert(any(IdempotencyRecord.class))).thenThrow(new DataAccessResourceFailureException("down"));
+
+        assertThrows(DataAccessResourceFailureException.class, () -> new MongoIdempotencyStore(repository, mock(MongoTemplate.class), LEASE, TTL).tryRegister("k1"));
+    }
+
+    @Test
+    @DisplayName("Redis store should use SET NX with the in-flight lease")
+    @SuppressWarnings("unchecked")
+    void redisStoreShouldSetIfAbsent() {
+        StringRedisTemplate template = mock(StringRedisTemplate.class);
+        ValueOperations<String, String> ops = mock(ValueOperations.class);
+        when(template.opsForValue()).thenReturn(ops);
+        when(ops.setIfAbsent("zoo:idempotency:k1", "1", LEASE)).thenReturn(true, false);
+        var store = new RedisIdempotencyStore(template, new ObjectMapper(), LEASE, TTL);
+
+        assertTrue(store.tryRegister("k1"));
+        assertFalse(store.tryRegister("k1"));
+    }
+
+    @Test
+    @DisplayName("Redis store should round-trip the recorded response and treat the placeholder as in flight")
+    @SuppressWarnings("unchecked")
+    void redisStoreShouldRecordResponse() {
+        StringRedisTemplate template = mock(StringRedisTemplate.class);
+        ValueOperations<String, String> ops = mock(ValueOperations.class);
+        when(template.opsForValue()).thenReturn(ops);
+        var store = new RedisIdempotencyStore(template, new ObjectMapper(), LEASE, TTL);
+        var response = new IdempotentResponse("/api/v1/rooms", 201, Map.of("ETag", "\"0\""), "{\"id\":\"r1\"}".getBytes());
+
+        when(ops.get("zoo:idempotency:k1")).thenReturn("1");
+        assertTrue(store.find("k1").isEmpty());
+
+        store.complete("k1", response);
+        var json = ArgumentCaptor.forClass(String.class);
+        verify(ops).set(eq("zoo:idempotency:k1"), json.capture(), eq(TTL));
+        when(ops.get("zoo:idempotency:k1")).thenReturn(json.getValue());
+
+        var found = store.find("k1").orElseThrow();
+        assertEquals(201, found.status());
+        assertEquals(response.headers(), found.headers());
+        assertArrayEquals(response.body(), found.body());
+    }
+
+    @Test
+    @DisplayName("In-memory store should keep keys in flight until completed and forget released keys")
+    void inMemoryStoreShouldRecordAndRelease() {
+        var store = new InMemoryIdempotencyStore(LEASE, TTL);
+        var response = new IdempotentResponse("/api/v1/rooms", 201, Map.of(), new byte[]{1, 2});
+
+        assertTrue(store.tryRegister("k1"));
+        assertEquals(Optional.empty(), store.find("k1"));
+        store.complete("k1", response);
+        assertSame(response, store.find("k1").orElseThrow());
+        assertFalse(store.tryRegister("k1"));
+
+        assertTrue(store.tryRegister("k2"));
+        store.release("k2");
+        assertTrue(store.tryRegister("k2"));
+    }
+
+    @Test
+    @DisplayName("In-memory store should free an in-flight key after the lease but keep a completed one")
+    void inMemoryStoreShouldExpireInFlightKeysAfterLease() throws Exception {
+        var store = new InMemoryIdempotencyStore(Duration.ofMillis(50), TTL);
+
+        assertTrue(store.tryRegister("crashed"));
+        assertTrue(store.tryRegister("done"));
+        store.complete("done", new IdempotentResponse("/api/v1/rooms", 201, Map.of(), new byte[0]));
+        TimeUnit.MILLISECONDS.sleep(150);
+
+        assertTrue(store.tryRegister("crashed"));
+        assertFalse(store.tryRegister("done"));
+        assertTrue(store.find("done").isPresent());
+    }
+
+    @Test
+    @DisplayName("In-memory store should register a key exactly once under concurrency")
+    void inMemoryStoreShouldRegisterOnce() throws Exception {
+        var store = new InMemoryIdempotencyStore(LEASE, TTL);
+        var registered = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            var futures = IntStream.range(0, 64)
+                    .mapToObj(i -> pool.submit(() -> { if (store.tryRegister("same")) registered.incrementAndGet(); }))
+                    .toList();
+            for (Future<?> f : futures) f.get();
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(1, registered.get());
+        assertTrue(store.tryRegister("other"));
+    }
+}
@@ -0,0 +1,40 @@
+package com.er.zoo.idempotency;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link TimedIdempotencyStore} over the in-memory store.
+ */
+class TimedIdempotencyStoreTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final IdempotencyStore store =
+            new TimedIdempotencyStore(new InMemoryIdempotencyStore(Duration.ofMinutes(1), Duration.ofHours(24)), registry, "memory");
+
+    private long count(String operation) {
+        return registry.get(TimedIdempotencyStore.METRIC).tags("store", "memory", "operation", operation).timer().count();
+    }
+
+    @Test
+    @DisplayName("Should time each store operation and keep the delegate's results")
+    void shouldTimeOperations() {
+        assertTrue(store.tryRegister("k1"));
+        assertFalse(store.tryRegister("k1"));
+        store.complete("k1", new IdempotentResponse("/api/v1/rooms", 201, Map.of(), new byte[0]));
+        assertEquals(201, store.find("k1").orElseThrow().status());
+        store.release("k1");
+        assertTrue(store.find("k1").isEmpty());
+
+        assertEquals(2, count("register"));
+        assertEquals(1, count("complete"));
+        assertEquals(2, count("find"));
+        assertEquals(1, count("release"));
+    }
+}
@@ -0,0 +1,116 @@
+package com.er.zoo.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-route latency histograms, outcome counts and throughput of a measured load phase.
+ * <p>
+ * Latency is taken from the time a request was scheduled to start, not from when it was sent, so
+ * a server that falls behind is charged for the queueing it causes. Each route's histogram is
+ * also written in HdrHistogram's compressed, base64 form, so runs can be merged or re-plotted.
+ * </p>
+ */
+final class LoadReport {
+
+    record Latency(double mean, double p50, double p90, double p99, double p999, double max) {}
+
+    record RouteResult(String route, long requests, long errors, double throughputPerSecond,
+                       Map<String, Long> outcomes, Latency latencyMillis, String histogram) {}
+
+    record Result(Map<String, Object> settings, double seconds, RouteResult total, Map<String, RouteResult> routes) {}
+
+    private static final class RouteStats {
+        final Histogram micros = new ConcurrentHistogram(3);
+        final LongAdder errors = new LongAdder();
+        final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+
+        void record(long micros, String outcome, boolean error) {
+            this.micros.recordValue(Math.max(1, micros));
+            outcomes.computeIfAbsent(outcome, o -> new LongAdder()).increment();
+            if (error) errors.increment();
+        }
+
+        RouteResult result(String route, double seconds) {
+            long requests = micros.getTotalCount();
+            Map<String, Long> counts = new TreeMap<>();
+            outcomes.forEach((outcome, count) -> counts.put(outcome, count.sum()));
+            return new RouteResult(route, requests, errors.sum(), requests / seconds, counts,
+                    new Latency(millis(micros.getMean()), millis(micros.getValueAtPercentile(50)),
+                            millis(micros.getValueAtPercentile(90)), millis(micros.getValueAtPercentile(99)),
+                            millis(micros.getValueAtPercentile(99.9)), millis(micros.getMaxValue())),
+                    encode(micros));
+        }
+    }
+
+    private final Map<String, RouteStats> routes = new LinkedHashMap<>();
+    private final RouteStats total = new RouteStats();
+
+    LoadReport(List<RouteMix.Route> routes) {
+        routes.forEach(route -> this.routes.put(route.name(), new RouteStats()));
+    }
+
+    /**
+     * Records one completed request.
+     * @param scheduledNanos {@link System#nanoTime()} at which the request was due to start
+     * @param outcome        the status code, or the exception for requests that got no response
+     * @param error          whether the outcome counts as an error
+     */
+    void record(RouteMix.Route route, long scheduledNanos, String outcome, boolean error) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - scheduledNanos);
+        routes.get(route.name()).record(micros, outcome, error);
+        total.record(micros, outcome, error);
+    }
+
+    Result result(Map<String, Object> settings, RouteMix mix, double seconds) {
+        Map<String, RouteResult> results = new LinkedHashMap<>();
+        for (RouteMix.Route route : mix.routes())
+            results.put(route.name(), routes.get(route.name()).result(route.template(), seconds));
+        return new Result(settings, seconds, total.result("total", seconds), results);
+    }
+
+    static void write(Result result, Path output) throws IOException {
+        if (output.getParent() != null)
+            Files.createDirectories(output.getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(output.toFile(), result);
+    }
+
+    static String format(Result result) {
+        StringBuilder out = new StringBuilder(String.format("%-50s %9s %7s %9s %9s %9s %9s %9s%n",
+                "route", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms"));
+        result.routes().values().forEach(route -> out.append(line(route)));
+        return out.append(line(result.total())).toString();
+    }
+
+    private static String line(RouteResult route) {
+        Latency latency = route.latencyMillis();
+        return String.format("%-50s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n", route.route(), route.requests(),
+                route.errors(), route.throughputPerSecond(), latency.p50(), latency.p99(), latency.p999(), latency.max());
+    }
+
+    private static double millis(double micros) {
+        return micros / 1000.0;
+    }
+
+    private static String encode(Histogram histogram) {
+        ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+        return Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), length));
+    }
+}
@@ -0,0 +1,178 @@
+package com.er.zoo.loadtest;
+
+import com.er.zoo.ZooApplication;
+import com.er.zoo.model.Animal;
+import com.er.zoo.model.Room;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.testcontainers.containers.MongoDBContainer;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * End-to-end load test: boots the application against Mongo, seeds a zoo of
+ * {@code zoo.loadtest.rooms} rooms and {@code zoo.loadtest.animals} animals, then drives the
+ * {@link RouteMix} at a fixed arrival rate and writes a {@link LoadReport} as JSON.
+ * <p>
+ * The load is an open model: requests are started on schedule, {@code 1/rate} apart, each on its own
+ * virtual thread, whether or not earlier ones have completed, and latency is measured from the
+ * scheduled start. A slow server therefore shows up as growing latency rather than as a lower
+ * request rate (no coordinated omission). Run with {@code ./gradlew loadTest}; see
+ * {@link LoadTestSettings} for the parameters.
+ * </p>
+ */
+@Tag("loadtest")
+class LoadTest {
+
+    private static final int SEED_BATCH = 1_000;
+
+    @Test
+    void fixedArrivalRate() throws Exception {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+        MongoDBContainer mongo = null;
+        String mongoUri = settings.mongoUri();
+        if (mongoUri == null) {
+            mongo = new MongoDBContainer("mongo:7.0.2");
+            mongo.start();
+            mongoUri = mongo.getReplicaSetUrl();
+        }
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ZooApplication.class)
+                .properties(
+                        "spring.data.mongodb.uri=" + mongoUri,
+                        "server.port=0",
+                        "logging.level.root=WARN")
+                .run()) {
+            RouteMix.Zoo zoo = seed(context.getBean(MongoTemplate.class), settings);
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            RouteMix mix = new RouteMix(URI.create("http://localhost:" + port), zoo, settings.weights(), settings.timeout());
+            Random random = new Random(settings.seed());
+
+            try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor();
+                 HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).executor(clients).build()) {
+                drive(http, mix, random, settings.rate(), settings.warmup(), new LoadReport(mix.routes()));
+
+                LoadReport report = new LoadReport(mix.routes());
+                long start = System.nanoTime();
+                drive(http, mix, random, settings.rate(), settings.duration(), report);
+                double seconds = (System.nanoTime() - start) / 1e9;
+
+                LoadReport.Result result = report.result(settings(settings, mongo != null), mix, seconds);
+                LoadReport.write(result, settings.output());
+                System.out.print(LoadReport.format(result));
+                System.out.println("Report written to " + settings.output().toAbsolutePath());
+                assertTrue(result.total().requests() > 0);
+            }
+        } finally {
+            if (mongo != null) mongo.stop();
+        }
+    }
+
+    /**
+     * Starts {@code rate} requests per second for {@code duration} and returns once all of them
+     * have completed or timed out.
+     */
+    private static void drive(HttpClient http, RouteMix mix, Random random, int rate, Duration duration,
+                              LoadReport report) {
+        long interval = 1_000_000_000L / rate;
+        long requests = duration.toNanos() / interval;
+        try (ExecutorService inFlight = Executors.newVirtualThreadPerTaskExecutor()) {
+            long start = System.nanoTime();
+            for (long i = 0; i < requests; i++) {
+                long scheduled = start + i * interval;
+                long wait = scheduled - System.nanoTime();
+                if (wait > 0) LockSupport.parkNanos(wait);
+                RouteMix.Route route = mix.next(random);
+                var request = route.factory().create(random).build();
+                inFlight.execute(() -> {
+                    try {
+                        int status = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        report.record(route, scheduled, Integer.toString(status), status >= 400);
+                    } catch (HttpTimeoutException e) {
+                        report.record(route, scheduled, "timeout", true);
+                    } catch (Exception e) {
+                        report.record(route, scheduled, e.getClass().getSimpleName(), true);
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Inserts the rooms and animals in bulk. Animals are spread evenly over the rooms, and every
+     * fourth one favorites a room, with both sides of the relation kept consistent.
+     */
+    private static RouteMix.Zoo seed(MongoTemplate mongoTemplate, LoadTestSettings settings) {
+        mongoTemplate.remove(new Query(), Animal.class);
+        mongoTemplate.remove(new Query(), Room.class);
+        List<String> roomIds = new ArrayList<>();
+        for (int r = 0; r < settings.rooms(); r++) roomIds.add(new ObjectId().toHexString());
+        List<String> animalIds = new ArrayList<>();
+        List<Set<String>> favoritedBy = new ArrayList<>();
+        roomIds.forEach(id -> favoritedBy.add(new HashSet<>()));
+
+        List<Animal> animals = new ArrayList<>();
+        for (int a = 0; a < settings.animals(); a++) {
+            Animal animal = new Animal("Animal " + a, LocalDate.of(2015, 1, 1).plusDays(a % 3650));
+            animal.setId(new ObjectId().toHexString());
+            animal.setRoomId(roomIds.get(a % roomIds.size()));
+            if (a % 4 == 0) {
+                int favorite = (a * 7) % roomIds.size();
+                animal.getFavoriteRoomIds().add(roomIds.get(favorite));
+                favoritedBy.get(favorite).add(animal.getId());
+            }
+            animalIds.add(animal.getId());
+            animals.add(animal);
+            if (animals.size() == SEED_BATCH) {
+                mongoTemplate.insert(animals, Animal.class);
+                animals.clear();
+            }
+        }
+        if (!animals.isEmpty())
+            mongoTemplate.insert(animals, Animal.class);
+
+        List<Room> rooms = new ArrayList<>();
+        for (int r = 0; r < roomIds.size(); r++)
+            rooms.add(new Room(roomIds.get(r), "Room " + r, null, null, favoritedBy.get(r), 0L));
+        mongoTemplate.insert(rooms, Room.class);
+        return new RouteMix.Zoo(roomIds, animalIds);
+    }
+
+    private static Map<String, Object> settings(LoadTestSettings settings, boolean testcontainers) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("rooms", settings.rooms());
+        values.put("animals", settings.animals());
+        values.put("ratePerSecond", settings.rate());
+        values.put("warmup", settings.warmup().toString());
+        values.put("duration", settings.duration().toString());
+        values.put("timeout", settings.timeout().toString());
+        values.put("mongo", testcontainers ? "testcontainers" : "external");
+        Map<String, Integer> weights = new LinkedHashMap<>(RouteMix.DEFAULT_WEIGHTS);
+        weights.putAll(settings.weights());
+        values.put("weights", weights);
+        values.put("seed", settings.seed());
+        return values;
+    }
+}
@@ -0,0 +1,61 @@
+package com.er.zoo.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Settings of a load-test run, read from {@code zoo.loadtest.*} system properties; the
+ * {@code loadTest} task forwards Gradle properties of the same names, e.g.
+ * {@code ./gradlew loadTest -Pzoo.loadtest.rate=1000 -Pzoo.loadtest.animals=100000}.
+ *
+ * @param rooms       rooms seeded before the run
+ * @param animals     animals seeded before the run, spread over the rooms
+ * @param rate        requests started per second, whether or not earlier ones have completed
+ * @param warmup      load applied before measuring
+ * @param duration    measured load
+ * @param timeout     per-request timeout; a request that times out counts as an error
+ * @param mongoUri    an existing Mongo to run against; a Testcontainers Mongo is started when {@code null}
+ * @param output      JSON report
+ * @param weights     route name to relative weight, overriding {@link RouteMix#DEFAULT_WEIGHTS}
+ * @param seed        seed of the route and id choices, so runs issue the same request sequence
+ */
+public record LoadTestSettings(int rooms, int animals, int rate, Duration warmup, Duration duration, Duration timeout,
+                               String mongoUri, Path output, Map<String, Integer> weights, long seed) {
+
+    private static final String PREFIX = "zoo.loadtest.";
+
+    public static LoadTestSettings fromSystemProperties() {
+        return new LoadTestSettings(
+                Integer.parseInt(property("rooms", "200")),
+                Integer.parseInt(property("animals", "20000")),
+                Integer.parseInt(property("rate", "500")),
+                Duration.parse(property("warmup", "PT15S")),
+                Duration.parse(property("duration", "PT60S")),
+                Duration.parse(property("timeout", "PT10S")),
+                System.getProperty(PREFIX + "mongo-uri"),
+                Path.of(property("output", "build/reports/loadtest/loadtest.json")),
+                weights(property("weights", "")),
+                Long.parseLong(property("seed", "42")));
+    }
+
+    private static String property(String name, String defaultValue) {
+        return System.getProperty(PREFIX + name, defaultValue);
+    }
+
+    /**
+     * Parses {@code getAnimal=40,createAnimal=0,...}.
+     */
+    private static Map<String, Integer> weights(String value) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String entry : value.split(",")) {
+            if (entry.isBlank()) continue;
+            String[] parts = entry.split("=", 2);
+            if (parts.length != 2)
+                throw new IllegalArgumentException("Expected route=weight, got " + entry);
+            weights.put(parts[0].trim(), Integer.parseInt(parts[1].trim()));
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,158 @@
+package com.er.zoo.loadtest;
+
+import com.er.zoo.enums.SortField;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Weighted mix of the {@code AnimalController} and {@code RoomController} routes. Each route builds
+ * its request from the seeded ids; {@link #next(Random)} picks one by weight.
+ */
+final class RouteMix {
+
+    /**
+     * Read-heavy default: about four reads for every write.
+     */
+    static final Map<String, Integer> DEFAULT_WEIGHTS = defaultWeights();
+
+    record Route(String name, String template, RequestFactory factory) {}
+
+    @FunctionalInterface
+    interface RequestFactory {
+        HttpRequest.Builder create(Random random);
+    }
+
+    /**
+     * Ids seeded before the run.
+     */
+    record Zoo(List<String> roomIds, List<String> animalIds) {
+        String room(Random random) {
+            return roomIds.get(random.nextInt(roomIds.size()));
+        }
+
+        String animal(Random random) {
+            return animalIds.get(random.nextInt(animalIds.size()));
+        }
+    }
+
+    private final List<Route> routes = new ArrayList<>();
+    private final int[] cumulativeWeights;
+    private final int totalWeight;
+
+    RouteMix(URI baseUri, Zoo zoo, Map<String, Integer> weightOverrides, Duration timeout) {
+        Map<String, Route> all = routes(baseUri, zoo);
+        Map<String, Integer> weights = new LinkedHashMap<>(DEFAULT_WEIGHTS);
+        weightOverrides.forEach((name, weight) -> {
+            if (!all.containsKey(name))
+                throw new IllegalArgumentException("Unknown route " + name + ", expected one of " + all.keySet());
+            weights.put(name, weight);
+        });
+        int total = 0;
+        List<Integer> cumulative = new ArrayList<>();
+        for (var entry : weights.entrySet()) {
+            if (entry.getValue() <= 0) continue;
+            Route route = all.get(entry.getKey());
+            routes.add(new Route(route.name(), route.template(),
+                    random -> route.factory().create(random).timeout(timeout)));
+            total += entry.getValue();
+            cumulative.add(total);
+        }
+        if (total == 0)
+            throw new IllegalArgumentException("At least one route needs a positive weight");
+        this.cumulativeWeights = cumulative.stream().mapToInt(Integer::intValue).toArray();
+        this.totalWeight = total;
+    }
+
+    List<Route> routes() {
+        return routes;
+    }
+
+    Route next(Random random) {
+        int pick = random.nextInt(totalWeight);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (pick < cumulativeWeights[i])
+                return routes.get(i);
+        }
+        throw new IllegalStateException("Weight " + pick + " out of range");
+    }
+
+    private static Map<String, Integer> defaultWeights() {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        weights.put("getAnimal", 30);
+        weights.put("getRoom", 10);
+        weights.put("animalsInRoom", 20);
+        weights.put("animalsInRoomAfter", 5);
+        weights.put("favoriteRooms", 5);
+        weights.put("multiGetAnimals", 5);
+        weights.put("createAnimal", 5);
+        weights.put("updateAnimal", 10);
+        weights.put("moveAnimal", 5);
+        weights.put("assignFavorite", 5);
+        return weights;
+    }
+
+    private static Map<String, Route> routes(URI base, Zoo zoo) {
+        Map<String, Route> routes = new LinkedHashMap<>();
+        add(routes, "getAnimal", "GET /api/v1/animals/{id}", random ->
+                get(base, "/api/v1/animals/" + zoo.animal(random)));
+        add(routes, "getRoom", "GET /api/v1/rooms/{id}", random ->
+                get(base, "/api/v1/rooms/" + zoo.room(random)));
+        add(routes, "animalsInRoom", "GET /api/v1/rooms/{roomId}/animals", random ->
+                get(base, "/api/v1/rooms/" + zoo.room(random) + "/animals?sort=" + sort(random)
+                        + "&order=ASC&page=" + random.nextInt(3) + "&size=20"));
+        add(routes, "animalsInRoomAfter", "GET /api/v1/rooms/{roomId}/animals?after", random ->
+                get(base, "/api/v1/rooms/" + zoo.room(random) + "/animals?sort=" + sort(random)
+                        + "&order=ASC&size=20&after="));
+        add(routes, "favoriteRooms", "GET /api/v1/rooms/favorites", random ->
+                get(base, "/api/v1/rooms/favorites?page=0&size=20"));
+        add(routes, "multiGetAnimals", "GET /api/v1/animals?ids", random ->
+                get(base, "/api/v1/animals?ids=" + IntStream.range(0, 20)
+                        .mapToObj(i -> zoo.animal(random)).collect(Collectors.joining(","))));
+        add(routes, "createAnimal", "POST /api/v1/animals", random ->
+                json(base, "/api/v1/animals", "POST", animalJson(random))
+                        .header("Idempotency-Key", new UUID(random.nextLong(), random.nextLong()).toString()));
+        add(routes, "updateAnimal", "PUT /api/v1/animals/{id}", random ->
+                json(base, "/api/v1/animals/" + zoo.animal(random), "PUT", animalJson(random)));
+        add(routes, "moveAnimal", "POST /api/v1/animals/{animalId}/move/{roomId}", random ->
+                HttpRequest.newBuilder(base.resolve("/api/v1/animals/" + zoo.animal(random) + "/move/" + zoo.room(random)))
+                        .POST(HttpRequest.BodyPublishers.noBody()));
+        add(routes, "assignFavorite", "POST /api/v1/animals/{animalId}/favorites", random ->
+                json(base, "/api/v1/animals/" + zoo.animal(random) + "/favorites", "POST",
+                        "{\"roomIds\":[\"" + zoo.room(random) + "\"]}"));
+        return routes;
+    }
+
+    private static void add(Map<String, Route> routes, String name, String template, RequestFactory factory) {
+        routes.put(name, new Route(name, template, factory));
+    }
+
+    private static HttpRequest.Builder get(URI base, String path) {
+        return HttpRequest.newBuilder(base.resolve(path)).GET();
+    }
+
+    private static HttpRequest.Builder json(URI base, String path, String method, String body) {
+        return HttpRequest.newBuilder(base.resolve(path))
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body));
+    }
+
+    private static String sort(Random random) {
+        return SortField.values()[random.nextInt(SortField.values().length)].name();
+    }
+
+    private static String animalJson(Random random) {
+        return "{\"title\":\"Load " + random.nextInt(1_000_000) + "\",\"located\":\""
+                + LocalDate.of(2020, 1, 1).plusDays(random.nextInt(1500)) + "\"}";
+    }
+}
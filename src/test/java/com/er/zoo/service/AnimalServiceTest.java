@@ -1,25 +1,43 @@
 package com.er.zoo.service;
 
+import com.er.zoo.cache.AnimalsInRoomCache;
+import com.er.zoo.cache.BulkCache;
+import com.er.zoo.dto.AnimalBatchOperation;
+import com.er.zoo.dto.BatchResult;
 import com.er.zoo.dto.AnimalCreateRequest;
+import com.er.zoo.dto.AnimalFilter;
 import com.er.zoo.dto.AnimalResponse;
 import com.er.zoo.dto.AnimalUpdateRequest;
+import com.er.zoo.dto.CursorPage;
+import com.er.zoo.dto.RoomCursor;
 import com.er.zoo.dto.RoomRequest;
+import com.er.zoo.enums.BatchOperationType;
 import com.er.zoo.enums.SortField;
 import com.er.zoo.exception.AnimalNotFoundException;
 import com.er.zoo.logging.LoggerService;
 import com.er.zoo.model.Animal;
 import com.er.zoo.model.Room;
 import com.er.zoo.repository.AnimalRepository;
+import com.er.zoo.repository.AnimalRepositoryCustom;
+import com.er.zoo.repository.BatchWrite;
+import com.er.zoo.repository.BatchWriteResult;
 import com.er.zoo.repository.RoomRepository;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.data.domain.*;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.time.Instant;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -33,8 +51,11 @@ class AnimalServiceTest {
 
     @Mock private AnimalRepository animalRepo;
     @Mock private RoomRepository roomRepo;
+    @Mock private AnimalsInRoomCache animalsInRoomCache;
+    @Mock private BulkCache bulkCache;
     @Mock private IdempotencyService idempotencyService;
     @Mock private LoggerService loggerService;
+    @Spy private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
 
     @InjectMocks
     private AnimalService animalService;
@@ -57,7 +78,7 @@ class AnimalServiceTest {
         when(idempotencyService.registerKey(any())).thenReturn(true);
         when(animalRepo.save(any())).thenReturn(entity);
 
-        AnimalResponse result = animalService.create(request, "idemp-animal-1");
+        AnimalResponse result = animalService.create(request, "idemp-animal-1", false);
 
         assertNotNull(result);
         assertEquals("Tiger", result.title());
@@ -89,23 +110,45 @@ class AnimalServiceTest {
     }
 
     @Test
-    @DisplayName("Should update existing animal with new values")
+    @DisplayName("Should update existing animal with one conditional write")
     void update_shouldUpdateAnimal() {
         String id = "A2";
         String ifMatch = "1";
-        Animal existing = new Animal();
-        existing.setId(id);
-        existing.setTitle("OldTitle");
-        existing.setVersion(1L);
+        Animal updated = new Animal();
+        updated.setId(id);
+        updated.setTitle("NewTitle");
+        updated.setVersion(2L);
         AnimalUpdateRequest update = new AnimalUpdateRequest("NewTitle", LocalDate.parse("2025-11-05"));
 
-        when(animalRepo.findById(id)).thenReturn(Optional.of(existing));
-        when(animalRepo.save(existing)).thenReturn(existing);
+        when(animalRepo.updateFields(id, 1L, "NewTitle", LocalDate.parse("2025-11-05"))).thenReturn(updated);
 
         AnimalResponse result = animalService.update(id, update, ifMatch);
 
         assertEquals("NewTitle", result.title());
-        verify(animalRepo).save(existing);
+        assertEquals("2", result.version());
+        verify(animalRepo, never()).findById(any());
+        verify(animalRepo, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should map a missed conditional update to 412 when the animal exists")
+    void update_shouldReturn412OnVersionMiss() {
+        when(animalRepo.updateFields("A2", 1L, "NewTitle", null)).thenReturn(null);
+        when(animalRepo.existsById("A2")).thenReturn(true);
+
+        var ex = assertThrows(ResponseStatusException.class,
+                () -> animalService.update("A2", new AnimalUpdateRequest("NewTitle", null), "1"));
+        assertEquals(HttpStatus.PRECONDITION_FAILED, ex.getStatusCode());
+    }
+
+    @Test
+    @DisplayName("Should map a missed conditional update to 404 when the animal is gone")
+    void update_shouldReturn404WhenMissing() {
+        when(animalRepo.updateFields("A2", 1L, "NewTitle", null)).thenReturn(null);
+        when(animalRepo.existsById("A2")).thenReturn(false);
+
+        assertThrows(AnimalNotFoundException.class,
+                () -> animalService.update("A2", new AnimalUpdateRequest("NewTitle", null), "1"));
     }
 
     @Test
@@ -114,45 +157,57 @@ class AnimalServiceTest {
         Animal existing = new Animal();
         existing.setId("A3");
         existing.setVersion(2L);
-        when(animalRepo.findById("A3")).thenReturn(Optional.of(existing));
+        existing.setRoomId("R1");
+        existing.setFavoriteRoomIds(new HashSet<>(Set.of("R2")));
+        when(animalRepo.deleteVersioned("A3", 2L)).thenReturn(existing);
 
         animalService.delete("A3", "2");
 
-        verify(animalRepo, times(1)).deleteById("A3");
+        verify(animalRepo, times(1)).deleteVersioned("A3", 2L);
+        verify(roomRepo).removeFavorites(Set.of("R2"), "A3");
+        verify(animalsInRoomCache).evict("R1");
     }
 
     @Test
     @DisplayName("Should assign animal to room if both exist")
     void shouldAssignToRoom() {
-        Animal animal = new Animal();
-        animal.setId("A4");
-        animal.setVersion(1L);
-        Room room = new Room();
-        room.setId("R1");
-        room.setVersion(1L);
-
+        Animal moved = new Animal();
+        moved.setId("A4");
+        moved.setVersion(2L);
+        moved.setRoomId("R1");
 
-        when(animalRepo.findById("A4")).thenReturn(Optional.of(animal));
-        when(roomRepo.findById("R1")).thenReturn(Optional.of(room));
-        when(animalRepo.save(animal)).thenReturn(animal);
+        when(roomRepo.existsById("R1")).thenReturn(true);
+        when(animalRepo.moveToRoom("A4", 1L, "R1")).thenReturn(new AnimalRepositoryCustom.RoomMove(moved, "R0"));
 
         AnimalResponse result = animalService.assignToRoom("A4", "R1", "1");
 
         assertEquals("R1", result.roomId());
-        verify(animalRepo).save(animal);
+        verify(animalRepo, never()).save(any());
+        verify(animalsInRoomCache).evict("R0", "R1");
     }
 
     @Test
     @DisplayName("Should throw if room not found when assigning")
     void shouldThrowIfRoomNotFound() {
+        when(roomRepo.existsById("XYZ")).thenReturn(false);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> animalService.assignToRoom("A5", "XYZ", "1"));
+        verify(animalRepo, never()).moveToRoom(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should reject removal from a room the animal is not in")
+    void shouldRejectRemovalFromOtherRoom() {
         Animal animal = new Animal();
         animal.setId("A5");
         animal.setVersion(1L);
+        animal.setRoomId("R2");
+        when(animalRepo.removeFromRoom("A5", 1L, "R1")).thenReturn(null);
         when(animalRepo.findById("A5")).thenReturn(Optional.of(animal));
-        when(roomRepo.findById("XYZ")).thenReturn(Optional.empty());
 
-        assertThrows(IllegalArgumentException.class,
-                () -> animalService.assignToRoom("A5", "XYZ", "1"));
+        assertThrows(IllegalArgumentException.class, () -> animalService.removeFromRoom("A5", "R1", "1"));
+        verify(animalsInRoomCache, never()).evict(any(String[].class));
     }
 
     @Test
@@ -167,7 +222,7 @@ class AnimalServiceTest {
         entity2.setId("A7");
         entity2.setTitle("Tiger");
         entity2.setVersion(1L);
-        RoomRequest roomRequest = new RoomRequest("R2", SortField.TITLE, Sort.Direction.ASC, 0, 5);
+        RoomRequest roomRequest = new RoomRequest("R2", SortField.TITLE, Sort.Direction.ASC, 0, 5, null);
 
         Page<Animal> page = new PageImpl<>(List.of(entity1,entity2));
         when(animalRepo.findByRoomId(eq("R2"), any(Pageable.class))).thenReturn(page);
@@ -178,6 +233,156 @@ class AnimalServiceTest {
         assertEquals("Tiger", result.getContent().get(1).title());
     }
 
+    @Test
+    @DisplayName("Should return keyset slice with next cursor when more animals remain")
+    void shouldReturnAnimalsInRoomAfterCursor() {
+        Animal entity1 = new Animal();
+        entity1.setId("A6");
+        entity1.setTitle("Elephant");
+        entity1.setVersion(1L);
+
+        Animal entity2 = new Animal();
+        entity2.setId("A7");
+        entity2.setTitle("Tiger");
+        entity2.setVersion(1L);
+        RoomRequest roomRequest = new RoomRequest("R2", SortField.TITLE, Sort.Direction.ASC, 0, 1, "");
+
+        when(animalRepo.findByRoomIdAfter("R2", SortField.TITLE, Sort.Direction.ASC, null, 2))
+                .thenReturn(List.of(entity1, entity2));
+        CursorPage<AnimalResponse> result = animalService.getAnimalsInRoomAfter(roomRequest);
+
+        assertEquals(1, result.content().size());
+        assertEquals("Elephant", result.content().get(0).title());
+        RoomCursor next = RoomCursor.decode(result.next());
+        assertEquals("A6", next.id());
+        assertEquals("Elephant", next.value());
+
+        when(animalRepo.findByRoomIdAfter("R2", SortField.TITLE, Sort.Direction.ASC, next, 2))
+                .thenReturn(List.of(entity2));
+        CursorPage<AnimalResponse> last = animalService.getAnimalsInRoomAfter(
+                new RoomRequest("R2", SortField.TITLE, Sort.Direction.ASC, 0, 1, result.next()));
+
+        assertEquals("Tiger", last.content().get(0).title());
+        assertNull(last.next());
+        verify(animalRepo, never()).findByRoomId(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should reject a cursor issued for a different sort order")
+    void shouldRejectCursorForDifferentSort() {
+        String token = new RoomCursor(SortField.TITLE, Sort.Direction.ASC, "A6", "Elephant").encode();
+        RoomRequest roomRequest = new RoomRequest("R2", SortField.LOCATED, Sort.Direction.ASC, 0, 5, token);
+
+        assertThrows(IllegalArgumentException.class, () -> animalService.getAnimalsInRoomAfter(roomRequest));
+        assertThrows(IllegalArgumentException.class, () -> RoomCursor.decode("not-a-cursor"));
+    }
+
+    @Test
+    @DisplayName("Should write only the new favorite rooms with one animal update and one room bulk write")
+    void shouldAssignFavoritesWithBulkRoomUpdate() {
+        Animal animal = new Animal();
+        animal.setId("A8");
+        animal.setVersion(1L);
+        animal.setFavoriteRoomIds(new HashSet<>(Set.of("R1")));
+        Animal updated = new Animal();
+        updated.setId("A8");
+        updated.setVersion(2L);
+        updated.setFavoriteRoomIds(new HashSet<>(Set.of("R1", "R2")));
+
+        when(animalRepo.findById("A8")).thenReturn(Optional.of(animal));
+        when(roomRepo.findIdsByIdIn(anyCollection())).thenReturn(List.of(
+                new Room("R1","Room1", null, null, null,0L),
+                new Room("R2","Room2", null, null, null,0L)));
+        when(animalRepo.addFavoriteRooms("A8", 1L, Set.of("R2"))).thenReturn(updated);
+
+        AnimalResponse result = animalService.assignFavorite("A8", List.of("R1", "R2"), "1");
+
+        assertEquals(Set.of("R1", "R2"), result.favoriteRoomIds());
+        verify(roomRepo).addFavorites(Set.of("R2"), "A8");
+        verify(animalRepo, never()).save(any());
+        verify(roomRepo, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should not write anything when all rooms are already favorites")
+    void shouldSkipWritesForUnchangedFavorites() {
+        Animal animal = new Animal();
+        animal.setId("A9");
+        animal.setVersion(3L);
+        animal.setFavoriteRoomIds(new HashSet<>(Set.of("R1")));
+
+        when(animalRepo.findById("A9")).thenReturn(Optional.of(animal));
+        when(roomRepo.findIdsByIdIn(anyCollection())).thenReturn(List.of(new Room("R1","Room1", null, null, null,0L)));
+
+        AnimalResponse result = animalService.assignFavorite("A9", List.of("R1"), null);
+
+        assertEquals("3", result.version());
+        verify(animalRepo, never()).addFavoriteRooms(any(), anyLong(), any());
+        verify(roomRepo, never()).addFavorites(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should fail with 412 when the animal changes between read and conditional write")
+    void shouldFailFavoriteAssignmentOnConcurrentModification() {
+        Animal animal = new Animal();
+        animal.setId("A10");
+        animal.setVersion(1L);
+
+        when(animalRepo.findById("A10")).thenReturn(Optional.of(animal));
+        when(roomRepo.findIdsByIdIn(anyCollection())).thenReturn(List.of(new Room("R1","Room1", null, null, null,0L)));
+        when(animalRepo.addFavoriteRooms(any(), anyLong(), any())).thenReturn(null);
+
+        var ex = assertThrows(ResponseStatusException.class,
+                () -> animalService.assignFavorite("A10", List.of("R1"), null));
+        assertEquals(HttpStatus.PRECONDITION_FAILED, ex.getStatusCode());
+        verify(roomRepo, never()).addFavorites(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should take the favorites back off the animal when the room bulk write fails")
+    void shouldRevertFavoriteAssignmentWhenRoomWriteFails() {
+        Animal animal = new Animal();
+        animal.setId("A11");
+        animal.setVersion(1L);
+        Animal updated = new Animal();
+        updated.setId("A11");
+        updated.setVersion(2L);
+
+        when(animalRepo.findById("A11")).thenReturn(Optional.of(animal));
+        when(roomRepo.findIdsByIdIn(anyCollection())).thenReturn(List.of(new Room("R1","Room1", null, null, null,0L)));
+        when(animalRepo.addFavoriteRooms("A11", 1L, Set.of("R1"))).thenReturn(updated);
+        var failure = new DataAccessResourceFailureException("down");
+        when(roomRepo.addFavorites(Set.of("R1"), "A11")).thenThrow(failure);
+
+        var ex = assertThrows(DataAccessResourceFailureException.class,
+                () -> animalService.assignFavorite("A11", List.of("R1"), null));
+        assertSame(failure, ex);
+        verify(animalRepo).removeFavoriteRooms("A11", 2L, Set.of("R1"));
+    }
+
+    @Test
+    @DisplayName("Should add the favorites back and keep the room failure when the revert fails too")
+    void shouldKeepRoomFailureWhenFavoriteRevertFails() {
+        Animal animal = new Animal();
+        animal.setId("A12");
+        animal.setVersion(4L);
+        animal.setFavoriteRoomIds(new HashSet<>(Set.of("R1")));
+        Animal updated = new Animal();
+        updated.setId("A12");
+        updated.setVersion(5L);
+
+        when(animalRepo.findById("A12")).thenReturn(Optional.of(animal));
+        when(roomRepo.findIdsByIdIn(anyCollection())).thenReturn(List.of(new Room("R1","Room1", null, null, null,0L)));
+        when(animalRepo.removeFavoriteRooms("A12", 4L, Set.of("R1"))).thenReturn(updated);
+        when(roomRepo.removeFavorites(Set.of("R1"), "A12")).thenThrow(new DataAccessResourceFailureException("down"));
+        when(animalRepo.addFavoriteRooms("A12", 5L, Set.of("R1"))).thenThrow(new DataAccessResourceFailureException("still down"));
+
+        var ex = assertThrows(DataAccessResourceFailureException.class,
+                () -> animalService.unassignFavorite("A12", List.of("R1"), null));
+        assertEquals("down", ex.getMessage());
+        assertEquals("still down", ex.getSuppressed()[0].getMessage());
+    }
+
     @Test
     @DisplayName("Should throw exception when roomIds contain invalid IDs in favorites")
     void shouldThrowIfInvalidRoomIds() {
@@ -186,7 +391,7 @@ class AnimalServiceTest {
         animal.setVersion(1L);
 
         when(animalRepo.findById("A7")).thenReturn(Optional.of(animal));
-        when(roomRepo.findAllById(anyList())).thenReturn(List.of(new Room("R1","Room1", Instant.now(), Instant.now(), new HashSet<>(),0L)));
+        when(roomRepo.findIdsByIdIn(anyCollection())).thenReturn(List.of(new Room("R1","Room1", Instant.now(), Instant.now(), new HashSet<>(),0L)));
 
         List<String> inputIds = List.of("R1", "R2"); // R2 missing
 
@@ -194,5 +399,167 @@ class AnimalServiceTest {
                 () -> animalService.assignFavorite("A7", inputIds, "1"));
     }
 
+    private static Animal writeState(String id, long version, String roomId, String... favorites) {
+        Animal animal = new Animal();
+        animal.setId(id);
+        animal.setVersion(version);
+        animal.setRoomId(roomId);
+        animal.setFavoriteRoomIds(new HashSet<>(List.of(favorites)));
+        return animal;
+    }
+
+    @Test
+    @DisplayName("Should run a batch as one bulk write with a result per operation")
+    @SuppressWarnings("unchecked")
+    void batch_shouldWriteOnceAndReportEachOperation() {
+        when(animalRepo.findWriteStateByIdIn(anyCollection()))
+                .thenReturn(List.of(writeState("A1", 3L, "R1"), writeState("A2", 5L, null), writeState("A3", 1L, "R2", "R9")));
+        when(animalRepo.writeBatch(anyList())).thenReturn(new BatchWriteResult(1, 1, List.of()));
+
+        List<BatchResult> results = animalService.batch(List.of(
+                new AnimalBatchOperation(BatchOperationType.CREATE, null, null, "Lion", LocalDate.parse("2024-01-01")),
+                new AnimalBatchOperation(BatchOperationType.UPDATE, "A1", "\"3\"", "Tiger", null),
+                new AnimalBatchOperation(BatchOperationType.UPDATE, "A2", "4", "Stale", null),
+                new AnimalBatchOperation(BatchOperationType.DELETE, "A3", null, null, null),
+                new AnimalBatchOperation(BatchOperationType.DELETE, "missing", null, null, null),
+                new AnimalBatchOperation(BatchOperationType.UPDATE, "A1", null, "Twice", null),
+                new AnimalBatchOperation(BatchOperationType.CREATE, null, null, "", null)));
+
+        assertEquals(List.of(201, 200, 412, 204, 404, 400, 400), results.stream().map(BatchResult::status).toList());
+        assertEquals("0", results.get(0).version());
+        assertEquals("4", results.get(1).version());
+        assertNull(results.get(3).version());
+
+        ArgumentCaptor<List<BatchWrite<Animal>>> writes = ArgumentCaptor.forClass(List.class);
+        verify(animalRepo).writeBatch(writes.capture());
+        assertEquals(List.of(BatchOperationType.CREATE, BatchOperationType.UPDATE, BatchOperationType.DELETE),
+                writes.getValue().stream().map(BatchWrite::type).toList());
+        assertEquals(results.get(0).id(), writes.getValue().get(0).document().getId());
+        assertEquals(3L, writes.getValue().get(1).version());
+        assertEquals(1L, writes.getValue().get(2).version());
+        verify(animalRepo, times(1)).findWriteStateByIdIn(anyCollection());
+        verify(bulkCache).putAll(eq("animals"), argThat(entries -> entries.containsKey(results.get(0).id())));
+        verify(bulkCache).evictAll("animals", List.of("A1", "A3"));
+        verify(animalsInRoomCache).evict("R1", "R2");
+        verify(roomRepo).removeFavorites(Map.of("A3", Set.of("R9")));
+    }
+
+    @Test
+    @DisplayName("Should re-read the batch and report 412 for updates lost to a concurrent writer")
+    void batch_shouldReportLostUpdates() {
+        Animal concurrentlyUpdated = writeState("A1", 4L, "R1");
+        concurrentlyUpdated.setUpdated(Instant.EPOCH);
+        when(animalRepo.findWriteStateByIdIn(anyCollection()))
+                .thenReturn(List.of(writeState("A1", 3L, "R1")), List.of(concurrentlyUpdated));
+        when(animalRepo.writeBatch(anyList())).thenReturn(new BatchWriteResult(0, 0, List.of()));
+
+        List<BatchResult> results = animalService.batch(List.of(
+                new AnimalBatchOperation(BatchOperationType.UPDATE, "A1", null, "Tiger", null)));
+
+        assertEquals(412, results.getFirst().status());
+        verify(animalRepo, times(2)).findWriteStateByIdIn(anyCollection());
+        verify(bulkCache).evictAll("animals", List.of());
+    }
+
+    @Test
+    @DisplayName("Should validate each operation as its request DTO and report the violations at its index")
+    void batch_shouldReportViolationsPerOperation() {
+        when(animalRepo.findWriteStateByIdIn(anyCollection())).thenReturn(List.of(writeState("A1", 3L, "R1")));
+        when(animalRepo.writeBatch(anyList())).thenReturn(new BatchWriteResult(0, 0, List.of()));
+
+        List<BatchResult> results = animalService.batch(List.of(
+                new AnimalBatchOperation(BatchOperationType.CREATE, null, null, " ", null),
+                new AnimalBatchOperation(BatchOperationType.CREATE, null, null, "Lion", LocalDate.parse("2024-01-01")),
+                new AnimalBatchOperation(BatchOperationType.UPDATE, "A1", null, null, null)));
+
+        assertEquals(List.of(400, 201, 400), results.stream().map(BatchResult::status).toList());
+        assertEquals("located must not be null, title must not be blank", results.get(0).error());
+        assertEquals("title or located is required for UPDATE", results.get(2).error());
+        assertEquals(2, results.get(2).index());
+    }
+
+    @Test
+    @DisplayName("Should move all animals of a room with one update and evict only them and the two rooms")
+    void moveAll_shouldMoveWithOneUpdate() {
+        when(roomRepo.existsById("R2")).thenReturn(true);
+        when(animalRepo.moveAll(eq("R1"), eq("R2"), any())).thenReturn(2L);
+        when(animalRepo.streamIdsUpdatedAt(eq("R2"), any(), eq(AnimalService.BULK_CHUNK_SIZE)))
+                .thenReturn(Stream.of("A1", "A2"));
+
+        assertEquals(2L, animalService.moveAll("R1", "R2"));
+
+        ArgumentCaptor<Instant> written = ArgumentCaptor.forClass(Instant.class);
+        verify(animalRepo).moveAll(eq("R1"), eq("R2"), written.capture());
+        verify(animalRepo).streamIdsUpdatedAt("R2", written.getValue(), AnimalService.BULK_CHUNK_SIZE);
+        verify(bulkCache).evictAll("animals", List.of("A1", "A2"));
+        verify(animalsInRoomCache).evict("R1", "R2");
+        verify(animalRepo, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should reject moving animals to a missing room")
+    void moveAll_shouldRejectMissingTargetRoom() {
+        when(roomRepo.existsById("R2")).thenReturn(false);
+
+        assertThrows(IllegalArgumentException.class, () -> animalService.moveAll("R1", "R2"));
+        verify(animalRepo, never()).moveAll(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should unassign all animals of a room with one update")
+    void unassignAll_shouldUnsetRoomWithOneUpdate() {
+        when(animalRepo.unassignAll(eq("R1"), any())).thenReturn(1L);
+        when(animalRepo.streamIdsUpdatedAt(isNull(), any(), anyInt())).thenReturn(Stream.of("A1"));
+
+        assertEquals(1L, animalService.unassignAll("R1"));
 
+        verify(bulkCache).evictAll("animals", List.of("A1"));
+        verify(animalsInRoomCache).evict("R1");
+    }
+
+    @Test
+    @DisplayName("Should not read ids back when a bulk update changed nothing")
+    void unassignAll_shouldSkipEvictionWhenNothingChanged() {
+        when(animalRepo.unassignAll(eq("R1"), any())).thenReturn(0L);
+
+        assertEquals(0L, animalService.unassignAll("R1"));
+
+        verify(animalRepo, never()).streamIdsUpdatedAt(any(), any(), anyInt());
+        verify(bulkCache, never()).evictAll(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should delete matching animals and drop the favorites of those actually deleted in one bulk write")
+    void deleteAll_shouldDeleteMatchingAnimals() {
+        var filter = new AnimalFilter(null, null, LocalDate.parse("2020-01-01"));
+        when(animalRepo.streamWriteStateBy(filter, AnimalService.BULK_CHUNK_SIZE)).thenReturn(Stream.of(
+                writeState("A1", 1L, "R1", "F1"), writeState("A2", 2L, null), writeState("A3", 1L, "R3", "F3")));
+        // A3 was changed so it no longer matches before the delete reached it
+        when(animalRepo.deleteAll(List.of("A1", "A2", "A3"), filter)).thenReturn(Set.of("A1", "A2"));
+
+        assertEquals(2L, animalService.deleteAll(filter));
+
+        verify(bulkCache).evictAll("animals", List.of("A1", "A2"));
+        verify(animalsInRoomCache).evict("R1", null);
+        verify(roomRepo).removeFavorites(Map.of("A1", Set.of("F1")));
+        assertThrows(IllegalArgumentException.class, () -> animalService.deleteAll(new AnimalFilter(null, null, null)));
+    }
+
+    @Test
+    @DisplayName("Should delete matching animals in bounded chunks")
+    @SuppressWarnings("unchecked")
+    void deleteAll_shouldDeleteInChunks() {
+        var filter = new AnimalFilter("R1", null, null);
+        int count = AnimalService.BULK_CHUNK_SIZE + 1;
+        when(animalRepo.streamWriteStateBy(filter, AnimalService.BULK_CHUNK_SIZE)).thenReturn(
+                IntStream.range(0, count).mapToObj(i -> writeState("A" + i, 0L, "R1")));
+        when(animalRepo.deleteAll(anyCollection(), eq(filter)))
+                .thenAnswer(invocation -> new HashSet<String>(invocation.getArgument(0)));
+
+        assertEquals(count, animalService.deleteAll(filter));
+
+        ArgumentCaptor<Collection<String>> chunks = ArgumentCaptor.forClass(Collection.class);
+        verify(animalRepo, times(2)).deleteAll(chunks.capture(), eq(filter));
+        assertEquals(List.of(AnimalService.BULK_CHUNK_SIZE, 1), chunks.getAllValues().stream().map(Collection::size).toList());
+    }
 }
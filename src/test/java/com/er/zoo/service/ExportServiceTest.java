@@ -0,0 +1,86 @@
+package com.er.zoo.service;
+
+import com.er.zoo.logging.LoggerService;
+import com.er.zoo.model.Animal;
+import com.er.zoo.model.Room;
+import com.er.zoo.repository.AnimalRepository;
+import com.er.zoo.repository.RoomRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests the NDJSON writing of {@link ExportService}.
+ */
+class ExportServiceTest {
+
+    private AnimalRepository animalRepo;
+    private RoomRepository roomRepo;
+    private ExportService exportService;
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+
+    @BeforeEach
+    void setup() {
+        animalRepo = mock(AnimalRepository.class);
+        roomRepo = mock(RoomRepository.class);
+        exportService = new ExportService(animalRepo, roomRepo, objectMapper, mock(LoggerService.class), 2);
+    }
+
+    @Test
+    @DisplayName("Should write one JSON document per line, flush per batch and close the cursor")
+    void shouldWriteNdjsonAndCloseCursor() throws IOException {
+        var closed = new AtomicBoolean();
+        Stream<Animal> animals = IntStream.range(0, 5).mapToObj(i -> {
+            var animal = new Animal("Animal " + i, null);
+            animal.setId("A" + i);
+            animal.setVersion(0L);
+            return animal;
+        }).onClose(() -> closed.set(true));
+        when(animalRepo.streamAll("R1", null, 2)).thenReturn(animals);
+        var flushes = new AtomicInteger();
+        var out = new ByteArrayOutputStream() {
+            @Override
+            public void flush() {
+                flushes.incrementAndGet();
+            }
+        };
+
+        long count = exportService.exportAnimals("R1", null, out);
+
+        String[] lines = out.toString().split("\n");
+        assertEquals(5, count);
+        assertEquals(5, lines.length);
+        assertEquals("A0", objectMapper.readTree(lines[0]).get("id").asText());
+        assertEquals("Animal 4", objectMapper.readTree(lines[4]).get("title").asText());
+        assertTrue(out.toString().endsWith("\n"));
+        assertEquals(3, flushes.get());
+        assertTrue(closed.get());
+    }
+
+    @Test
+    @DisplayName("Should pass the updatedSince filter to the room cursor")
+    void shouldExportRoomsUpdatedSince() throws IOException {
+        Instant since = Instant.parse("2025-01-01T00:00:00Z");
+        var room = new Room("Blue");
+        room.setId("R1");
+        room.setVersion(3L);
+        when(roomRepo.streamAll(since, 2)).thenReturn(Stream.of(room));
+        var out = new ByteArrayOutputStream();
+
+        assertEquals(1, exportService.exportRooms(since, out));
+        assertEquals("3", objectMapper.readTree(out.toString()).get("version").asText());
+    }
+}
@@ -0,0 +1,108 @@
+package com.er.zoo.service;
+
+import com.er.zoo.dto.ImportLineResult.Status;
+import com.er.zoo.logging.LoggerService;
+import com.er.zoo.model.Animal;
+import com.er.zoo.repository.AnimalRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.mongodb.bulk.BulkWriteError;
+import jakarta.validation.Validation;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests the NDJSON import of {@link ImportService} against a mocked repository.
+ */
+class ImportServiceTest {
+
+    private static final String VALID = "{\"title\":\"Lion\",\"located\":\"2022-07-30\"}";
+
+    private AnimalRepository animalRepo;
+    private ImportService importService;
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private final List<List<Animal>> batches = new ArrayList<>();
+
+    @BeforeEach
+    void setup() {
+        animalRepo = mock(AnimalRepository.class);
+        when(animalRepo.insertUnordered(anyList())).thenAnswer(inv -> {
+            batches.add(List.copyOf(inv.getArgument(0)));
+            return List.of();
+        });
+        importService = new ImportService(animalRepo, objectMapper,
+                Validation.buildDefaultValidatorFactory().getValidator(), mock(LoggerService.class), 2);
+    }
+
+    private List<JsonNode> run(String key, String body) throws IOException {
+        var out = new ByteArrayOutputStream();
+        importService.importAnimals(key, new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), out);
+        List<JsonNode> results = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n"))
+            results.add(objectMapper.readTree(line));
+        return results;
+    }
+
+    @Test
+    @DisplayName("Should insert valid lines in batches and report every line in order")
+    void shouldImportInBatches() throws IOException {
+        String body = String.join("\n", VALID, "{\"title\":\"\",\"located\":\"2022-07-30\"}", "", "not json", VALID, VALID) + "\n";
+
+        List<JsonNode> results = run("import-1", body);
+
+        assertEquals(5, results.size());
+        assertEquals(List.of(1L, 2L, 4L, 5L, 6L), results.stream().map(r -> r.get("line").asLong()).toList());
+        assertEquals("CREATED", results.get(0).get("status").asText());
+        assertEquals(ImportService.animalId("import-1", 1), results.get(0).get("id").asText());
+        assertEquals("must not be blank", results.get(1).get("errors").get("title").asText());
+        assertEquals("INVALID", results.get(2).get("status").asText());
+        assertTrue(results.get(2).get("errors").get("json").asText().startsWith("Malformed JSON"));
+        // results are flushed per batch of two lines, so the inserts hold 1, 1 and 1 animals
+        assertEquals(List.of(1, 1, 1), batches.stream().map(List::size).toList());
+        assertEquals("Lion", batches.getFirst().getFirst().getTitle());
+        assertEquals(0L, batches.getFirst().getFirst().getVersion());
+    }
+
+    @Test
+    @DisplayName("Should derive stable ids from key and line and report already stored lines as EXISTS")
+    void shouldBeIdempotentUnderOneKey() throws IOException {
+        reset(animalRepo);
+        when(animalRepo.insertUnordered(anyList())).thenReturn(List.of(
+                new BulkWriteError(11000, "E11000 duplicate key", new BsonDocument(), 0),
+                new BulkWriteError(121, "Document failed validation", new BsonDocument(), 1)), List.of());
+
+        List<JsonNode> results = run("import-1", VALID + "\n" + VALID + "\n");
+
+        assertEquals("EXISTS", results.get(0).get("status").asText());
+        assertEquals(ImportService.animalId("import-1", 1), results.get(0).get("id").asText());
+        assertEquals("FAILED", results.get(1).get("status").asText());
+        assertEquals("Document failed validation", results.get(1).get("errors").get("insert").asText());
+        assertEquals(ImportService.animalId("import-1", 1), ImportService.animalId("import-1", 1));
+        assertNotEquals(ImportService.animalId("import-1", 1), ImportService.animalId("import-2", 1));
+        assertTrue(ImportService.animalId("import-1", 1).matches("[0-9a-f]{24}"));
+    }
+
+    @Test
+    @DisplayName("Should return totals per status")
+    void shouldReturnTotals() throws IOException {
+        var totals = importService.importAnimals("k", new ByteArrayInputStream((VALID + "\n{}\n").getBytes()),
+                new ByteArrayOutputStream());
+
+        assertEquals(Map.of(Status.CREATED, 1L, Status.INVALID, 1L), totals);
+    }
+}
@@ -2,17 +2,30 @@ package com.er.zoo.service;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import com.er.zoo.cache.BulkCache;
 import com.er.zoo.dto.*;
+import com.er.zoo.enums.BatchOperationType;
+import com.er.zoo.exception.RoomNotFoundException;
 import com.er.zoo.model.Room;
+import com.er.zoo.repository.BatchWriteResult;
 import com.er.zoo.repository.RoomRepository;
 import com.er.zoo.logging.LoggerService;
+import com.mongodb.bulk.BulkWriteError;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.bson.BsonDocument;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.mockito.Mockito.*;
 import static org.mockito.MockitoAnnotations.openMocks;
@@ -22,10 +35,15 @@ class RoomServiceTest {
     @Mock
     private RoomRepository roomRepository;
 
+    @Mock
+    private BulkCache bulkCache;
+
     @Mock
     private IdempotencyService idempotencyService;
     @Mock
     private LoggerService loggerService;
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
 
     @InjectMocks
     private RoomService roomService;
@@ -52,13 +70,23 @@ class RoomServiceTest {
         when(idempotencyService.registerKey(any())).thenReturn(true);
         when(roomRepository.save(any())).thenReturn(room);
 
-        Room result = roomService.create(createRequest, "key123");
+        Room result = roomService.create(createRequest, "key123", false);
 
         verify(idempotencyService).registerKey("key123");
         verify(roomRepository).save(room);
         assertEquals("Blue", result.getTitle());
     }
 
+    @Test
+    void create_ShouldNotRegisterAgain_WhenKeyClaimed() {
+        when(roomRepository.save(any())).thenReturn(room);
+
+        roomService.create(createRequest, "key123", true);
+
+        verify(idempotencyService, never()).registerKey(any());
+        verify(roomRepository).save(room);
+    }
+
     @Test
     void get_ShouldReturnRoom_WhenFound() {
         when(roomRepository.findById("room1")).thenReturn(Optional.of(room));
@@ -70,47 +98,100 @@ class RoomServiceTest {
     void get_ShouldThrowException_WhenNotFound() {
         when(roomRepository.findById("room1")).thenReturn(Optional.empty());
 
-        assertThrows(IllegalArgumentException.class, () -> roomService.get("room1"));
+        assertThrows(RoomNotFoundException.class, () -> roomService.get("room1"));
     }
 
     @Test
     void update_ShouldUpdateRoomTitle() {
-        when(roomRepository.findById("room1")).thenReturn(Optional.of(room));
-        when(roomRepository.save(room)).thenReturn(room);
+        room.setTitle("Jungle");
+        room.setVersion(2L);
+        when(roomRepository.updateTitle("room1", 1L, "Jungle")).thenReturn(room);
 
         RoomResponse result = roomService.update("room1", updateRequest, "\"1\"");
 
-        verify(loggerService, atLeastOnce()).info(anyString(),anyString(),anyString());
-        verify(roomRepository).save(room);
+        verify(roomRepository, never()).findById(any());
+        verify(roomRepository, never()).save(any());
         assertEquals("Jungle", result.title());
+        assertEquals("2", result.version());
+    }
+
+    @Test
+    void update_ShouldReturn412_WhenVersionChanged() {
+        when(roomRepository.updateTitle("room1", 1L, "Jungle")).thenReturn(null);
+        when(roomRepository.existsById("room1")).thenReturn(true);
+
+        var ex = assertThrows(ResponseStatusException.class, () -> roomService.update("room1", updateRequest, "\"1\""));
+        assertEquals(HttpStatus.PRECONDITION_FAILED, ex.getStatusCode());
+    }
+
+    @Test
+    void update_ShouldWriteWithoutVersion_WhenNoIfMatch() {
+        when(roomRepository.updateTitle("room1", null, "Jungle")).thenReturn(room);
+
+        roomService.update("room1", updateRequest, null);
+
+        verify(roomRepository).updateTitle("room1", null, "Jungle");
     }
 
     @Test
     void delete_ShouldDeleteRoom_WhenIfMatchValid() {
-        when(roomRepository.findById("room1")).thenReturn(Optional.of(room));
+        when(roomRepository.deleteVersioned("room1", 1L)).thenReturn(true);
         roomService.delete("room1", "\"1\"");
-        verify(roomRepository).deleteById("room1");
+        verify(roomRepository).deleteVersioned("room1", 1L);
+        verify(roomRepository, never()).findById(any());
     }
 
     @Test
     void delete_ShouldThrow_WhenRoomNotFound() {
-        when(roomRepository.findById("missing")).thenReturn(Optional.empty());
-        assertThrows(IllegalArgumentException.class, () -> roomService.delete("missing", "\"1\""));
+        when(roomRepository.deleteVersioned("missing", 1L)).thenReturn(false);
+        when(roomRepository.existsById("missing")).thenReturn(false);
+        assertThrows(RoomNotFoundException.class, () -> roomService.delete("missing", "\"1\""));
     }
 
 
     @Test
-    @Transactional(readOnly = true)
     void favoriteRoomCounts_ShouldReturnMappedCounts() {
-        RoomCountProjection projection = mock(RoomCountProjection.class);
-        when(projection.title()).thenReturn("Blue");
-        when(projection.favCount()).thenReturn(5L);
-        when(roomRepository.findFavoriteRoomsWithCounts()).thenReturn(List.of(projection));
+        Room favorite = new Room("Blue");
+        favorite.setFavoriteCount(5L);
+        when(roomRepository.findFavoriteRooms(any())).thenReturn(new SliceImpl<>(List.of(favorite)));
 
-        List<FavoriteRoomCount> result = roomService.favoriteRoomCounts();
+        List<FavoriteRoomCount> result = roomService.favoriteRoomCounts(0, 20);
 
         assertEquals(1, result.size());
         assertEquals("Blue", result.getFirst().title());
         assertEquals(5L, result.getFirst().count());
+        verify(roomRepository).findFavoriteRooms(PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "favoriteCount").and(Sort.by("id"))));
+    }
+
+    @Test
+    void batch_ShouldReportDuplicateKeyAsConflictAndCacheTheCreatedRoom() {
+        when(roomRepository.findWriteStateByIdIn(anyCollection())).thenReturn(List.of(room));
+        when(roomRepository.writeBatch(anyList())).thenReturn(new BatchWriteResult(1, 0,
+                List.of(new BulkWriteError(11000, "E11000 duplicate key", new BsonDocument(), 1))));
+
+        List<BatchResult> results = roomService.batch(List.of(
+                new RoomBatchOperation(BatchOperationType.CREATE, null, null, "Savanna"),
+                new RoomBatchOperation(BatchOperationType.CREATE, null, null, "Savanna"),
+                new RoomBatchOperation(BatchOperationType.UPDATE, "room1", null, "Jungle")));
+
+        assertEquals(List.of(201, 409, 200), results.stream().map(BatchResult::status).toList());
+        assertEquals("2", results.get(2).version());
+        verify(bulkCache).putAll(eq("rooms"), argThat(entries -> entries.keySet().equals(Set.of(results.getFirst().id()))));
+        verify(bulkCache).evictAll("rooms", List.of("room1"));
+    }
+
+    @Test
+    void batch_ShouldRejectInvalidCreatesAndEmptyUpdatesPerOperation() {
+        when(roomRepository.findWriteStateByIdIn(anyCollection())).thenReturn(List.of(room));
+        when(roomRepository.writeBatch(anyList())).thenReturn(new BatchWriteResult(0, 0, List.of()));
+
+        List<BatchResult> results = roomService.batch(List.of(
+                new RoomBatchOperation(BatchOperationType.UPDATE, "room1", null, null),
+                new RoomBatchOperation(BatchOperationType.CREATE, null, null, "")));
+
+        assertEquals(List.of(400, 400), results.stream().map(BatchResult::status).toList());
+        assertEquals("title is required for UPDATE", results.get(0).error());
+        assertEquals("title must not be blank", results.get(1).error());
+        verify(roomRepository).writeBatch(List.of());
     }
 }
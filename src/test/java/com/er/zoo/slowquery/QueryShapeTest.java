@@ -0,0 +1,39 @@
+package com.er.zoo.slowquery;
+
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link QueryShape}.
+ */
+class QueryShapeTest {
+
+    @Test
+    @DisplayName("Finds differing only in values should share a shape that keeps fields, operators and sort")
+    void shouldNormalizeFindValues() {
+        var first = QueryShape.of("zoodb", "find", BsonDocument.parse(
+                "{find: 'animal', filter: {roomId: 'r1', located: {$lt: {$date: '2024-01-01T00:00:00Z'}}}, sort: {located: -1}, limit: 10, lsid: {id: 1}}"));
+        var second = QueryShape.of("zoodb", "find", BsonDocument.parse(
+                "{find: 'animal', filter: {roomId: 'r2', located: {$lt: {$date: '2025-06-01T00:00:00Z'}}}, sort: {located: -1}, limit: 20}"));
+
+        assertEquals(first, second);
+        assertEquals("animal", first.collection());
+        assertEquals(BsonDocument.parse("{filter: {roomId: '?', located: {$lt: '?'}}, sort: {located: -1}}"),
+                BsonDocument.parse(first.shape()));
+    }
+
+    @Test
+    @DisplayName("Aggregations should keep their stages, field references and $sort directions")
+    void shouldNormalizePipeline() {
+        var shape = QueryShape.of("zoodb", "aggregate", BsonDocument.parse(
+                "{aggregate: 'room', pipeline: [{$match: {favoriteCount: {$gt: 0}, _id: {$in: ['a', 'b']}}},"
+                        + " {$sort: {favoriteCount: -1}}, {$limit: 5}, {$project: {title: '$title'}}], cursor: {}}"));
+
+        assertEquals(BsonDocument.parse("{pipeline: [{$match: {favoriteCount: {$gt: '?'}, _id: {$in: '?'}}},"
+                        + " {$sort: {favoriteCount: -1}}, {$limit: '?'}, {$project: {title: '$title'}}]}"),
+                BsonDocument.parse(shape.shape()));
+    }
+}
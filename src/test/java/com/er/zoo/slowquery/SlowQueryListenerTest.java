@@ -0,0 +1,113 @@
+package com.er.zoo.slowquery;
+
+import com.er.zoo.logging.LoggerService;
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Unit tests for {@link SlowQueryListener} and {@link SlowQueryLog}, driven by synthetic driver events.
+ */
+class SlowQueryListenerTest {
+
+    private static final ConnectionDescription CONNECTION =
+            new ConnectionDescription(new ServerId(new ClusterId(), new ServerAddress()));
+    private static final BsonDocument COLLSCAN_EXPLAIN = BsonDocument.parse("""
+            {queryPlanner: {winningPlan: {stage: 'SORT', inputStage: {stage: 'COLLSCAN'}},
+                            rejectedPlans: [{stage: 'FETCH', inputStage: {stage: 'IXSCAN'}}]},
+             executionStats: {nReturned: 10, totalKeysExamined: 0, totalDocsExamined: 50000}, ok: 1}""");
+
+    private final AtomicInteger requestIds = new AtomicInteger();
+    private final List<BsonDocument> explained = new CopyOnWriteArrayList<>();
+    private final SlowQueryLog log = new SlowQueryLog(2);
+    private final SlowQueryListener listener = new SlowQueryListener(
+            new SlowQueryProperties(Duration.ofMillis(100), 1.0, Duration.ofMinutes(10), 2), log,
+            (database, command) -> {
+                explained.add(command);
+                return COLLSCAN_EXPLAIN;
+            },
+            mock(LoggerService.class), Clock.fixed(Instant.parse("2025-01-01T00:00:00Z"), ZoneOffset.UTC));
+
+    @AfterEach
+    void close() {
+        listener.close();
+    }
+
+    private void run(String commandName, String command, long millis) {
+        int requestId = requestIds.incrementAndGet();
+        listener.commandStarted(new CommandStartedEvent(null, 1, requestId, CONNECTION, "zoodb", commandName,
+                BsonDocument.parse(command)));
+        listener.commandSucceeded(new CommandSucceededEvent(null, 1, requestId, CONNECTION, "zoodb", commandName,
+                new BsonDocument(), TimeUnit.MILLISECONDS.toNanos(millis)));
+    }
+
+    private SlowQuery awaitPlan() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (System.currentTimeMillis() < deadline) {
+            SlowQuery query = log.slowest().get(0);
+            if (query.plan() != null) return query;
+            Thread.sleep(10);
+        }
+        return fail("no plan attached");
+    }
+
+    @Test
+    @DisplayName("Slow command should be logged by shape and explained without session fields")
+    void shouldLogAndExplainSlowCommand() throws Exception {
+        run("find", "{find: 'animal', filter: {roomId: 'r1'}, sort: {located: 1}, lsid: {id: 1}, $db: 'zoodb'}", 250);
+        run("find", "{find: 'animal', filter: {roomId: 'r2'}, sort: {located: 1}, lsid: {id: 2}, $db: 'zoodb'}", 400);
+
+        SlowQuery query = awaitPlan();
+        assertEquals(2, query.count());
+        assertEquals(400, query.maxMillis());
+        assertEquals(400, query.lastMillis());
+        assertTrue(query.plan().collectionScan());
+        assertEquals(List.of("SORT", "COLLSCAN"), query.plan().stages());
+        assertEquals(50_000, query.plan().docsExamined());
+        assertEquals(10, query.plan().returned());
+
+        assertEquals(1, explained.size());
+        assertEquals(BsonDocument.parse("{explain: {find: 'animal', filter: {roomId: 'r1'}, sort: {located: 1}},"
+                + " verbosity: 'executionStats'}"), explained.get(0));
+    }
+
+    @Test
+    @DisplayName("Fast commands and commands explain does not accept should not be logged")
+    void shouldIgnoreFastAndOtherCommands() {
+        run("find", "{find: 'animal', filter: {roomId: 'r1'}}", 20);
+        run("insert", "{insert: 'animal', documents: [{title: 'Lion'}]}", 900);
+
+        assertTrue(log.slowest().isEmpty());
+    }
+
+    @Test
+    @DisplayName("A full log should keep the slowest shapes")
+    void shouldKeepSlowestShapes() {
+        run("find", "{find: 'animal', filter: {roomId: 'r1'}}", 300);
+        run("find", "{find: 'room', filter: {title: 'Green'}}", 150);
+        run("count", "{count: 'animal', query: {roomId: 'r1'}}", 200);
+        run("find", "{find: 'animal', filter: {title: 'Lion'}}", 120);
+
+        assertEquals(List.of(300.0, 200.0), log.slowest().stream().map(SlowQuery::maxMillis).toList());
+        assertEquals(List.of("find", "count"), log.slowest().stream().map(query -> query.shape().command()).toList());
+    }
+}